@@ -0,0 +1,106 @@
+package hmph.player;
+
+import hmph.math.Raycasting.Ray;
+import hmph.math.Vector3f;
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+import hmph.rendering.world.chunk.ChunkManager;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * raycastToBlockPrecise (voxel traversal) against the bounding-box scan it replaced, which
+ * slab-tests every solid block in the box around the ray. Same world and scan as BlockInteractionTest.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockInteractionBenchmark {
+    private static final int RAYS = 256;
+
+    private ChunkManager chunkManager;
+    private ChunkGrid<ChunkBase> chunks;
+    private final Vector3f[] origins = new Vector3f[RAYS];
+    private final Vector3f[] directions = new Vector3f[RAYS];
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void buildWorld() {
+        BlockRegistry registry = new BlockRegistry();
+        int stone = registry.getIDFromName("stone");
+        chunkManager = new ChunkManager(registry, 4);
+        chunks = chunkManager.getLoadedChunks();
+
+        // Solid ground up to y=60 with loose blocks scattered above it, across chunk borders
+        Random random = new Random(5);
+        for (int chunkX = -2; chunkX <= 2; chunkX++) {
+            for (int chunkZ = -2; chunkZ <= 2; chunkZ++) {
+                int[][][] blocks = new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+                for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                    for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                        for (int y = 0; y < 90; y++) {
+                            if (y < 60 || random.nextInt(60) == 0) blocks[x][y][z] = stone;
+                        }
+                    }
+                }
+                chunks.put(new ChunkBase(chunkX, chunkZ, registry, blocks));
+            }
+        }
+
+        for (int i = 0; i < RAYS; i++) {
+            Vector3f origin = new Vector3f(random.nextFloat() * 40 - 20, 61 + random.nextFloat() * 20, random.nextFloat() * 40 - 20);
+            if (block((int) Math.floor(origin.x), (int) Math.floor(origin.y), (int) Math.floor(origin.z)) != 0) {
+                i--;
+                continue;
+            }
+            origins[i] = origin;
+            directions[i] = new Vector3f(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1,
+                    random.nextFloat() * 2 - 1).normalize();
+        }
+    }
+
+    private int block(int x, int y, int z) {
+        ChunkBase chunk = chunks.get(Math.floorDiv(x, ChunkBase.SIZE_X), Math.floorDiv(z, ChunkBase.SIZE_Z));
+        return chunk != null ? chunk.getBlockWorld(x, y, z) : 0;
+    }
+
+    @Benchmark
+    public void raycastToBlockPrecise(Blackhole blackhole) {
+        int i = next++ & (RAYS - 1);
+        blackhole.consume(BlockInteraction.raycastToBlockPrecise(origins[i], directions[i], chunkManager).hit);
+    }
+
+    @Benchmark
+    public void boundingBoxScan(Blackhole blackhole) {
+        int i = next++ & (RAYS - 1);
+        Vector3f origin = origins[i];
+        Ray ray = new Ray(origin, directions[i]);
+        Vector3f end = ray.getPointAt(BlockInteraction.max_reach);
+        float closest = BlockInteraction.max_reach;
+        int hitX = 0, hitY = 0, hitZ = 0;
+        for (int x = (int) Math.floor(Math.min(origin.x, end.x)); x <= (int) Math.floor(Math.max(origin.x, end.x)); x++) {
+            for (int y = (int) Math.floor(Math.min(origin.y, end.y)); y <= (int) Math.floor(Math.max(origin.y, end.y)); y++) {
+                for (int z = (int) Math.floor(Math.min(origin.z, end.z)); z <= (int) Math.floor(Math.max(origin.z, end.z)); z++) {
+                    if (block(x, y, z) == 0) continue;
+                    float t = ray.intersectBlock(x, y, z);
+                    if (t >= 0 && t <= closest) {
+                        closest = t;
+                        hitX = x;
+                        hitY = y;
+                        hitZ = z;
+                    }
+                }
+            }
+        }
+        blackhole.consume(closest);
+        blackhole.consume(hitX + hitY + hitZ);
+    }
+}
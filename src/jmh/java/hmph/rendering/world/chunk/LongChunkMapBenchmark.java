@@ -0,0 +1,141 @@
+package hmph.rendering.world.chunk;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LongChunkMap against the boxed maps it replaced, on the chunk manager's access pattern: a square
+ * window of columns around the player, looked up every frame, with a strip entering and a strip
+ * leaving each time the player crosses into the next chunk.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongChunkMapBenchmark {
+
+    @Param({"8", "16", "32"})
+    public int renderDistance;
+
+    private LongChunkMap<Object> longMap;
+    private Map<Long, Object> hashMap;
+    private Map<Long, Object> concurrentMap;
+    // Every column of the window, then the window one chunk east, the lookups a frame does
+    private long[] window;
+    private long[] shiftedWindow;
+    // Columns the window gains and loses moving one chunk east
+    private long[] entering;
+    private long[] leaving;
+    private final Object value = new Object();
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        int side = renderDistance * 2 + 1;
+        window = new long[side * side];
+        shiftedWindow = new long[side * side];
+        entering = new long[side];
+        leaving = new long[side];
+
+        longMap = new LongChunkMap<>();
+        hashMap = new HashMap<>();
+        concurrentMap = new ConcurrentHashMap<>();
+        int i = 0;
+        for (int x = -renderDistance; x <= renderDistance; x++) {
+            for (int z = -renderDistance; z <= renderDistance; z++) {
+                long key = ChunkGrid.key(x, z);
+                window[i] = key;
+                shiftedWindow[i++] = ChunkGrid.key(x + 1, z);
+                longMap.put(key, value);
+                hashMap.put(key, value);
+                concurrentMap.put(key, value);
+            }
+        }
+        for (int z = -renderDistance, s = 0; z <= renderDistance; z++, s++) {
+            entering[s] = ChunkGrid.key(renderDistance + 1, z);
+            leaving[s] = ChunkGrid.key(-renderDistance, z);
+        }
+    }
+
+    @Benchmark
+    public void getWindowLongChunkMap(Blackhole blackhole) {
+        for (long key : window) blackhole.consume(longMap.get(key));
+    }
+
+    @Benchmark
+    public void getWindowHashMap(Blackhole blackhole) {
+        for (long key : window) blackhole.consume(hashMap.get(key));
+    }
+
+    @Benchmark
+    public void getWindowConcurrentHashMap(Blackhole blackhole) {
+        for (long key : window) blackhole.consume(concurrentMap.get(key));
+    }
+
+    /**
+     * Lookups one chunk over, the entering strip misses
+     */
+    @Benchmark
+    public void getShiftedLongChunkMap(Blackhole blackhole) {
+        for (long key : shiftedWindow) blackhole.consume(longMap.get(key));
+    }
+
+    @Benchmark
+    public void getShiftedHashMap(Blackhole blackhole) {
+        for (long key : shiftedWindow) blackhole.consume(hashMap.get(key));
+    }
+
+    @Benchmark
+    public void getShiftedConcurrentHashMap(Blackhole blackhole) {
+        for (long key : shiftedWindow) blackhole.consume(concurrentMap.get(key));
+    }
+
+    /**
+     * One chunk crossing and back: the strips are added and dropped, the map ends where it started
+     */
+    @Benchmark
+    public void moveWindowLongChunkMap() {
+        for (long key : entering) longMap.put(key, value);
+        for (long key : leaving) longMap.remove(key);
+        for (long key : leaving) longMap.put(key, value);
+        for (long key : entering) longMap.remove(key);
+    }
+
+    @Benchmark
+    public void moveWindowHashMap() {
+        for (long key : entering) hashMap.put(key, value);
+        for (long key : leaving) hashMap.remove(key);
+        for (long key : leaving) hashMap.put(key, value);
+        for (long key : entering) hashMap.remove(key);
+    }
+
+    @Benchmark
+    public void moveWindowConcurrentHashMap() {
+        for (long key : entering) concurrentMap.put(key, value);
+        for (long key : leaving) concurrentMap.remove(key);
+        for (long key : leaving) concurrentMap.put(key, value);
+        for (long key : entering) concurrentMap.remove(key);
+    }
+
+    @Benchmark
+    public void iterateLongChunkMap(Blackhole blackhole) {
+        longMap.forEach((key, v) -> blackhole.consume(key));
+    }
+
+    @Benchmark
+    public void iterateHashMap(Blackhole blackhole) {
+        hashMap.forEach((key, v) -> blackhole.consume(key.longValue()));
+    }
+
+    @Benchmark
+    public void iterateConcurrentHashMap(Blackhole blackhole) {
+        concurrentMap.forEach((key, v) -> blackhole.consume(key.longValue()));
+    }
+}
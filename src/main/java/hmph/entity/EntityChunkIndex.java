@@ -0,0 +1,134 @@
+package hmph.entity;
+
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+import hmph.rendering.world.chunk.LongChunkMap;
+
+import java.util.Arrays;
+
+/**
+ * Entity ids bucketed by the chunk column they stand in, for range queries that only look at
+ * the columns they overlap. Buckets hold ids rather than dense indices so removals elsewhere in
+ * the store never invalidate them. Same thread as the EntityStore.
+ */
+public class EntityChunkIndex {
+
+    /**
+     * Growable list of the ids in one column
+     */
+    private static final class Bucket {
+        int[] ids = new int[8];
+        int count = 0;
+
+        void add(int id) {
+            if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+            ids[count++] = id;
+        }
+
+        void remove(int id) {
+            for (int i = 0; i < count; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--count];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final LongChunkMap<Bucket> buckets = new LongChunkMap<>();
+    private int moves = 0;
+
+    /**
+     * Put a freshly spawned entity in its column
+     */
+    public void add(EntityStore store, int index) {
+        long key = keyOf(store.posX[index], store.posZ[index]);
+        store.chunkKey[index] = key;
+        buckets.computeIfAbsent(key, k -> new Bucket()).add(store.idAt(index));
+    }
+
+    /**
+     * Take an entity out before it's removed from the store
+     */
+    public void remove(EntityStore store, int index) {
+        long key = store.chunkKey[index];
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) return;
+        bucket.remove(store.idAt(index));
+        if (bucket.count == 0) buckets.remove(key);
+    }
+
+    /**
+     * Move entities that crossed into another column since the last call, run after every physics step
+     */
+    public void update(EntityStore store) {
+        moves = 0;
+        float[] posX = store.posX, posZ = store.posZ;
+        long[] chunkKey = store.chunkKey;
+        for (int i = 0; i < store.size(); i++) {
+            long key = keyOf(posX[i], posZ[i]);
+            if (key == chunkKey[i]) continue;
+            remove(store, i);
+            chunkKey[i] = key;
+            buckets.computeIfAbsent(key, k -> new Bucket()).add(store.idAt(i));
+            moves++;
+        }
+    }
+
+    /**
+     * Dense indices of the entities whose box overlaps the given one, written to out.
+     * Returns how many were found, out fills up to its length. Valid until the next spawn or remove.
+     */
+    public int query(EntityStore store, float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] out) {
+        int found = 0;
+        int fromX = Math.floorDiv((int) Math.floor(minX), ChunkBase.SIZE_X) - 1;
+        int toX = Math.floorDiv((int) Math.floor(maxX), ChunkBase.SIZE_X) + 1;
+        int fromZ = Math.floorDiv((int) Math.floor(minZ), ChunkBase.SIZE_Z) - 1;
+        int toZ = Math.floorDiv((int) Math.floor(maxZ), ChunkBase.SIZE_Z) + 1;
+
+        // One extra column around the range, a box can reach over the border of the column its position is in
+        for (int chunkX = fromX; chunkX <= toX; chunkX++) {
+            for (int chunkZ = fromZ; chunkZ <= toZ; chunkZ++) {
+                Bucket bucket = buckets.get(ChunkGrid.key(chunkX, chunkZ));
+                if (bucket == null) continue;
+                for (int b = 0; b < bucket.count && found < out.length; b++) {
+                    int i = store.indexOf(bucket.ids[b]);
+                    if (i < 0) continue;
+                    float half = store.halfWidth[i];
+                    if (store.posX[i] + half < minX || store.posX[i] - half > maxX) continue;
+                    if (store.posZ[i] + half < minZ || store.posZ[i] - half > maxZ) continue;
+                    if (store.posY[i] + store.height[i] < minY || store.posY[i] > maxY) continue;
+                    out[found++] = i;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Dense indices of the entities whose position lies within radius of a point
+     */
+    public int queryRadius(EntityStore store, float x, float y, float z, float radius, int[] out) {
+        int found = query(store, x - radius, y - radius, z - radius, x + radius, y + radius, z + radius, out);
+        int kept = 0;
+        float radiusSquared = radius * radius;
+        for (int n = 0; n < found; n++) {
+            int i = out[n];
+            float dx = store.posX[i] - x, dy = store.posY[i] - y, dz = store.posZ[i] - z;
+            if (dx * dx + dy * dy + dz * dz <= radiusSquared) out[kept++] = i;
+        }
+        return kept;
+    }
+
+    public void clear() {
+        buckets.clear();
+    }
+
+    public int getColumnCount() { return buckets.size(); }
+    public int getMovesLastUpdate() { return moves; }
+
+    private static long keyOf(float x, float z) {
+        return ChunkGrid.key(Math.floorDiv((int) Math.floor(x), ChunkBase.SIZE_X),
+                Math.floorDiv((int) Math.floor(z), ChunkBase.SIZE_Z));
+    }
+}
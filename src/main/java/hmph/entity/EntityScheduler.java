@@ -0,0 +1,161 @@
+package hmph.entity;
+
+import hmph.util.debug.LoggerHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs entity systems in the order they were added. Parallel systems over enough entities are
+ * cut into batches that the calling thread and the worker threads take turns claiming, the
+ * caller waits until every batch is done before the next system starts.
+ */
+public class EntityScheduler {
+    // Entities per claimed batch, big enough that claiming costs nothing next to the work
+    public static final int BATCH_SIZE = 256;
+    // Below this the hand-off to the workers costs more than it saves
+    private static final int PARALLEL_THRESHOLD = BATCH_SIZE * 4;
+    // Past any store, claiming from here ends the run (with room to spare before int overflow)
+    private static final int STOP_BATCH = EntityStore.MAX_ENTITIES / BATCH_SIZE + 1;
+
+    private final List<EntitySystem> systems = new ArrayList<>();
+    private final int workerCount;
+    private final ExecutorService workers;
+
+    // State of the parallel run in progress
+    private final AtomicInteger nextBatch = new AtomicInteger();
+    private final AtomicInteger helpersRunning = new AtomicInteger();
+    private volatile EntitySystem currentSystem;
+    private volatile EntityStore currentStore;
+    private volatile int currentCount;
+    private volatile float currentDelta;
+    private volatile Thread caller;
+    // First failure of the run, later ones are dropped
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Runnable[] helpers;
+
+    private long parallelRuns = 0;
+    private long serialRuns = 0;
+
+    /**
+     * workerCount is the total threads a parallel system runs on, the caller included, 1 runs everything serially
+     */
+    public EntityScheduler(int workerCount) {
+        this.workerCount = Math.max(1, workerCount);
+        this.helpers = new Runnable[this.workerCount];
+        if (this.workerCount > 1) {
+            workers = Executors.newFixedThreadPool(this.workerCount - 1, r -> {
+                Thread thread = new Thread(r, "EntityWorker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int w = 1; w < this.workerCount; w++) {
+                int worker = w;
+                helpers[w] = () -> help(worker);
+            }
+        } else {
+            workers = null;
+        }
+        LoggerHelper.betterPrint("Entity scheduler: " + this.workerCount + " thread(s)", LoggerHelper.LogType.INFO);
+    }
+
+    public void addSystem(EntitySystem system) {
+        systems.add(system);
+    }
+
+    public boolean removeSystem(EntitySystem system) {
+        return systems.remove(system);
+    }
+
+    /**
+     * Run every system once over the whole store
+     */
+    public void run(EntityStore store, float deltaTime) {
+        for (EntitySystem system : systems) {
+            int count = store.size();
+            if (workers == null || !system.isParallel() || count < PARALLEL_THRESHOLD) {
+                system.update(store, 0, count, deltaTime, 0);
+                serialRuns++;
+            } else {
+                runParallel(system, store, count, deltaTime);
+                parallelRuns++;
+            }
+        }
+    }
+
+    public int getWorkerCount() { return workerCount; }
+
+    public String getStats() {
+        return String.format("Entity systems: %d on %d thread(s), %d parallel / %d serial runs",
+                systems.size(), workerCount, parallelRuns, serialRuns);
+    }
+
+    public void cleanup() {
+        if (workers != null) workers.shutdownNow();
+    }
+
+    private void runParallel(EntitySystem system, EntityStore store, int count, float deltaTime) {
+        currentSystem = system;
+        currentStore = store;
+        currentCount = count;
+        currentDelta = deltaTime;
+        caller = Thread.currentThread();
+        failure.set(null);
+        nextBatch.set(0);
+
+        int batches = (count + BATCH_SIZE - 1) / BATCH_SIZE;
+        int helperCount = Math.min(workerCount, batches) - 1;
+        helpersRunning.set(helperCount);
+        for (int w = 1; w <= helperCount; w++) {
+            workers.execute(helpers[w]);
+        }
+
+        try {
+            claimBatches(0);
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+            // Stop handing out batches, the helpers finish the ones they hold
+            nextBatch.set(STOP_BATCH);
+        } finally {
+            // Helpers must be done with the store before the next system or tick touches it
+            while (helpersRunning.get() > 0) {
+                LockSupport.park(this);
+            }
+            currentSystem = null;
+            currentStore = null;
+        }
+
+        Throwable error = failure.getAndSet(null);
+        if (error instanceof RuntimeException) throw (RuntimeException) error;
+        if (error instanceof Error) throw (Error) error;
+        if (error != null) throw new RuntimeException("Entity system failed", error);
+    }
+
+    private void help(int worker) {
+        try {
+            claimBatches(worker);
+        } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+            nextBatch.set(STOP_BATCH);
+        } finally {
+            if (helpersRunning.decrementAndGet() == 0) LockSupport.unpark(caller);
+        }
+    }
+
+    private void claimBatches(int worker) {
+        EntitySystem system = currentSystem;
+        EntityStore store = currentStore;
+        int count = currentCount;
+        float deltaTime = currentDelta;
+        int batch;
+        while ((batch = nextBatch.getAndIncrement()) * BATCH_SIZE < count) {
+            int from = batch * BATCH_SIZE;
+            system.update(store, from, Math.min(from + BATCH_SIZE, count), deltaTime, worker);
+        }
+    }
+}
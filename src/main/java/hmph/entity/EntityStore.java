@@ -0,0 +1,181 @@
+package hmph.entity;
+
+import java.util.Arrays;
+
+/**
+ * Structure of arrays storage for entities. Every component is one primitive array indexed by a
+ * dense index 0..size-1, so systems stream through memory instead of chasing objects.
+ * Removing swaps the last entity into the hole, so dense indices are only stable until the next
+ * spawn or remove. Ids stay valid for the entity's whole life (slot plus a generation, so a
+ * stale id never resolves to whoever reuses the slot).
+ * The arrays are replaced when they grow, systems must read the fields again every update.
+ * Not thread safe, parallel systems may only write the entries of their own index range.
+ */
+public class EntityStore {
+    private static final int SLOT_BITS = 20;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    public static final int MAX_ENTITIES = 1 << SLOT_BITS;
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Components by dense index
+    public float[] posX, posY, posZ;
+    public float[] velX, velY, velZ;
+    // Box around the position: x/z +- halfWidth, y up to posY + height
+    public float[] halfWidth, height;
+    public byte[] type;
+    public boolean[] onGround;
+    // Chunk column the entity was last indexed in, maintained by EntityChunkIndex
+    public long[] chunkKey;
+    // Id of the entity at each dense index
+    private int[] ids;
+
+    // Slot -> dense index (-1 when free) and the slot's current generation
+    private int[] slotIndex;
+    private int[] slotGeneration;
+    private int[] freeSlots;
+    private int freeCount = 0;
+    private int slotCount = 0;
+
+    private int size = 0;
+
+    public EntityStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public EntityStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        posX = new float[capacity];
+        posY = new float[capacity];
+        posZ = new float[capacity];
+        velX = new float[capacity];
+        velY = new float[capacity];
+        velZ = new float[capacity];
+        halfWidth = new float[capacity];
+        height = new float[capacity];
+        type = new byte[capacity];
+        onGround = new boolean[capacity];
+        chunkKey = new long[capacity];
+        ids = new int[capacity];
+        slotIndex = new int[capacity];
+        slotGeneration = new int[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    /**
+     * Add an entity at rest, returns its id
+     */
+    public int spawn(EntityType entityType, float x, float y, float z) {
+        if (size == MAX_ENTITIES) {
+            throw new IllegalStateException("Entity limit reached: " + MAX_ENTITIES);
+        }
+        if (size == posX.length) grow();
+
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = slotCount++;
+        }
+        int id = (slotGeneration[slot] << SLOT_BITS) | slot;
+
+        int i = size++;
+        slotIndex[slot] = i;
+        ids[i] = id;
+        posX[i] = x;
+        posY[i] = y;
+        posZ[i] = z;
+        velX[i] = 0;
+        velY[i] = 0;
+        velZ[i] = 0;
+        halfWidth[i] = entityType.halfWidth;
+        height[i] = entityType.height;
+        type[i] = (byte) entityType.ordinal();
+        onGround[i] = false;
+        chunkKey[i] = 0;
+        return id;
+    }
+
+    /**
+     * Remove an entity, false if the id is already dead. The last entity moves into its dense index.
+     */
+    public boolean remove(int id) {
+        int i = indexOf(id);
+        if (i < 0) return false;
+
+        int slot = id & SLOT_MASK;
+        int last = --size;
+        if (i != last) {
+            posX[i] = posX[last];
+            posY[i] = posY[last];
+            posZ[i] = posZ[last];
+            velX[i] = velX[last];
+            velY[i] = velY[last];
+            velZ[i] = velZ[last];
+            halfWidth[i] = halfWidth[last];
+            height[i] = height[last];
+            type[i] = type[last];
+            onGround[i] = onGround[last];
+            chunkKey[i] = chunkKey[last];
+            ids[i] = ids[last];
+            slotIndex[ids[i] & SLOT_MASK] = i;
+        }
+
+        slotIndex[slot] = -1;
+        slotGeneration[slot] = (slotGeneration[slot] + 1) & (Integer.MAX_VALUE >>> SLOT_BITS);
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Dense index of a live entity, -1 if it was removed
+     */
+    public int indexOf(int id) {
+        int slot = id & SLOT_MASK;
+        if (id < 0 || slot >= slotCount || slotGeneration[slot] != id >>> SLOT_BITS) return -1;
+        return slotIndex[slot];
+    }
+
+    public boolean isAlive(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    public EntityType typeAt(int index) {
+        return EntityType.of(type[index]);
+    }
+
+    public void setVelocity(int index, float x, float y, float z) {
+        velX[index] = x;
+        velY[index] = y;
+        velZ[index] = z;
+    }
+
+    public int size() { return size; }
+    public int capacity() { return posX.length; }
+
+    public void clear() {
+        for (int i = size - 1; i >= 0; i--) remove(ids[i]);
+    }
+
+    private void grow() {
+        int capacity = Math.min(posX.length * 2, MAX_ENTITIES);
+        posX = Arrays.copyOf(posX, capacity);
+        posY = Arrays.copyOf(posY, capacity);
+        posZ = Arrays.copyOf(posZ, capacity);
+        velX = Arrays.copyOf(velX, capacity);
+        velY = Arrays.copyOf(velY, capacity);
+        velZ = Arrays.copyOf(velZ, capacity);
+        halfWidth = Arrays.copyOf(halfWidth, capacity);
+        height = Arrays.copyOf(height, capacity);
+        type = Arrays.copyOf(type, capacity);
+        onGround = Arrays.copyOf(onGround, capacity);
+        chunkKey = Arrays.copyOf(chunkKey, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        slotIndex = Arrays.copyOf(slotIndex, capacity);
+        slotGeneration = Arrays.copyOf(slotGeneration, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+}
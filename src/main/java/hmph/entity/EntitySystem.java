@@ -0,0 +1,18 @@
+package hmph.entity;
+
+/**
+ * One step of entity logic over a range of dense indices.
+ * A parallel system is handed disjoint ranges from several threads at once and may only write
+ * the components of its own range; worker tells it which thread it's on (0 to workerCount-1)
+ * so it can keep scratch state per thread.
+ */
+public interface EntitySystem {
+    void update(EntityStore store, int from, int to, float deltaTime, int worker);
+
+    /**
+     * Whether ranges can run at the same time, serial systems always get the whole store on one thread
+     */
+    default boolean isParallel() {
+        return false;
+    }
+}
@@ -0,0 +1,29 @@
+package hmph.entity;
+
+/**
+ * Kinds of entity with their box size and how quickly they slow down
+ */
+public enum EntityType {
+    ITEM(0.125f, 0.25f, 0.6f, 0.98f),
+    MOB(0.3f, 1.8f, 0.85f, 0.98f);
+
+    // Half the box width on x and z, the box stands on its position
+    public final float halfWidth;
+    public final float height;
+    // Horizontal velocity kept per tick on the ground and in the air
+    public final float groundDrag;
+    public final float airDrag;
+
+    private static final EntityType[] VALUES = values();
+
+    EntityType(float halfWidth, float height, float groundDrag, float airDrag) {
+        this.halfWidth = halfWidth;
+        this.height = height;
+        this.groundDrag = groundDrag;
+        this.airDrag = airDrag;
+    }
+
+    public static EntityType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
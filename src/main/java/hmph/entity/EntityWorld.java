@@ -0,0 +1,78 @@
+package hmph.entity;
+
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+
+/**
+ * Entities of the loaded world: the component store, its chunk index and the systems that move them.
+ * Everything here runs on the thread that runs the simulation ticks, use Simulation.submit from elsewhere.
+ */
+public class EntityWorld {
+    // Anything that falls this far below the world is gone for good
+    private static final float VOID_Y = -64f;
+
+    private final EntityStore store = new EntityStore();
+    private final EntityChunkIndex index = new EntityChunkIndex();
+    private final EntityScheduler scheduler;
+
+    public EntityWorld(ChunkGrid<ChunkBase> chunks, int workerCount) {
+        this.scheduler = new EntityScheduler(workerCount);
+        scheduler.addSystem(new PhysicsSystem(chunks, scheduler.getWorkerCount()));
+    }
+
+    public int spawn(EntityType type, float x, float y, float z, float velocityX, float velocityY, float velocityZ) {
+        int id = store.spawn(type, x, y, z);
+        int i = store.indexOf(id);
+        store.setVelocity(i, velocityX, velocityY, velocityZ);
+        index.add(store, i);
+        return id;
+    }
+
+    public boolean remove(int id) {
+        int i = store.indexOf(id);
+        if (i < 0) return false;
+        index.remove(store, i);
+        return store.remove(id);
+    }
+
+    /**
+     * Run the systems for one tick, then drop what fell out of the world and reindex what moved
+     */
+    public void update(float deltaTime) {
+        scheduler.run(store, deltaTime);
+        for (int i = store.size() - 1; i >= 0; i--) {
+            if (store.posY[i] < VOID_Y) remove(store.idAt(i));
+        }
+        index.update(store);
+    }
+
+    /**
+     * Dense indices of the entities overlapping a box, see EntityChunkIndex.query
+     */
+    public int query(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] out) {
+        return index.query(store, minX, minY, minZ, maxX, maxY, maxZ, out);
+    }
+
+    public int queryRadius(float x, float y, float z, float radius, int[] out) {
+        return index.queryRadius(store, x, y, z, radius, out);
+    }
+
+    public void clear() {
+        store.clear();
+        index.clear();
+    }
+
+    public EntityStore getStore() { return store; }
+    public EntityChunkIndex getIndex() { return index; }
+    public EntityScheduler getScheduler() { return scheduler; }
+
+    public String getStats() {
+        return String.format("Entities: %d in %d columns, %d changed column last tick. %s",
+                store.size(), index.getColumnCount(), index.getMovesLastUpdate(), scheduler.getStats());
+    }
+
+    public void cleanup() {
+        scheduler.cleanup();
+        clear();
+    }
+}
@@ -0,0 +1,71 @@
+package hmph.entity;
+
+import hmph.physics.VoxelCollider;
+import hmph.player.Player;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+
+/**
+ * Gravity, drag and block collision for every entity, through the same swept VoxelCollider the
+ * player moves with. Each worker thread gets its own collider, so ranges run in parallel.
+ */
+public class PhysicsSystem implements EntitySystem {
+    // Horizontal speeds below this are zeroed on the ground so entities settle instead of creeping
+    private static final float REST_SPEED = 0.01f;
+
+    private final ChunkGrid<ChunkBase> chunks;
+    private final VoxelCollider[] colliders;
+
+    public PhysicsSystem(ChunkGrid<ChunkBase> chunks, int workerCount) {
+        this.chunks = chunks;
+        colliders = new VoxelCollider[Math.max(1, workerCount)];
+        for (int i = 0; i < colliders.length; i++) {
+            colliders[i] = new VoxelCollider(chunks);
+        }
+    }
+
+    @Override
+    public void update(EntityStore store, int from, int to, float deltaTime, int worker) {
+        VoxelCollider collider = colliders[worker];
+        float[] posX = store.posX, posY = store.posY, posZ = store.posZ;
+        float[] velX = store.velX, velY = store.velY, velZ = store.velZ;
+        float[] halfWidth = store.halfWidth, height = store.height;
+        boolean[] onGround = store.onGround;
+        byte[] type = store.type;
+
+        for (int i = from; i < to; i++) {
+            // Frozen until the column under it loads, unloaded blocks read as air and it would fall through
+            if (chunks.get(Math.floorDiv((int) Math.floor(posX[i]), ChunkBase.SIZE_X),
+                    Math.floorDiv((int) Math.floor(posZ[i]), ChunkBase.SIZE_Z)) == null) continue;
+
+            velY[i] += Player.GRAVITY * deltaTime;
+            float dx = velX[i] * deltaTime, dy = velY[i] * deltaTime, dz = velZ[i] * deltaTime;
+
+            float half = halfWidth[i];
+            collider.move(posX[i] - half, posY[i], posZ[i] - half, posX[i] + half, posY[i] + height[i], posZ[i] + half,
+                    dx, dy, dz);
+            posX[i] += collider.moveX;
+            posY[i] += collider.moveY;
+            posZ[i] += collider.moveZ;
+
+            onGround[i] = collider.collidedY && dy < 0;
+            if (collider.collidedX) velX[i] = 0;
+            if (collider.collidedY) velY[i] = 0;
+            if (collider.collidedZ) velZ[i] = 0;
+
+            EntityType entityType = EntityType.of(type[i]);
+            float drag = onGround[i] ? entityType.groundDrag : entityType.airDrag;
+            velX[i] *= drag;
+            velZ[i] *= drag;
+            if (onGround[i] && Math.abs(velX[i]) < REST_SPEED && Math.abs(velZ[i]) < REST_SPEED) {
+                velX[i] = 0;
+                velZ[i] = 0;
+            }
+        }
+    }
+
+    @Override
+    public boolean isParallel() {
+        return true;
+    }
+}
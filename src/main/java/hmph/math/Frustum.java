@@ -6,6 +6,9 @@ import hmph.math.Vector3f;
 public class Frustum {
     private Plane[] planes = new Plane[6];
 
+    // Scratch for cullAABBs, grows to the largest batch seen
+    private float[] batchDistances = new float[0];
+
     // Plane indices
     private static final int LEFT = 0;
     private static final int RIGHT = 1;
@@ -132,6 +135,64 @@ public class Frustum {
         return true;
     }
 
+    /**
+     * Allocation-free AABB test on raw coordinates
+     */
+    public boolean intersectsAABB(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < 6; i++) {
+            Plane plane = planes[i];
+
+            float px = plane.a >= 0 ? maxX : minX;
+            float py = plane.b >= 0 ? maxY : minY;
+            float pz = plane.c >= 0 ? maxZ : minZ;
+
+            if (plane.distanceToPoint(px, py, pz) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Test a batch of AABBs given as structure-of-arrays bounds
+     * Bit i of visibleBits is set when box i intersects or is inside the frustum, other bits are cleared.
+     * The plane loop sits outside so the inner loop is straight float math over arrays and can be vectorised.
+     */
+    public void cullAABBs(float[] minX, float[] minY, float[] minZ,
+                          float[] maxX, float[] maxY, float[] maxZ,
+                          int count, long[] visibleBits) {
+        if (batchDistances.length < count) {
+            batchDistances = new float[count];
+        }
+        float[] worst = batchDistances;
+        java.util.Arrays.fill(worst, 0, count, Float.POSITIVE_INFINITY);
+
+        for (int p = 0; p < 6; p++) {
+            Plane plane = planes[p];
+            float a = plane.a, b = plane.b, c = plane.c, d = plane.d;
+
+            // Positive vertex per axis only depends on the plane, so pick the array once
+            float[] px = a >= 0 ? maxX : minX;
+            float[] py = b >= 0 ? maxY : minY;
+            float[] pz = c >= 0 ? maxZ : minZ;
+
+            for (int i = 0; i < count; i++) {
+                float dist = a * px[i] + b * py[i] + c * pz[i] + d;
+                worst[i] = Math.min(worst[i], dist);
+            }
+        }
+
+        int words = (count + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            visibleBits[w] = 0L;
+        }
+        for (int i = 0; i < count; i++) {
+            if (worst[i] >= 0) {
+                visibleBits[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
     /**
      * Test if a sphere intersects the frustum
      */
@@ -148,15 +209,8 @@ public class Frustum {
      * Test if a chunk is visible
      */
     public boolean isChunkVisible(Vector3f chunkPos, float chunkSize) {
-        // Create bounding box for the chunk
-        Vector3f min = new Vector3f(chunkPos.x, chunkPos.y, chunkPos.z);
-        Vector3f max = new Vector3f(
-                chunkPos.x + chunkSize,
-                chunkPos.y + 256f,
-                chunkPos.z + chunkSize
-        );
-
-        return intersectsAABB(min, max);
+        return intersectsAABB(chunkPos.x, chunkPos.y, chunkPos.z,
+                chunkPos.x + chunkSize, chunkPos.y + 256f, chunkPos.z + chunkSize);
     }
 
     /**
@@ -38,6 +38,21 @@ public class Matrix4f {
         return multiply(temp);
     }
 
+    /**
+     * Reset to a pure translation in place, for per-draw model matrices without allocating
+     */
+    public Matrix4f translation(float x, float y, float z) {
+        identity();
+        m[12] = x;
+        m[13] = y;
+        m[14] = z;
+        return this;
+    }
+
+    public Matrix4f translation(Vector3f translation) {
+        return translation(translation.x, translation.y, translation.z);
+    }
+
     public Matrix4f rotateX(float angle) {
         float cos = (float) Math.cos(angle);
         float sin = (float) Math.sin(angle);
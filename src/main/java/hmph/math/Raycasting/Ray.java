@@ -45,51 +45,42 @@ public class Ray {
     }
 
     /**
-     * Test intersection with an axis-alinged bounding box (AABB)
+     * Test intersection with an axis-alinged bounding box (AABB), slab method
      * Returns the distance to intersection, or -1 if there is none
      */
     public float intersectAABB(Vector3f boxMin, Vector3f boxMax) {
-        float tmin = (boxMin.x - origin.x) / direction.x;
-        float tmax = (boxMin.x - origin.x) / direction.x;
+        float tmin = Float.NEGATIVE_INFINITY;
+        float tmax = Float.POSITIVE_INFINITY;
 
-        if (tmin > tmax) {
-            float temp = tmin;
-            tmin = tmax;
-            tmax = temp;
-        }
-
-        float tymin = (boxMin.y - origin.y) / direction.y;
-        float tymax = (boxMin.y - origin.y) / direction.y;
-
-        if (tymin > tymax) {
-            float temp = tmin;
-            tymin = tymax;
-            tymax = temp;
+        // One slab per axis, parallel to a slab means either always inside it or never
+        if (direction.x == 0) {
+            if (origin.x < boxMin.x || origin.x > boxMax.x) return -1;
+        } else {
+            float t1 = (boxMin.x - origin.x) / direction.x;
+            float t2 = (boxMax.x - origin.x) / direction.x;
+            tmin = Math.max(tmin, Math.min(t1, t2));
+            tmax = Math.min(tmax, Math.max(t1, t2));
         }
-
-        if (tmin > tmax || tymin > tymax) {
-            return -1;
+        if (direction.y == 0) {
+            if (origin.y < boxMin.y || origin.y > boxMax.y) return -1;
+        } else {
+            float t1 = (boxMin.y - origin.y) / direction.y;
+            float t2 = (boxMax.y - origin.y) / direction.y;
+            tmin = Math.max(tmin, Math.min(t1, t2));
+            tmax = Math.min(tmax, Math.max(t1, t2));
         }
-
-        if (tymin > tmin) tmin = tymin;
-        if (tymax > tmax) tmax = tymax;
-
-        float tzmin = (boxMin.z - origin.z) / direction.z;
-        float tzmax = (boxMin.z - origin.z) / direction.z;
-
-        if (tzmin > tzmax) {
-            float temp = tmin;
-            tzmin = tzmax;
-            tzmax = temp;
+        if (direction.z == 0) {
+            if (origin.z < boxMin.z || origin.z > boxMax.z) return -1;
+        } else {
+            float t1 = (boxMin.z - origin.z) / direction.z;
+            float t2 = (boxMax.z - origin.z) / direction.z;
+            tmin = Math.max(tmin, Math.min(t1, t2));
+            tmax = Math.min(tmax, Math.max(t1, t2));
         }
 
-        if (tmin > tmax || tzmin > tzmax) {
+        if (tmin > tmax) {
             return -1;
         }
-
-        if (tzmin > tmin) tmin = tzmin;
-        if (tzmax > tmax) tmax = tzmax;
-
         return tmin > 0 ? tmin : (tmax > 0 ? tmax : -1);
     }
 
@@ -125,7 +116,7 @@ public class Ray {
         } else if (absY > absX && absY > absZ) {
             return new Vector3f(0, relY > 0 ? 1 : -1, 0);
         } else {
-            return new Vector3f(0, 0, relY > 0 ? 1 : -1);
+            return new Vector3f(0, 0, relZ > 0 ? 1 : -1);
         }
     }
 
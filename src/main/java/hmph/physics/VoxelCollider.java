@@ -0,0 +1,152 @@
+package hmph.physics;
+
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+import hmph.rendering.world.chunk.ChunkSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * Swept AABB collision against the blocks. A move first gathers every solid block in the volume
+ * the box sweeps through, reading each chunk column's snapshot once, then clips the movement one
+ * axis at a time (Y, X, Z) against that list without touching the chunks again. Since the whole
+ * swept volume is gathered, fast movers stop at the first wall instead of stepping over it.
+ * Any non-air block is a full solid cube, unloaded chunks and out of world heights are air.
+ * The result of the last move is left in the public fields. One instance per thread.
+ */
+public class VoxelCollider {
+    // Boxes closer than this count as touching, not overlapping, so float error at a contact never sticks
+    private static final float EPSILON = 1e-4f;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ChunkGrid<ChunkBase> chunks;
+
+    // Solid cells in the last swept volume, packed x, y, z
+    private int[] solids = new int[INITIAL_CAPACITY * 3];
+    private int solidCount = 0;
+
+    // Result of the last move
+    public float moveX, moveY, moveZ;
+    public boolean collidedX, collidedY, collidedZ;
+
+    public VoxelCollider(ChunkGrid<ChunkBase> chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * Move a box by dx, dy, dz, clipping each axis against the blocks in the way.
+     * The allowed movement ends up in moveX/Y/Z and the axes that were cut short in collidedX/Y/Z.
+     */
+    public void move(float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+                     float dx, float dy, float dz) {
+        gather(minX + Math.min(dx, 0), minY + Math.min(dy, 0), minZ + Math.min(dz, 0),
+                maxX + Math.max(dx, 0), maxY + Math.max(dy, 0), maxZ + Math.max(dz, 0));
+
+        moveY = clipY(minX, minY, minZ, maxX, maxY, maxZ, dy);
+        minY += moveY;
+        maxY += moveY;
+        moveX = clipX(minX, minY, minZ, maxX, maxY, maxZ, dx);
+        minX += moveX;
+        maxX += moveX;
+        moveZ = clipZ(minX, minY, minZ, maxX, maxY, maxZ, dz);
+
+        collidedX = moveX != dx;
+        collidedY = moveY != dy;
+        collidedZ = moveZ != dz;
+    }
+
+    /**
+     * Solid blocks found in the volume of the last move
+     */
+    public int getSolidCount() {
+        return solidCount;
+    }
+
+    private float clipY(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, float dy) {
+        for (int i = 0; i < solidCount * 3 && dy != 0; i += 3) {
+            int bx = solids[i], by = solids[i + 1], bz = solids[i + 2];
+            if (!overlaps(minX, maxX, bx) || !overlaps(minZ, maxZ, bz)) continue;
+            if (dy > 0 && by >= maxY - EPSILON) {
+                dy = Math.min(dy, by - maxY);
+            } else if (dy < 0 && by + 1 <= minY + EPSILON) {
+                dy = Math.max(dy, by + 1 - minY);
+            }
+        }
+        return dy;
+    }
+
+    private float clipX(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, float dx) {
+        for (int i = 0; i < solidCount * 3 && dx != 0; i += 3) {
+            int bx = solids[i], by = solids[i + 1], bz = solids[i + 2];
+            if (!overlaps(minY, maxY, by) || !overlaps(minZ, maxZ, bz)) continue;
+            if (dx > 0 && bx >= maxX - EPSILON) {
+                dx = Math.min(dx, bx - maxX);
+            } else if (dx < 0 && bx + 1 <= minX + EPSILON) {
+                dx = Math.max(dx, bx + 1 - minX);
+            }
+        }
+        return dx;
+    }
+
+    private float clipZ(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, float dz) {
+        for (int i = 0; i < solidCount * 3 && dz != 0; i += 3) {
+            int bx = solids[i], by = solids[i + 1], bz = solids[i + 2];
+            if (!overlaps(minX, maxX, bx) || !overlaps(minY, maxY, by)) continue;
+            if (dz > 0 && bz >= maxZ - EPSILON) {
+                dz = Math.min(dz, bz - maxZ);
+            } else if (dz < 0 && bz + 1 <= minZ + EPSILON) {
+                dz = Math.max(dz, bz + 1 - minZ);
+            }
+        }
+        return dz;
+    }
+
+    /**
+     * Whether min..max reaches into the block at cell by more than EPSILON
+     */
+    private static boolean overlaps(float min, float max, int cell) {
+        return max > cell + EPSILON && min < cell + 1 - EPSILON;
+    }
+
+    /**
+     * Collect the solid cells in a world box, one snapshot lookup per chunk column
+     */
+    private void gather(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        solidCount = 0;
+        int x0 = (int) Math.floor(minX), x1 = (int) Math.ceil(maxX) - 1;
+        int z0 = (int) Math.floor(minZ), z1 = (int) Math.ceil(maxZ) - 1;
+        int y0 = Math.max((int) Math.floor(minY), 0);
+        int y1 = Math.min((int) Math.ceil(maxY) - 1, ChunkBase.SIZE_Y - 1);
+        if (y0 > y1) return;
+
+        for (int chunkX = Math.floorDiv(x0, ChunkBase.SIZE_X); chunkX <= Math.floorDiv(x1, ChunkBase.SIZE_X); chunkX++) {
+            for (int chunkZ = Math.floorDiv(z0, ChunkBase.SIZE_Z); chunkZ <= Math.floorDiv(z1, ChunkBase.SIZE_Z); chunkZ++) {
+                ChunkBase chunk = chunks.get(chunkX, chunkZ);
+                if (chunk == null) continue;
+                ChunkSnapshot snapshot = chunk.getSnapshot();
+                int baseX = chunkX * ChunkBase.SIZE_X, baseZ = chunkZ * ChunkBase.SIZE_Z;
+                int fromX = Math.max(x0, baseX), toX = Math.min(x1, baseX + ChunkBase.SIZE_X - 1);
+                int fromZ = Math.max(z0, baseZ), toZ = Math.min(z1, baseZ + ChunkBase.SIZE_Z - 1);
+                int top = Math.min(y1, snapshot.getTopBound() - 1);
+                for (int x = fromX; x <= toX; x++) {
+                    for (int z = fromZ; z <= toZ; z++) {
+                        for (int y = y0; y <= top; y++) {
+                            if (snapshot.get(ChunkSnapshot.index(x - baseX, y, z - baseZ)) != 0) add(x, y, z);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void add(int x, int y, int z) {
+        int i = solidCount * 3;
+        if (i + 3 > solids.length) {
+            solids = Arrays.copyOf(solids, solids.length * 2);
+        }
+        solids[i] = x;
+        solids[i + 1] = y;
+        solids[i + 2] = z;
+        solidCount++;
+    }
+}
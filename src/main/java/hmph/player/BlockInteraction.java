@@ -1,9 +1,8 @@
 package hmph.player;
 
-import hmph.math.Raycasting.VoxelTraversal;
 import hmph.math.Vector3f;
-import hmph.math.Raycasting.Ray;
 import hmph.rendering.world.chunk.ChunkManager;
+import hmph.rendering.world.chunk.ChunkRaycaster;
 
 public class BlockInteraction {
     public static final float max_reach = 20f;
@@ -12,87 +11,55 @@ public class BlockInteraction {
         public boolean hit;
         public Vector3f blockPos = new Vector3f();
         public Vector3f normal = new Vector3f();
+        // Exact point on the hit face where the ray entered the block
+        public Vector3f hitPoint = new Vector3f();
         public float distance;
     }
 
     /**
-     * Cast a ray from the camera's position using the Voxel-Class
-     * Better than going through each ray in a for loop or something like that.
+     * Cast a ray from the camera's position by walking ChunkRaycaster through the loaded chunks
+     * Only the blocks the ray passes through are visited, nearest first.
      */
     public static RaycastResult raycastToBlock(Vector3f origin, Vector3f direction, ChunkManager manager) {
-        RaycastResult result = new RaycastResult();
-
-        Ray ray = new Ray(origin, direction);
-        VoxelTraversal travisscott = new VoxelTraversal(ray);
+        return raycastToBlock(origin, direction, manager, new RaycastResult());
+    }
 
-        float distance = 0.0f;
+    /**
+     * Same as above, filling in a result the caller keeps around - main thread only
+     * Walks the chunks through the chunk manager's raycaster, so no per-step chunk lookups.
+     */
+    public static RaycastResult raycastToBlock(Vector3f origin, Vector3f direction, ChunkManager manager, RaycastResult result) {
+        return raycastToBlock(origin, direction, manager.getRaycaster(), result);
+    }
 
-        int blockId = manager.getBlockAt(travisscott.x, travisscott.y, travisscott.z);
-        if (blockId != 0) {
-            result.hit = true;
-            result.blockPos.set(travisscott.x, travisscott.y, travisscott.z);
-            result.normal.set(0, 1, 0);
-            result.distance = 0.0f;
+    /**
+     * Same as above with a caller-owned raycaster, so it can run off the main thread (server-side hit validation)
+     */
+    public static RaycastResult raycastToBlock(Vector3f origin, Vector3f direction, ChunkRaycaster raycaster, RaycastResult result) {
+        if (!raycaster.cast(origin.x, origin.y, origin.z, direction.x, direction.y, direction.z, max_reach)) {
+            result.hit = false;
             return result;
         }
 
-        while (distance < max_reach) {
-            float stepDist = travisscott.step();
-            distance += stepDist;
-
-            blockId = manager.getBlockAt(travisscott.x, travisscott.y, travisscott.z);
-            if (blockId != 0) {
-                result.hit = true;
-                result.blockPos.set(travisscott.x, travisscott.y, travisscott.z);
-                result.normal.set(travisscott.getFaceNormal());
-                result.distance = distance;
-                return result;
-            }
+        result.hit = true;
+        result.blockPos.set(raycaster.blockX, raycaster.blockY, raycaster.blockZ);
+        if (raycaster.normalX == 0 && raycaster.normalY == 0 && raycaster.normalZ == 0) {
+            result.normal.set(0, 1, 0); // Started inside the block
+        } else {
+            result.normal.set(raycaster.normalX, raycaster.normalY, raycaster.normalZ);
         }
-
+        result.hitPoint.set(raycaster.hitX, raycaster.hitY, raycaster.hitZ);
+        result.distance = raycaster.distance;
         return result;
     }
 
     /**
-     * Better but slower way then @raycastToBlock
+     * Exact hit: the block, the face the ray entered through and the entry point on it.
+     * The traversal only visits voxels the ray passes through, and the distance it enters each one
+     * at is the ray/box entry distance, so this is the same walk as raycastToBlock.
      */
     public static RaycastResult raycastToBlockPrecise(Vector3f origin, Vector3f direction, ChunkManager chunkManager) {
-        RaycastResult result = new RaycastResult();
-
-        Ray ray = new Ray(origin, direction);
-        float closestDistance = max_reach + 1;
-
-        // Get bounding box of area to check
-        Vector3f start = ray.getOrigin();
-        Vector3f end = ray.getPointAt(max_reach);
-
-        int minX = (int) Math.floor(Math.min(start.x, end.x)) - 1;
-        int maxX = (int) Math.ceil(Math.max(start.x, end.x)) + 1;
-        int minY = (int) Math.floor(Math.min(start.y, end.y)) - 1;
-        int maxY = (int) Math.ceil(Math.max(start.y, end.y)) + 1;
-        int minZ = (int) Math.floor(Math.min(start.z, end.z)) - 1;
-        int maxZ = (int) Math.ceil(Math.max(start.z, end.z)) + 1;
-
-        // Check all blocks in the ray's path
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    int blockId = chunkManager.getBlockAt(x, y, z);
-                    if (blockId != 0) {
-                        float distance = ray.intersectBlock(x, y, z);
-                        if (distance >= 0 && distance < closestDistance) {
-                            closestDistance = distance;
-                            result.hit = true;
-                            result.blockPos.set(x, y, z);
-                            result.distance = distance;
-                            result.normal.set(ray.getBlockFaceNormal(x, y, z, distance));
-                        }
-                    }
-                }
-            }
-        }
-
-        return result;
+        return raycastToBlock(origin, direction, chunkManager, new RaycastResult());
     }
 
     /**
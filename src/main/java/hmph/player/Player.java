@@ -1,6 +1,7 @@
 package hmph.player;
 
 import hmph.math.Vector3f;
+import hmph.physics.VoxelCollider;
 import hmph.rendering.world.chunk.ChunkManager;
 import hmph.rendering.BlockRegistry;
 import hmph.rendering.camera.Camera;
@@ -12,12 +13,18 @@ public class Player {
     public static final float JUMP_STRENGTH = 5.0f;
     public static final float MOVE_SPEED = 4.317f;
     public static final float SPRINT_SPEED = 5.612f * 25f;
+    public static final float EYE_HEIGHT = 1.62f;
 
+    // Movement state, owned by the simulation thread while a threaded Simulation runs
     private Vector3f position;
     private Vector3f velocity;
     private boolean onGround;
     private boolean sprinting;
+    // Held in place until the column under the player is loaded and can be stood on
+    private boolean awaitingSpawn = false;
+    private boolean teleported = false;
     private ChunkManager chunkManager;
+    private VoxelCollider collider;
     private Camera camera;
 
     // Block interaction components
@@ -28,8 +35,9 @@ public class Player {
     private float blockPlaceCooldown = 0.0f;
     private static final float BREAK_COOLDOWN_TIME = 0.2f; // 200ms between breaks
     private static final float PLACE_COOLDOWN_TIME = 0.15f; // 150ms between placements
-
-    private static final float EYE_HEIGHT = 1.62f;
+    // Where the player is drawn this frame, block interaction works from here on the main thread
+    private final Vector3f interactionPosition = new Vector3f();
+    private final Vector3f eyePosition = new Vector3f();
 
     public Player(Vector3f startPosition, ChunkManager chunkManager, Camera camera) {
         this.position = new Vector3f(startPosition);
@@ -37,16 +45,38 @@ public class Player {
         this.onGround = false;
         this.sprinting = false;
         this.chunkManager = chunkManager;
+        this.collider = chunkManager != null ? new VoxelCollider(chunkManager.getLoadedChunks()) : null;
         this.camera = camera;
         this.inventory = new SimpleInventory();
         this.currentLookingAt = new BlockInteraction.RaycastResult();
+        this.interactionPosition.set(startPosition);
     }
 
     public void setBlockRegistry(BlockRegistry registry) {
         this.blockRegistry = registry;
     }
 
+    /**
+     * Advance movement by one simulation step, runs on whichever thread drives the Simulation
+     */
     public void update(float deltaTime) {
+        if (awaitingSpawn && !placeOnSurface()) {
+            return;
+        }
+
+        // Applied on the ground too, the downward sweep is what keeps onGround set
+        velocity.y += GRAVITY * deltaTime;
+        moveAndCollide(deltaTime);
+
+        velocity.x *= 0.85f;
+        velocity.z *= 0.85f;
+    }
+
+    /**
+     * Cooldowns and the looked at block, once per frame from the interpolated position the player is drawn at
+     * MUST be called on main thread
+     */
+    public void updateInteraction(float deltaTime, Vector3f renderPosition) {
         if (blockBreakCooldown > 0) {
             blockBreakCooldown -= deltaTime;
         }
@@ -54,22 +84,46 @@ public class Player {
             blockPlaceCooldown -= deltaTime;
         }
 
-        if (!onGround) {
-            velocity.y += GRAVITY * deltaTime;
-        }
+        interactionPosition.set(renderPosition);
+        updateLookingAt();
+    }
 
-        Vector3f newPosition = new Vector3f(
-                position.x + velocity.x * deltaTime,
-                position.y + velocity.y * deltaTime,
-                position.z + velocity.z * deltaTime
-        );
+    /**
+     * Spawn on the surface at x/z, the player waits in place until that column has loaded
+     */
+    public void spawnAt(float x, float z) {
+        position.set(x, position.y, z);
+        velocity.set(0, 0, 0);
+        awaitingSpawn = true;
+        teleported = true;
+        placeOnSurface();
+    }
 
-        handleCollisions(newPosition, deltaTime);
+    /**
+     * Stand the player on top of the highest opaque block of its column, false while the column isn't loaded
+     */
+    private boolean placeOnSurface() {
+        if (chunkManager == null) return false;
+        int surface = chunkManager.getSurfaceHeight((int) Math.floor(position.x), (int) Math.floor(position.z));
+        if (surface < 0) return false;
+
+        position.y = surface;
+        velocity.set(0, 0, 0);
+        onGround = false;
+        awaitingSpawn = false;
+        teleported = true;
+        return true;
+    }
 
-        velocity.x *= 0.85f;
-        velocity.z *= 0.85f;
+    public boolean isAwaitingSpawn() { return awaitingSpawn; }
 
-        updateLookingAt();
+    /**
+     * Whether the player jumped somewhere since the last call, so the renderer shouldn't interpolate across it
+     */
+    public boolean consumeTeleport() {
+        boolean result = teleported;
+        teleported = false;
+        return result;
     }
 
     /**
@@ -77,9 +131,8 @@ public class Player {
      */
     private void updateLookingAt() {
         if (camera != null) {
-            Vector3f cameraPos = getCameraPosition();
-            Vector3f cameraDirection = camera.getFront();
-            currentLookingAt = BlockInteraction.raycastToBlock(cameraPos, cameraDirection, chunkManager);
+            eyePosition.set(interactionPosition.x, interactionPosition.y + EYE_HEIGHT, interactionPosition.z);
+            BlockInteraction.raycastToBlock(eyePosition, camera.getFront(), chunkManager, currentLookingAt);
         }
     }
 
@@ -153,12 +206,12 @@ public class Player {
      * Check if a block position would intersect with the player
      */
     private boolean isPositionInsidePlayer(int blockX, int blockY, int blockZ) {
-        float playerMinX = position.x - PLAYER_WIDTH / 2;
-        float playerMaxX = position.x + PLAYER_WIDTH / 2;
-        float playerMinY = position.y;
-        float playerMaxY = position.y + PLAYER_HEIGHT;
-        float playerMinZ = position.z - PLAYER_WIDTH / 2;
-        float playerMaxZ = position.z + PLAYER_WIDTH / 2;
+        float playerMinX = interactionPosition.x - PLAYER_WIDTH / 2;
+        float playerMaxX = interactionPosition.x + PLAYER_WIDTH / 2;
+        float playerMinY = interactionPosition.y;
+        float playerMaxY = interactionPosition.y + PLAYER_HEIGHT;
+        float playerMinZ = interactionPosition.z - PLAYER_WIDTH / 2;
+        float playerMaxZ = interactionPosition.z + PLAYER_WIDTH / 2;
 
         return blockX >= playerMinX && blockX < playerMaxX &&  blockY >= playerMinY && blockY < playerMaxY && blockZ >= playerMinZ && blockZ < playerMaxZ;
     }
@@ -184,104 +237,25 @@ public class Player {
         inventory.setHotbarSlot(slot);
     }
 
-    private void handleCollisions(Vector3f newPosition, float deltaTime) {
-        if (checkCollisionY(newPosition)) {
-            if (velocity.y < 0) {
-                onGround = true;
-                velocity.y = 0;
-                int blockY = (int) Math.floor(newPosition.y);
-                newPosition.y = blockY + 1.0f;
-            } else {
-                velocity.y = 0;
-            }
+    /**
+     * Sweep the player's box along its velocity for this frame, stopping on whatever is in the way
+     */
+    private void moveAndCollide(float deltaTime) {
+        float dy = velocity.y * deltaTime;
+        if (collider != null) {
+            float halfWidth = PLAYER_WIDTH / 2;
+            collider.move(position.x - halfWidth, position.y, position.z - halfWidth,
+                    position.x + halfWidth, position.y + PLAYER_HEIGHT, position.z + halfWidth,
+                    velocity.x * deltaTime, dy, velocity.z * deltaTime);
+            position.add(collider.moveX, collider.moveY, collider.moveZ);
+            onGround = collider.collidedY && dy < 0;
+            if (collider.collidedX) velocity.x = 0;
+            if (collider.collidedY) velocity.y = 0;
+            if (collider.collidedZ) velocity.z = 0;
         } else {
+            position.add(velocity.x * deltaTime, dy, velocity.z * deltaTime);
             onGround = false;
         }
-
-        if (!checkCollisionX(newPosition)) {
-            position.x = newPosition.x;
-        } else {
-            velocity.x = 0;
-        }
-
-        if (!checkCollisionZ(newPosition)) {
-            position.z = newPosition.z;
-        } else {
-            velocity.z = 0;
-        }
-
-        position.y = newPosition.y;
-    }
-
-    private boolean checkCollisionY(Vector3f pos) {
-        int minX = (int) Math.floor(pos.x - PLAYER_WIDTH / 2);
-        int maxX = (int) Math.floor(pos.x + PLAYER_WIDTH / 2);
-        int minZ = (int) Math.floor(pos.z - PLAYER_WIDTH / 2);
-        int maxZ = (int) Math.floor(pos.z + PLAYER_WIDTH / 2);
-
-        if (velocity.y < 0) {
-            int blockY = (int) Math.floor(pos.y);
-            for (int x = minX; x <= maxX; x++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    if (isBlockSolid(x, blockY, z)) {
-                        return true;
-                    }
-                }
-            }
-        } else {
-            int blockY = (int) Math.floor(pos.y + PLAYER_HEIGHT);
-            for (int x = minX; x <= maxX; x++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    if (isBlockSolid(x, blockY, z)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean checkCollisionX(Vector3f pos) {
-        int blockX = velocity.x > 0 ?
-                (int) Math.floor(pos.x + PLAYER_WIDTH / 2) :
-                (int) Math.floor(pos.x - PLAYER_WIDTH / 2);
-
-        int minY = (int) Math.floor(pos.y);
-        int maxY = (int) Math.floor(pos.y + PLAYER_HEIGHT);
-        int minZ = (int) Math.floor(pos.z - PLAYER_WIDTH / 2);
-        int maxZ = (int) Math.floor(pos.z + PLAYER_WIDTH / 2);
-
-        for (int y = minY; y <= maxY; y++) {
-            for (int z = minZ; z <= maxZ; z++) {
-                if (isBlockSolid(blockX, y, z)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean checkCollisionZ(Vector3f pos) {
-        int blockZ = velocity.z > 0 ?  (int) Math.floor(pos.z + PLAYER_WIDTH / 2) : (int) Math.floor(pos.z - PLAYER_WIDTH / 2);
-
-        int minY = (int) Math.floor(pos.y);
-        int maxY = (int) Math.floor(pos.y + PLAYER_HEIGHT);
-        int minX = (int) Math.floor(pos.x - PLAYER_WIDTH / 2);
-        int maxX = (int) Math.floor(pos.x + PLAYER_WIDTH / 2);
-
-        for (int y = minY; y <= maxY; y++) {
-            for (int x = minX; x <= maxX; x++) {
-                if (isBlockSolid(x, y, blockZ)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean isBlockSolid(int x, int y, int z) {
-        if (chunkManager == null) return false;
-        return chunkManager.getBlockAt(x, y, z) != 0;
     }
 
     public void setMovementInput(Vector3f inputDirection, float deltaTime) {
@@ -336,6 +310,7 @@ public class Player {
 
     // Getters
     public Vector3f getPosition() { return new Vector3f(position); }
+    public Vector3f getPosition(Vector3f dest) { return dest.set(position); }
     public Vector3f getCameraPosition() {
         return new Vector3f(position.x, position.y + EYE_HEIGHT, position.z);
     }
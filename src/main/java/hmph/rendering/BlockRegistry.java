@@ -7,6 +7,8 @@ import java.util.*;
 public class BlockRegistry {
     private final Map<String, BlockData> blocks = new HashMap<>();
     private final Map<Integer, String> idToName = new HashMap<>();
+    private boolean[] opaqueByID = new boolean[64];
+    private byte[] lightByID = new byte[64];
     private int nextID = 1;
 
     public static class BlockData {
@@ -137,6 +139,12 @@ public class BlockRegistry {
     public void registerBlock(String name, String type, Map<Direction, String> textures, BlockProperties properties) {
         blocks.put(name, new BlockData(type, textures, properties));
         idToName.put(nextID, name);
+        if (nextID >= opaqueByID.length) {
+            opaqueByID = Arrays.copyOf(opaqueByID, opaqueByID.length * 2);
+            lightByID = Arrays.copyOf(lightByID, lightByID.length * 2);
+        }
+        opaqueByID[nextID] = !properties.isTransparent;
+        lightByID[nextID] = (byte) (properties.emitsLight ? Math.max(0, Math.min(15, properties.lightLevel)) : 0);
         nextID++;
     }
 
@@ -182,6 +190,23 @@ public class BlockRegistry {
         return idToName.get(id);
     }
 
+    /**
+     * Check if a block ID fully blocks sight (air and transparent blocks don't)
+     * Array backed so it's cheap enough for per-voxel loops
+     */
+    public boolean isOpaque(int id) {
+        if (id <= 0 || id >= opaqueByID.length) return false;
+        return opaqueByID[id];
+    }
+
+    /**
+     * Block light a block ID gives off, 0-15
+     */
+    public int getLightEmission(int id) {
+        if (id <= 0 || id >= lightByID.length) return 0;
+        return lightByID[id];
+    }
+
     public int getIDFromName(String name) {
         for (Map.Entry<Integer, String> entry : idToName.entrySet()) {
             if (entry.getValue().equals(name)) {
@@ -6,10 +6,11 @@ import hmph.GUI.MainMenuManager;
 import hmph.math.Vector3f;
 import hmph.rendering.camera.Camera;
 import hmph.rendering.shaders.ShaderProgram;
+import hmph.rendering.shadows.ShadowRenderer;
 import hmph.rendering.shapes.CubeRenderer;
 import hmph.rendering.world.chunk.ChunkBase;
-import hmph.rendering.world.chunk.ChunkManagerExtension;
-import hmph.rendering.world.chunk.optimized.OptimizedChunkManager;
+import hmph.rendering.world.chunk.ChunkManager;
+import hmph.rendering.world.terrain.FarTerrainRenderer;
 import hmph.util.TextureManager;
 import hmph.util.debug.LoggerHelper;
 import hmph.rendering.shaders.ShaderManager;
@@ -28,7 +29,9 @@ import static org.lwjgl.opengl.GL11.glViewport;
 import static org.lwjgl.system.MemoryStack.*;
 import static org.lwjgl.system.MemoryUtil.*;
 import hmph.math.Matrix4f;
+import hmph.entity.EntityWorld;
 import hmph.player.Player;
+import hmph.simulation.Simulation;
 
 public class Hmph {
     private long windowBoi;
@@ -56,13 +59,38 @@ public class Hmph {
     private boolean mouseCaptured = false;
     private TextureManager textureManager;
     private Map<Integer, KeyAction> keyActions = new HashMap<>();
-    private ChunkManagerExtension chunkManager;
+    private ChunkManager chunkManager;
     private int renderDistance = 16;
+    private FarTerrainRenderer farTerrain;
+    private float farTerrainDistance = 1536f;
+    // How far the far terrain reaches in under the voxel chunks
+    private static final float FAR_TERRAIN_OVERLAP = 8f;
     private SkyboxRenderer skyboxRenderer;
+    private ShadowRenderer shadowRenderer;
+    private int shadowCascades = 3;
+    private int shadowResolution = 2048;
+    private float shadowDistance = 160f;
+    // Frames between redraws per cascade, the far ones can lag a little
+    private int[] shadowUpdateIntervals = {1, 1, 2};
     private float gameTime = 0.0f;
     private Player player;
+    private Simulation simulation;
+    private EntityWorld entityWorld;
+    // Threads entity physics is spread over, the simulation thread included
+    private int entityThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+    private float tickRate = Simulation.DEFAULT_TICK_RATE;
+    // Run movement on its own thread instead of between frames
+    private boolean threadedSimulation = false;
+    // Interpolated player position for this frame, what the camera and chunk loading follow
+    private final Vector3f playerRenderPosition = new Vector3f();
     private GUIManager guiManager;
     private float timeOfDay = 0.5f;
+    // Entries in the day lighting table, more only matters for very slow days
+    private int lightingResolution = LightingSystem.DEFAULT_RESOLUTION;
+    private LightingSystem lightingSystem;
+    // Reused every frame by renderChunk
+    private final Vector3f chunkTint = new Vector3f(1.0f, 1.0f, 1.0f);
+    private final Matrix4f chunkModel = new Matrix4f();
     private boolean autoTime = true;
     private MainMenuManager mainMenuManager;
     private boolean gameStarted = false;
@@ -139,11 +167,8 @@ public class Hmph {
      * Load input handling
      */
     private void loadInputs(float deltaTime) {
-        if (mainMenuManager!=null && mainMenuManager.isMenuVisible()) {
-            return;
-        }
-
-        if (guiManager!=null && guiManager.isEnabled()) {
+        if (menuOpen()) {
+            simulation.setInput(0, 0, false, false);
             return;
         }
 
@@ -180,18 +205,17 @@ public class Hmph {
                 inputDirection.x/=length;
                 inputDirection.z/=length;
             }
-            player.setMovementInput(inputDirection, deltaTime);
-        } else {
-            player.setMovementInput(new Vector3f(0, 0, 0), deltaTime);
         }
 
-        player.setSprinting(keys[GLFW_KEY_LEFT_SHIFT]||keys[GLFW_KEY_LEFT_CONTROL]);
-
-        if (keys[GLFW_KEY_SPACE]) {
-            player.jump();
-        }
+        simulation.setInput(inputDirection.x, inputDirection.z,
+                keys[GLFW_KEY_LEFT_SHIFT]||keys[GLFW_KEY_LEFT_CONTROL], keys[GLFW_KEY_SPACE]);
+    }
 
-        camera.setPosition(player.getCameraPosition());
+    /**
+     * Whether a menu or GUI has the input instead of the player
+     */
+    private boolean menuOpen() {
+        return (mainMenuManager!=null && mainMenuManager.isMenuVisible()) || (guiManager!=null && guiManager.isEnabled());
     }
 
     /**
@@ -205,13 +229,15 @@ public class Hmph {
      * Switch dimension
      */
     private void switchDimension(String dimensionName) {
-        if (chunkManager instanceof ChunkManagerExtension) {
-            ChunkManagerExtension extendedManager = (ChunkManagerExtension) chunkManager;
-            String currentDim = extendedManager.getCurrentDimension();
-            if (!currentDim.equals(dimensionName)) {
-                extendedManager.switchDimension(dimensionName);
-                player.setPosition(player.getPosition().x, 150, player.getPosition().z);
-            }
+        String currentDim = chunkManager.getCurrentDimension();
+        if (!currentDim.equals(dimensionName)) {
+            chunkManager.switchDimension(dimensionName);
+            simulation.submit(() -> {
+                Vector3f position = player.getPosition();
+                player.spawnAt(position.x, position.z);
+                entityWorld.clear();
+            });
+            if (shadowRenderer != null) shadowRenderer.invalidate();
         }
     }
 
@@ -219,12 +245,9 @@ public class Hmph {
      * Show current biome
      */
     private void showCurrentBiome() {
-        if (chunkManager instanceof ChunkManagerExtension) {
-            ChunkManagerExtension extManager = (ChunkManagerExtension) chunkManager;
-            Vector3f playerPos = player.getPosition();
-            String biome = extManager.getDimensionCreator().getCurrentBiome((int)playerPos.x, (int)playerPos.z);
-            LoggerHelper.betterPrint("Current Biome: " + biome, LoggerHelper.LogType.INFO);
-        }
+        Vector3f playerPos = playerRenderPosition;
+        String biome = chunkManager.getDimensionCreator().getCurrentBiome((int)playerPos.x, (int)playerPos.z);
+        LoggerHelper.betterPrint("Current Biome: " + biome, LoggerHelper.LogType.INFO);
     }
 
     /**
@@ -250,6 +273,9 @@ public class Hmph {
             mainMenuManager.setMenuVisible(true);
 
             skyboxRenderer = new SkyboxRenderer(shaderManager);
+            lightingSystem = new LightingSystem(lightingResolution);
+            shadowRenderer = new ShadowRenderer(shaderManager.getShader("shadow"), shadowCascades, shadowResolution,
+                    shadowDistance, shadowUpdateIntervals);
 
             overlayTexts.add(new TextObject("Welcome to Hmph!", 10, 10));
             overlayTexts.add(new TextObject("Press M for Main Menu", 10, 40));
@@ -314,18 +340,23 @@ public class Hmph {
         LoggerHelper.betterPrint("Block registry initialized with " + registry.getBlockCount() + " blocks", LoggerHelper.LogType.RENDERING);
         LoggerHelper.betterPrint("First block (ID 1): " + testBlock, LoggerHelper.LogType.RENDERING);
 
-        chunkManager = new ChunkManagerExtension(registry, renderDistance);
+        chunkManager = new ChunkManager(registry, renderDistance);
+        farTerrain = new FarTerrainRenderer(chunkManager.getDimensionCreator(),
+                farTerrainInnerRadius(), farTerrainDistance, 1);
 
         player = new Player(new Vector3f(0, 70, 0), chunkManager, camera);
         player.setBlockRegistry(registry);
+        player.spawnAt(0, 0);
 
-        if (chunkManager instanceof ChunkManagerExtension) {
-            ((ChunkManagerExtension) chunkManager).updateChunksWithCamera(player.getPosition(), camera);
-        } else {
-            chunkManager.updateChunks(player.getPosition());
-        }
+        simulation = new Simulation(player, tickRate);
+        entityWorld = new EntityWorld(chunkManager.getLoadedChunks(), entityThreads);
+        simulation.setEntities(entityWorld);
+        simulation.interpolate(playerRenderPosition);
+        if (threadedSimulation) simulation.start();
 
-        LoggerHelper.betterPrint("ChunkManagerExtension initialized with render distance: " + renderDistance, LoggerHelper.LogType.RENDERING);
+        chunkManager.updateChunksWithCamera(playerRenderPosition, camera);
+
+        LoggerHelper.betterPrint("ChunkManager initialized with render distance: " + renderDistance, LoggerHelper.LogType.RENDERING);
     }
 
     /**
@@ -499,10 +530,13 @@ public class Hmph {
                 timeOfDay = (gameTime%dayLengthInSeconds)/dayLengthInSeconds;
             }
 
-            if (player!=null) {
-                player.update(deltaTime);
+            if (simulation!=null) {
+                loadInputs(deltaTime);
+                simulation.update(deltaTime);
+                simulation.interpolate(playerRenderPosition);
+                camera.setPosition(playerRenderPosition.x, playerRenderPosition.y + Player.EYE_HEIGHT, playerRenderPosition.z);
+                player.updateInteraction(deltaTime, playerRenderPosition);
             }
-            loadInputs(deltaTime);
             renderScene();
             checkGLError("after render");
             glfwSwapBuffers(windowBoi);
@@ -576,41 +610,43 @@ public class Hmph {
         ShaderProgram chunkShader = shaderManager.getShader("3d");
         if (chunkShader == null) return;
 
-        if (chunkManager instanceof ChunkManagerExtension) {
-            ChunkManagerExtension extManager = (ChunkManagerExtension) chunkManager;
-            extManager.updateChunksWithCamera(player.getPosition(), camera);
-
-            Map<Long, ChunkBase> chunks = extManager.getVisibleChunks();
+        chunkManager.updateChunksWithCamera(playerRenderPosition, camera);
 
-            if (gameTime % 5.0f < 0.016f) {
-                LoggerHelper.betterPrint(extManager.getPerformanceStats(), LoggerHelper.LogType.RENDERING);
+        if (gameTime % 5.0f < 0.016f) {
+            LoggerHelper.betterPrint(chunkManager.getPerformanceStats(), LoggerHelper.LogType.RENDERING);
+            if (farTerrain != null) {
+                LoggerHelper.betterPrint(farTerrain.getStats(), LoggerHelper.LogType.RENDERING);
+            }
+            if (shadowRenderer != null) {
+                LoggerHelper.betterPrint(shadowRenderer.getStats(), LoggerHelper.LogType.RENDERING);
+            }
+            if (simulation != null) {
+                LoggerHelper.betterPrint(simulation.getStats(), LoggerHelper.LogType.RENDERING);
+                LoggerHelper.betterPrint(entityWorld.getStats(), LoggerHelper.LogType.RENDERING);
             }
-
-            if (chunks.isEmpty()) return;
-        } else {
-            chunkManager.updateChunks(player.getPosition());
-        }
-
-        Map<Long, ChunkBase> chunks;
-        if (chunkManager instanceof ChunkManagerExtension) {
-            chunks = ((ChunkManagerExtension) chunkManager).getVisibleChunks();
-        } else {
-            chunks = chunkManager.getLoadedChunks();
         }
 
+        Map<Long, ChunkBase> chunks = chunkManager.getVisibleChunks();
         if (chunks.isEmpty()) return;
 
-        LightingSystem.LightData lighting = LightingSystem.doLighting(timeOfDay);
+        LightingSystem.LightData lighting = lightingSystem.sample(timeOfDay);
 
         int currentProgram = glGetInteger(GL_CURRENT_PROGRAM);
         boolean depthTest = glIsEnabled(GL_DEPTH_TEST);
         boolean cullFace = glIsEnabled(GL_CULL_FACE);
 
         try {
+            if (shadowRenderer != null) {
+                shadowRenderer.render(camera, (float) width/height, 0.1f, lighting,
+                        chunkManager.getLoadedChunks(), width, height);
+            }
+
             glEnable(GL_DEPTH_TEST);
             glEnable(GL_CULL_FACE);
             glCullFace(GL_FRONT);
 
+            renderFarTerrain(lighting);
+
             chunkShader.bind();
 
             Matrix4f viewMatrix = camera.getViewMatrix();
@@ -622,8 +658,9 @@ public class Hmph {
             chunkShader.setUniform("lightColor", lighting.color);
             chunkShader.setUniform("ambientStrength", lighting.ambientStrength);
             chunkShader.setUniform("ambientColor", lighting.ambientColor);
-            chunkShader.setUniform("color", new Vector3f(1.0f, 1.0f, 1.0f));
+            chunkShader.setUniform("color", chunkTint);
             chunkShader.setUniform("texture1", 0);
+            if (shadowRenderer != null) shadowRenderer.apply(chunkShader);
 
             glActiveTexture(GL_TEXTURE0);
 
@@ -663,9 +700,8 @@ public class Hmph {
                     int indexCount = chunk.getIndexCount();
                     if (indexCount <= 0) continue;
 
-                    if (camera.isChunkVisible(chunk.getPosition(), 16f)) {
-                        Matrix4f modelMatrix = new Matrix4f().identity().translate(chunk.getPosition());
-                        chunkShader.setUniform("model", modelMatrix);
+                    if (chunkManager.isChunkVisible(chunk.getChunkX(), chunk.getChunkZ())) {
+                        chunkShader.setUniform("model", chunkModel.translation(chunk.getPosition()));
 
                         glBindVertexArray(vao);
                         glDrawElements(GL_TRIANGLES, indexCount, GL_UNSIGNED_INT, 0);
@@ -686,6 +722,7 @@ public class Hmph {
         } finally {
             glBindVertexArray(0);
             glBindTexture(GL_TEXTURE_2D, 0);
+            if (shadowRenderer != null) shadowRenderer.release(chunkShader);
             if (!depthTest) glDisable(GL_DEPTH_TEST);
             if (!cullFace) glDisable(GL_CULL_FACE);
             if (currentProgram != 0) glUseProgram(currentProgram);
@@ -694,6 +731,36 @@ public class Hmph {
     }
 
 
+    /**
+     * Where the far terrain takes over, a little inside the loaded voxels so there's no gap between them
+     */
+    private float farTerrainInnerRadius() {
+        return Math.max(0f, chunkManager.getVoxelRadius() - FAR_TERRAIN_OVERLAP);
+    }
+
+    /**
+     * Render the heightmap terrain past the chunks, then clear depth so chunks always draw on top
+     */
+    private void renderFarTerrain(LightingSystem.LightData lighting) {
+        if (farTerrain == null || !"overworld".equals(chunkManager.getCurrentDimension())) return;
+
+        ShaderProgram farShader = shaderManager.getShader("farterrain");
+        if (farShader == null) return;
+
+        // Follow the LOD policy, if it changes the far terrain has to move with it or leave a ring with nothing drawn
+        if (farTerrain.getInnerRadius() != farTerrainInnerRadius()) {
+            farTerrain.setRadii(farTerrainInnerRadius(), farTerrainDistance);
+        }
+
+        Vector3f cameraPos = camera.getPosition();
+        farTerrain.update(cameraPos.x, cameraPos.z);
+
+        float voxelDistance = renderDistance * ChunkBase.SIZE_X;
+        Matrix4f farProjection = camera.getProjectionMatrix((float) width/height, voxelDistance * 0.25f, farTerrainDistance * 1.5f);
+        farTerrain.render(farShader, camera.getViewMatrix(), farProjection, lighting, cameraPos.x, cameraPos.z);
+        glClear(GL_DEPTH_BUFFER_BIT);
+    }
+
     /**
     private Map<String, List<ChunkBase>> groupChunksByPrimaryTexture(Map<Long, ChunkBase> chunks) {
         Map<String, List<ChunkBase>> grouped = new HashMap<>();
@@ -805,11 +872,15 @@ public class Hmph {
         if (mainMenuManager!=null) mainMenuManager.cleanup();
         if (guiManager!=null) guiManager.cleanup();
         if (cubeRenderer!=null) cubeRenderer.cleanup();
+        if (shadowRenderer!=null) shadowRenderer.cleanup();
+        if (simulation!=null) simulation.stop();
+        if (entityWorld!=null) entityWorld.cleanup();
         if (shaderManager!=null) shaderManager.cleanup();
         if (keyCB!=null) keyCB.free();
         if (windowSizeCB!=null) windowSizeCB.free();
         if (mouseButtonCB!=null) mouseButtonCB.free();
         if (chunkManager!=null) chunkManager.cleanup();
+        if (farTerrain!=null) farTerrain.cleanup();
         if (curosrPosCB!=null) curosrPosCB.free();
         if (textRenderer!=null) textRenderer.cleanup();
         if (chunk!=null) chunk.cleanup();
@@ -2,7 +2,75 @@ package hmph.rendering;
 
 import hmph.math.Vector3f;
 
+/**
+ * Sun, sky and ambient lighting over the day. doLighting is the reference curve, an instance
+ * samples it once into a lookup table over timeOfDay and interpolates into one reused LightData,
+ * so the per-frame uniform upload doesn't allocate.
+ */
 public class LightingSystem {
+    public static final int DEFAULT_RESOLUTION = 1024;
+    // direction3 + color3 + ambient strength + ambient color3
+    private static final int FLOATS_PER_ENTRY = 10;
+
+    private final int resolution;
+    private final float[] table;
+    private final LightData current = new LightData();
+
+    public LightingSystem() {
+        this(DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolution table entries over one day, entry i holds timeOfDay i / resolution
+     */
+    public LightingSystem(int resolution) {
+        if (resolution < 2) {
+            throw new IllegalArgumentException("Lighting table needs at least 2 entries: " + resolution);
+        }
+        this.resolution = resolution;
+        this.table = new float[resolution * FLOATS_PER_ENTRY];
+        for (int i = 0; i < resolution; i++) {
+            LightData light = doLighting(i / (float) resolution);
+            int o = i * FLOATS_PER_ENTRY;
+            table[o] = light.direction.x;
+            table[o + 1] = light.direction.y;
+            table[o + 2] = light.direction.z;
+            table[o + 3] = light.color.x;
+            table[o + 4] = light.color.y;
+            table[o + 5] = light.color.z;
+            table[o + 6] = light.ambientStrength;
+            table[o + 7] = light.ambientColor.x;
+            table[o + 8] = light.ambientColor.y;
+            table[o + 9] = light.ambientColor.z;
+        }
+    }
+
+    /**
+     * Lighting at a time of day, interpolated from the table and wrapping past midnight.
+     * Returns the same LightData every call, overwritten by the next one - main thread only
+     */
+    public LightData sample(float timeOfDay) {
+        float position = (timeOfDay - (float) Math.floor(timeOfDay)) * resolution;
+        int index = Math.min((int) position, resolution - 1);
+        float t = position - index;
+        int a = index * FLOATS_PER_ENTRY;
+        int b = ((index + 1) % resolution) * FLOATS_PER_ENTRY;
+
+        current.direction.set(lerp(a, b, 0, t), lerp(a, b, 1, t), lerp(a, b, 2, t));
+        normalize(current.direction);
+        current.color.set(lerp(a, b, 3, t), lerp(a, b, 4, t), lerp(a, b, 5, t));
+        current.ambientStrength = lerp(a, b, 6, t);
+        current.ambientColor.set(lerp(a, b, 7, t), lerp(a, b, 8, t), lerp(a, b, 9, t));
+        return current;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    private float lerp(int a, int b, int field, float t) {
+        return table[a + field] + (table[b + field] - table[a + field]) * t;
+    }
 
     public static class LightData {
         public Vector3f direction;
@@ -18,7 +86,7 @@ public class LightingSystem {
     }
 
     /**
-     * Dynamic lighting system baised on given time of day
+     * Dynamic lighting system baised on given time of day, allocates - use sample() per frame
      * @param timeOfDay 0.0 = midnight, 0.25 = sunrise, 0.5 = noon, 0.75 = sunset, 1.0 = midnight
      * @return LightData containing direction, color, and ambient information
      */
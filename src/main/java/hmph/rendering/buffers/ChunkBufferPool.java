@@ -0,0 +1,204 @@
+package hmph.rendering.buffers;
+
+import hmph.util.debug.LoggerHelper;
+
+import java.util.ArrayDeque;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Recycles chunk VAO/VBO/EBO sets instead of deleting and regenerating them on every remesh.
+ * Sets are bucketed by power-of-two vertex capacity, a reused set has its storage orphaned
+ * and the new mesh is written into the same buffer names. Main thread only.
+ */
+public class ChunkBufferPool {
+    private static final int MIN_BUCKET_SHIFT = 12; // 4 KB
+    private static final int MAX_BUCKET_SHIFT = 30;
+
+    public static class MeshBuffers {
+        public final int vao;
+        public final int vbo;
+        public final int ebo;
+        private int vertexCapacity;
+        private int indexCapacity;
+        private final ChunkBufferPool pool;
+
+        // Set by the owner once the vertex layout has been recorded in the VAO
+        public boolean attributesConfigured = false;
+
+        private MeshBuffers(ChunkBufferPool pool, int vao, int vbo, int ebo) {
+            this.pool = pool;
+            this.vao = vao;
+            this.vbo = vbo;
+            this.ebo = ebo;
+        }
+
+        public ChunkBufferPool getPool() { return pool; }
+        public int getVertexCapacity() { return vertexCapacity; }
+        public int getIndexCapacity() { return indexCapacity; }
+
+        /**
+         * True if this set can hold a mesh without growing either buffer
+         */
+        public boolean fits(int vertexBytes, int indexBytes) {
+            return vertexBytes <= vertexCapacity && indexBytes <= indexCapacity;
+        }
+
+        long capacityBytes() {
+            return (long) vertexCapacity + indexCapacity;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayDeque<MeshBuffers>[] buckets = new ArrayDeque[MAX_BUCKET_SHIFT + 1];
+    private final long maxPooledBytes;
+    private long pooledBytes = 0;
+    private int pooledSets = 0;
+    private int liveSets = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public ChunkBufferPool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Get a buffer set with room for the given sizes, storage is orphaned and ready for sub-data writes
+     */
+    public MeshBuffers acquire(int vertexBytes, int indexBytes) {
+        int shift = bucketFor(vertexBytes);
+        ArrayDeque<MeshBuffers> bucket = buckets[shift];
+
+        MeshBuffers buffers = bucket.pollFirst();
+        if (buffers != null) {
+            hits++;
+            pooledSets--;
+            pooledBytes -= buffers.capacityBytes();
+        } else {
+            misses++;
+            buffers = create();
+            buffers.vertexCapacity = 1 << shift;
+        }
+        liveSets++;
+
+        if (indexBytes > buffers.indexCapacity) {
+            buffers.indexCapacity = roundUp(indexBytes);
+        }
+        orphan(buffers);
+        return buffers;
+    }
+
+    /**
+     * Reuse an owned set in place when it is big enough, counts as a pool hit
+     */
+    public boolean reuse(MeshBuffers buffers, int vertexBytes, int indexBytes) {
+        if (buffers.pool != this || !buffers.fits(vertexBytes, indexBytes)) return false;
+        // Don't keep a huge set alive for a tiny mesh, it belongs in a smaller bucket
+        if (bucketFor(vertexBytes) < bucketFor(buffers.vertexCapacity)) return false;
+        hits++;
+        orphan(buffers);
+        return true;
+    }
+
+    /**
+     * Hand a set back, deleted outright if the pool is already holding its byte limit
+     */
+    public void release(MeshBuffers buffers) {
+        liveSets--;
+        if (pooledBytes + buffers.capacityBytes() > maxPooledBytes) {
+            delete(buffers);
+            return;
+        }
+        buckets[bucketFor(buffers.vertexCapacity)].addFirst(buffers);
+        pooledBytes += buffers.capacityBytes();
+        pooledSets++;
+    }
+
+    public float getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0f : (float) hits / total;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getPooledBytes() { return pooledBytes; }
+    public int getPooledSets() { return pooledSets; }
+    public int getLiveSets() { return liveSets; }
+
+    public String getStats() {
+        return String.format("Buffer pool: %.1f%% hit, %d live, %d pooled (%d KB)",
+                getHitRate() * 100f, liveSets, pooledSets, pooledBytes >> 10);
+    }
+
+    /**
+     * Delete every pooled set - MUST be called on main thread
+     * Sets still owned by chunks are deleted when those chunks release them.
+     */
+    public void cleanup() {
+        for (ArrayDeque<MeshBuffers> bucket : buckets) {
+            for (MeshBuffers buffers : bucket) {
+                delete(buffers);
+            }
+            bucket.clear();
+        }
+        pooledBytes = 0;
+        pooledSets = 0;
+        LoggerHelper.betterPrint("Chunk buffer pool cleaned up, hit rate " +
+                String.format("%.1f%%", getHitRate() * 100f), LoggerHelper.LogType.RENDERING);
+    }
+
+    private MeshBuffers create() {
+        int vao = glGenVertexArrays();
+        if (vao == 0) {
+            throw new RuntimeException("Failed to generate VAO");
+        }
+        int vbo = glGenBuffers();
+        if (vbo == 0) {
+            glDeleteVertexArrays(vao);
+            throw new RuntimeException("Failed to generate VBO");
+        }
+        int ebo = glGenBuffers();
+        if (ebo == 0) {
+            glDeleteBuffers(vbo);
+            glDeleteVertexArrays(vao);
+            throw new RuntimeException("Failed to generate EBO");
+        }
+        return new MeshBuffers(this, vao, vbo, ebo);
+    }
+
+    /**
+     * Re-specify storage at full capacity, lets the driver hand out fresh memory
+     * instead of waiting on draws that may still read the old contents
+     */
+    private void orphan(MeshBuffers buffers) {
+        glBindBuffer(GL_ARRAY_BUFFER, buffers.vbo);
+        glBufferData(GL_ARRAY_BUFFER, buffers.vertexCapacity, GL_STATIC_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        // The element binding is VAO state, go through the VAO so nothing else gets rebound
+        glBindVertexArray(buffers.vao);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, buffers.ebo);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, buffers.indexCapacity, GL_STATIC_DRAW);
+        glBindVertexArray(0);
+    }
+
+    private void delete(MeshBuffers buffers) {
+        glDeleteBuffers(buffers.ebo);
+        glDeleteBuffers(buffers.vbo);
+        glDeleteVertexArrays(buffers.vao);
+    }
+
+    private static int bucketFor(int bytes) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(bytes, 1) - 1);
+        return Math.max(MIN_BUCKET_SHIFT, Math.min(MAX_BUCKET_SHIFT, shift));
+    }
+
+    private static int roundUp(int bytes) {
+        return 1 << bucketFor(bytes);
+    }
+}
@@ -0,0 +1,202 @@
+package hmph.rendering.buffers;
+
+import hmph.util.debug.LoggerHelper;
+import org.lwjgl.opengl.ARBBufferStorage;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GLCapabilities;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL32.*;
+
+/**
+ * Staging ring for mesh uploads.
+ * With ARB_buffer_storage the ring is a persistent, coherently mapped GL buffer: worker threads write
+ * straight into it and the main thread only issues glCopyBufferSubData, guarded by a fence per region.
+ * Without it the ring is plain native memory and uploads fall back to glBufferSubData.
+ */
+public class StagingRingBuffer {
+    private static final int ALIGNMENT = 64;
+
+    public static class Allocation {
+        private final StagingRingBuffer owner;
+        private final long start;
+        private final long end;
+        private final int offset;
+        public final int size;
+        public final ByteBuffer data;
+        private long fence = 0;
+        private boolean done = false;
+
+        private Allocation(StagingRingBuffer owner, long start, long end, int offset, int size, ByteBuffer data) {
+            this.owner = owner;
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+            this.size = size;
+            this.data = data;
+        }
+
+        public StagingRingBuffer getOwner() { return owner; }
+    }
+
+    private final int capacity;
+    private final boolean persistent;
+    private int bufferId = 0;
+    private ByteBuffer memory;
+
+    // Monotonic byte counters, position in the ring is counter % capacity
+    private long head = 0;
+    private long tail = 0;
+    private final ArrayDeque<Allocation> inFlight = new ArrayDeque<>();
+
+    private StagingRingBuffer(int capacity, boolean persistent) {
+        this.capacity = capacity;
+        this.persistent = persistent;
+    }
+
+    /**
+     * Create the ring - MUST be called on main thread with a current GL context
+     */
+    public static StagingRingBuffer create(int capacity) {
+        GLCapabilities caps = GL.getCapabilities();
+        boolean bufferStorage = caps.OpenGL44 || caps.GL_ARB_buffer_storage;
+        StagingRingBuffer ring = new StagingRingBuffer(capacity, bufferStorage);
+
+        if (bufferStorage) {
+            int flags = GL_MAP_WRITE_BIT | ARBBufferStorage.GL_MAP_PERSISTENT_BIT | ARBBufferStorage.GL_MAP_COHERENT_BIT;
+            ring.bufferId = glGenBuffers();
+            glBindBuffer(GL_COPY_READ_BUFFER, ring.bufferId);
+            ARBBufferStorage.glBufferStorage(GL_COPY_READ_BUFFER, capacity, flags);
+            ring.memory = glMapBufferRange(GL_COPY_READ_BUFFER, 0, capacity, flags);
+            glBindBuffer(GL_COPY_READ_BUFFER, 0);
+        } else {
+            ring.memory = MemoryUtil.memAlloc(capacity);
+        }
+
+        if (ring.memory == null) {
+            throw new RuntimeException("Failed to map staging ring buffer");
+        }
+        ring.memory.order(ByteOrder.nativeOrder());
+
+        LoggerHelper.betterPrint("Staging ring: " + (capacity >> 20) + " MB, " +
+                (bufferStorage ? "persistent mapped" : "client memory fallback"), LoggerHelper.LogType.RENDERING);
+        return ring;
+    }
+
+    /**
+     * Reserve a region, safe from any thread. Returns null when the ring is full.
+     */
+    public synchronized Allocation allocate(int bytes) {
+        if (memory == null || bytes <= 0 || bytes > capacity) return null;
+
+        int size = (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+        long start = head;
+        int offset = (int) (head % capacity);
+        long padding = 0;
+        if (offset + size > capacity) {
+            // Not enough room before the end, skip the leftover piece and wrap to zero
+            padding = capacity - offset;
+            offset = 0;
+        }
+        long end = head + padding + size;
+        if (end - tail > capacity) {
+            return null;
+        }
+
+        ByteBuffer slice = memory.slice(offset, bytes).order(ByteOrder.nativeOrder());
+        Allocation allocation = new Allocation(this, start, end, offset, bytes, slice);
+        head = end;
+        inFlight.addLast(allocation);
+        return allocation;
+    }
+
+    /**
+     * Copy part of an allocation into a GL buffer - MUST be called on main thread
+     */
+    public void copyTo(Allocation allocation, int srcOffset, int dstBuffer, int dstTarget, long dstOffset, int bytes) {
+        if (persistent) {
+            glBindBuffer(GL_COPY_READ_BUFFER, bufferId);
+            glBindBuffer(GL_COPY_WRITE_BUFFER, dstBuffer);
+            glCopyBufferSubData(GL_COPY_READ_BUFFER, GL_COPY_WRITE_BUFFER,
+                    allocation.offset + srcOffset, dstOffset, bytes);
+            glBindBuffer(GL_COPY_READ_BUFFER, 0);
+            glBindBuffer(GL_COPY_WRITE_BUFFER, 0);
+        } else {
+            glBindBuffer(dstTarget, dstBuffer);
+            glBufferSubData(dstTarget, dstOffset, allocation.data.slice(srcOffset, bytes));
+        }
+    }
+
+    /**
+     * Mark an allocation as consumed after its copies were issued - MUST be called on main thread
+     * The region is reused once the GPU has passed the fence.
+     */
+    public synchronized void release(Allocation allocation) {
+        if (allocation.done) return;
+        if (persistent) {
+            allocation.fence = glFenceSync(GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        }
+        allocation.done = true;
+    }
+
+    /**
+     * Drop an allocation that will never be uploaded, safe from any thread
+     */
+    public synchronized void discard(Allocation allocation) {
+        allocation.done = true;
+    }
+
+    /**
+     * Return finished regions to the ring - MUST be called on main thread, once per frame
+     */
+    public synchronized void reclaim() {
+        while (!inFlight.isEmpty()) {
+            Allocation oldest = inFlight.peekFirst();
+            if (!oldest.done) break;
+
+            if (oldest.fence != 0) {
+                int status = glClientWaitSync(oldest.fence, 0, 0);
+                if (status != GL_ALREADY_SIGNALED && status != GL_CONDITION_SATISFIED) break;
+                glDeleteSync(oldest.fence);
+                oldest.fence = 0;
+            }
+
+            tail = oldest.end;
+            inFlight.pollFirst();
+        }
+    }
+
+    public synchronized long getBytesInFlight() {
+        return head - tail;
+    }
+
+    public int getCapacity() { return capacity; }
+    public boolean isPersistent() { return persistent; }
+
+    public synchronized void cleanup() {
+        for (Allocation allocation : inFlight) {
+            if (allocation.fence != 0) glDeleteSync(allocation.fence);
+        }
+        inFlight.clear();
+
+        if (persistent) {
+            if (bufferId != 0) {
+                glBindBuffer(GL_COPY_READ_BUFFER, bufferId);
+                glUnmapBuffer(GL_COPY_READ_BUFFER);
+                glBindBuffer(GL_COPY_READ_BUFFER, 0);
+                glDeleteBuffers(bufferId);
+                bufferId = 0;
+            }
+        } else if (memory != null) {
+            MemoryUtil.memFree(memory);
+        }
+        memory = null;
+    }
+}
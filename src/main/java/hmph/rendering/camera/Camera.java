@@ -96,23 +96,11 @@ public class Camera {
 
     /**
      * Test if a chunk is visible in the camera frustum
+     * Only the AABB is tested, the old bounding sphere check could only add false positives on top of it
      */
     public boolean isChunkVisible(Vector3f chunkWorldPos, float chunkSize) {
-        // Test both the chunk bounding box and a sphere for better accuracy
-        Vector3f min = new Vector3f(chunkWorldPos.x, 0, chunkWorldPos.z);
-        Vector3f max = new Vector3f(chunkWorldPos.x + chunkSize, 256, chunkWorldPos.z + chunkSize);
-
-        boolean aabbVisible = frustum.intersectsAABB(min, max);
-
-        Vector3f center = new Vector3f(
-                chunkWorldPos.x + chunkSize * 0.5f,
-                128f,
-                chunkWorldPos.z + chunkSize * 0.5f
-        );
-        float radius = (float)(Math.sqrt(chunkSize * chunkSize + 256 * 256) * 0.5f);
-        boolean sphereVisible = frustum.intersectsSphere(center, radius);
-
-        return aabbVisible || sphereVisible;
+        return frustum.intersectsAABB(chunkWorldPos.x, 0, chunkWorldPos.z,
+                chunkWorldPos.x + chunkSize, 256, chunkWorldPos.z + chunkSize);
     }
 
     /**
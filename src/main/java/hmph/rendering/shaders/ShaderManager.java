@@ -3,6 +3,8 @@ package hmph.rendering.shaders;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.lwjgl.opengl.GL20.glVertexAttrib3f;
+
 public class ShaderManager {
     private Map<String, ShaderProgram> shaders;
 
@@ -27,6 +29,19 @@ public class ShaderManager {
             shader.createUniform("lightColor");
             shader.createUniform("ambientStrength");
             shader.createUniform("ambientColor");
+            // Meshes without a light attribute (CubeRenderer) read this value: full sky, no block light, no occlusion
+            glVertexAttrib3f(4, 1.0f, 0.0f, 1.0f);
+            // Cascaded shadows, off (cascadeCount 0) unless the shadow renderer turns them on for a frame
+            for (int i = 0; i < 4; i++) {
+                shader.createUniformSafe("lightSpace[" + i + "]");
+            }
+            shader.createUniformSafe("cascadeSplits");
+            shader.createUniformSafe("cascadeTexels");
+            shader.createUniformSafe("cascadeCount");
+            if (shader.createUniformSafe("shadowMap")) {
+                shader.setUniform("shadowMap", 1);
+            }
+            shader.setUniformSafe("cascadeCount", 0);
         } else if (name.equals("textured")) {
             shader.createUniform("model");
             shader.createUniform("projection");
@@ -36,6 +51,18 @@ public class ShaderManager {
             shader.createUniform("projection");
             shader.createUniform("textColor");
             shader.createUniform("textTexture");
+        } else if (name.equals("farterrain")) {
+            shader.createUniform("view");
+            shader.createUniform("projection");
+            shader.createUniform("lightDirection");
+            shader.createUniform("lightColor");
+            shader.createUniform("ambientStrength");
+            shader.createUniform("ambientColor");
+            shader.createUniform("cameraPos");
+            shader.createUniform("innerRadius");
+        } else if (name.equals("shadow")) {
+            shader.createUniform("lightSpace");
+            shader.createUniform("model");
         } else if (name.equals("skybox")) {
             shader.createUniformSafe("projection");
             shader.createUniformSafe("view");
@@ -68,6 +95,8 @@ public class ShaderManager {
         loadShader("3d", VERTEX_3D_SHADER, FRAGMENT_3D_SHADER);
         loadShader("textured", TEXTURED_VERTEX_SHADER, TEXTURED_FRAGMENT_SHADER);
         loadShader("text", TEXT_VERTEX_SHADER, TEXT_FRAGMENT_SHADER);
+        loadShader("farterrain", FAR_TERRAIN_VERTEX_SHADER, FAR_TERRAIN_FRAGMENT_SHADER);
+        loadShader("shadow", SHADOW_VERTEX_SHADER, SHADOW_FRAGMENT_SHADER);
     }
 
     private static final String BASIC_VERTEX_SHADER =
@@ -96,6 +125,7 @@ public class ShaderManager {
             "layout (location = 0) in vec3 aPos;\n" +
             "layout (location = 1) in vec2 aTexCoord;\n" +
             "layout (location = 2) in vec3 aNormal;\n" +
+            "layout (location = 4) in vec3 aLight;\n" +
             "\n" +
             "uniform mat4 model;\n" +
             "uniform mat4 view;\n" +
@@ -104,12 +134,17 @@ public class ShaderManager {
             "out vec2 TexCoord;\n" +
             "out vec3 worldPos;\n" +
             "out vec3 Normal;\n" +
+            "out vec3 Light;\n" +
+            "out float viewDepth;\n" +
             "\n" +
             "void main() {\n" +
             "    worldPos = vec3(model * vec4(aPos, 1.0));\n" +
-            "    gl_Position = projection * view * vec4(worldPos, 1.0);\n" +
+            "    vec4 viewPos = view * vec4(worldPos, 1.0);\n" +
+            "    viewDepth = -viewPos.z;\n" +
+            "    gl_Position = projection * viewPos;\n" +
             "    TexCoord = aTexCoord;\n" +
             "    Normal = mat3(transpose(inverse(model))) * aNormal;\n" +
+            "    Light = aLight;\n" +
             "}\n";
 
     private static final String FRAGMENT_3D_SHADER =
@@ -117,6 +152,8 @@ public class ShaderManager {
             "in vec2 TexCoord;\n" +
             "in vec3 worldPos;\n" +
             "in vec3 Normal;\n" +
+            "in vec3 Light;\n" +
+            "in float viewDepth;\n" +
             "out vec4 FragColor;\n" +
             "\n" +
             "uniform sampler2D texture1;\n" +
@@ -125,6 +162,32 @@ public class ShaderManager {
             "uniform vec3 lightColor;\n" +
             "uniform float ambientStrength;\n" +
             "uniform vec3 ambientColor;\n" +
+            "uniform sampler2DArrayShadow shadowMap;\n" +
+            "uniform mat4 lightSpace[4];\n" +
+            "uniform vec4 cascadeSplits;\n" +
+            "uniform vec4 cascadeTexels;\n" +
+            "uniform int cascadeCount;\n" +
+            "\n" +
+            "// 0 = in the sun's shadow, 1 = lit, 4 hardware-filtered taps around the texel\n" +
+            "float sunVisibility(vec3 norm, vec3 lightDir) {\n" +
+            "    if (cascadeCount == 0 || viewDepth >= cascadeSplits[cascadeCount - 1]) return 1.0;\n" +
+            "    int cascade = 0;\n" +
+            "    while (cascade < cascadeCount - 1 && viewDepth >= cascadeSplits[cascade]) cascade++;\n" +
+            "    \n" +
+            "    // Push the lookup out along the normal by about a texel so flat ground doesn't shadow itself\n" +
+            "    float texel = cascadeTexels[cascade];\n" +
+            "    vec3 offsetPos = worldPos + norm * texel * 1.5;\n" +
+            "    vec4 p = lightSpace[cascade] * vec4(offsetPos, 1.0);\n" +
+            "    vec3 coords = p.xyz * 0.5 + 0.5;\n" +
+            "    float bias = 0.0005 * (1.0 - max(dot(norm, lightDir), 0.0));\n" +
+            "    vec2 texelStep = 1.0 / vec2(textureSize(shadowMap, 0).xy);\n" +
+            "    float lit = 0.0;\n" +
+            "    lit += texture(shadowMap, vec4(coords.xy + vec2(-0.5, -0.5) * texelStep, float(cascade), coords.z - bias));\n" +
+            "    lit += texture(shadowMap, vec4(coords.xy + vec2( 0.5, -0.5) * texelStep, float(cascade), coords.z - bias));\n" +
+            "    lit += texture(shadowMap, vec4(coords.xy + vec2(-0.5,  0.5) * texelStep, float(cascade), coords.z - bias));\n" +
+            "    lit += texture(shadowMap, vec4(coords.xy + vec2( 0.5,  0.5) * texelStep, float(cascade), coords.z - bias));\n" +
+            "    return lit * 0.25;\n" +
+            "}\n" +
             "\n" +
             "void main() {\n" +
             "    vec4 texColor = texture(texture1, TexCoord);\n" +
@@ -137,8 +200,12 @@ public class ShaderManager {
             "    float diff = max(dot(norm, lightDir), 0.0);\n" +
             "    \n" +
             "    vec3 ambient = ambientStrength * ambientColor;\n" +
-            "    vec3 diffuse = diff * lightColor;\n" +
-            "    vec3 lighting = ambient + diffuse;\n" +
+            "    vec3 diffuse = diff * lightColor * (diff > 0.0 ? sunVisibility(norm, lightDir) : 1.0);\n" +
+            "    // Each level below full is 20% darker, sun and ambient only reach as far as skylight does\n" +
+            "    float sky = pow(0.8, 15.0 * (1.0 - Light.x));\n" +
+            "    float torch = pow(0.8, 15.0 * (1.0 - Light.y)) * step(0.001, Light.y);\n" +
+            "    // Light.z is the baked corner occlusion\n" +
+            "    vec3 lighting = ((ambient + diffuse) * sky + torch * vec3(1.0, 0.85, 0.6)) * Light.z;\n" +
             "    \n" +
             "    lighting = max(lighting, vec3(0.05, 0.05, 0.1));\n" +
             "    \n" +
@@ -194,4 +261,70 @@ public class ShaderManager {
             "    float alpha = texture(textTexture, TexCoords).r;\n" +
             "    FragColor = vec4(textColor, alpha);\n" +
             "}\n";
-}
\ No newline at end of file
+
+    private static final String FAR_TERRAIN_VERTEX_SHADER =
+            "#version 330 core\n" +
+            "layout (location = 0) in vec3 aPos;\n" +
+            "layout (location = 1) in vec3 aNormal;\n" +
+            "layout (location = 2) in vec3 aColor;\n" +
+            "\n" +
+            "uniform mat4 view;\n" +
+            "uniform mat4 projection;\n" +
+            "\n" +
+            "out vec3 worldPos;\n" +
+            "out vec3 Normal;\n" +
+            "out vec3 Color;\n" +
+            "\n" +
+            "void main() {\n" +
+            "    worldPos = aPos;\n" +
+            "    gl_Position = projection * view * vec4(aPos, 1.0);\n" +
+            "    Normal = aNormal;\n" +
+            "    Color = aColor;\n" +
+            "}\n";
+
+    private static final String FAR_TERRAIN_FRAGMENT_SHADER =
+            "#version 330 core\n" +
+            "in vec3 worldPos;\n" +
+            "in vec3 Normal;\n" +
+            "in vec3 Color;\n" +
+            "out vec4 FragColor;\n" +
+            "\n" +
+            "uniform vec3 lightDirection;\n" +
+            "uniform vec3 lightColor;\n" +
+            "uniform float ambientStrength;\n" +
+            "uniform vec3 ambientColor;\n" +
+            "uniform vec3 cameraPos;\n" +
+            "uniform float innerRadius;\n" +
+            "\n" +
+            "void main() {\n" +
+            "    // Voxel chunks own everything inside the render distance\n" +
+            "    if (distance(worldPos.xz, cameraPos.xz) < innerRadius) {\n" +
+            "        discard;\n" +
+            "    }\n" +
+            "    \n" +
+            "    vec3 norm = normalize(Normal);\n" +
+            "    vec3 lightDir = normalize(-lightDirection);\n" +
+            "    float diff = max(dot(norm, lightDir), 0.0);\n" +
+            "    vec3 lighting = ambientStrength * ambientColor + diff * lightColor;\n" +
+            "    lighting = max(lighting, vec3(0.05, 0.05, 0.1));\n" +
+            "    \n" +
+            "    FragColor = vec4(Color * lighting, 1.0);\n" +
+            "}\n";
+
+    private static final String SHADOW_VERTEX_SHADER =
+            "#version 330 core\n" +
+            "layout (location = 0) in vec3 aPos;\n" +
+            "\n" +
+            "uniform mat4 lightSpace;\n" +
+            "uniform mat4 model;\n" +
+            "\n" +
+            "void main() {\n" +
+            "    gl_Position = lightSpace * model * vec4(aPos, 1.0);\n" +
+            "}\n";
+
+    private static final String SHADOW_FRAGMENT_SHADER =
+            "#version 330 core\n" +
+            "\n" +
+            "void main() {\n" +
+            "}\n";
+}
@@ -13,6 +13,8 @@ public class ShaderProgram {
     private int vertexShaderId;
     private int fragmentShaderId;
     private Map<String, Integer> uniforms;
+    // Reused for every matrix upload, uniforms are only set on the main thread
+    private final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
 
     public ShaderProgram() throws Exception {
         programId = glCreateProgram();
@@ -110,9 +112,9 @@ public class ShaderProgram {
             System.err.println("Warning: Uniform '" + uniformName + "' not found in shader");
             return;
         }
-        FloatBuffer fb = BufferUtils.createFloatBuffer(16);
-        value.get(fb);
-        glUniformMatrix4fv(location, false, fb);
+        matrixBuffer.clear();
+        value.get(matrixBuffer);
+        glUniformMatrix4fv(location, false, matrixBuffer);
     }
 
     public void setUniform(String uniformName, Vector3f value) {
@@ -0,0 +1,212 @@
+package hmph.rendering.shadows;
+
+import hmph.math.Matrix4f;
+import hmph.math.Vector3f;
+import hmph.rendering.camera.Camera;
+
+/**
+ * Fits cascaded shadow map matrices to the camera frustum. Each cascade covers one slice of the
+ * view depth with a bounding sphere, so its size stays the same while the camera turns, and its
+ * origin is snapped to whole shadow texels so shadow edges don't shimmer while the camera moves.
+ * Far cascades can be refitted every N frames, they are fitted with some slack and refitted early
+ * once the camera leaves it. Pure math, no GL - main thread only.
+ */
+public final class ShadowCascades {
+    public static final int MAX_CASCADES = 4;
+    // Blend between logarithmic and uniform splits, 1 = fully logarithmic
+    private static final float SPLIT_LAMBDA = 0.75f;
+    // How far past a cascade towards the sun casters are still caught
+    private static final float CASTER_MARGIN = 256f;
+    // Sun moves smaller than this (cosine) don't refit, the sun creeping every frame would shimmer too
+    private static final float DIRECTION_EPSILON = 0.99999f;
+    // Extra radius for cascades that skip frames, the camera can wander this far before a forced refit
+    private static final float SLACK = 0.15f;
+
+    private final int count;
+    private final int resolution;
+    private final int[] updateIntervals;
+
+    private final float[] splits = new float[MAX_CASCADES];
+    private final float[] radius = new float[MAX_CASCADES];
+    private final float[][] center = new float[MAX_CASCADES][3];
+    private final float[][] fittedDirection = new float[MAX_CASCADES][3];
+    private final boolean[] fitted = new boolean[MAX_CASCADES];
+    private final Matrix4f[] lightSpace = new Matrix4f[MAX_CASCADES];
+    private final float[] corner = new float[3];
+    private final float[] sliceCenter = new float[3];
+    private long frame = 0;
+
+    public ShadowCascades(int count, int resolution, int... updateIntervals) {
+        if (count < 1 || count > MAX_CASCADES) {
+            throw new IllegalArgumentException("Cascade count must be 1-" + MAX_CASCADES + ": " + count);
+        }
+        this.count = count;
+        this.resolution = resolution;
+        this.updateIntervals = new int[count];
+        for (int i = 0; i < count; i++) {
+            lightSpace[i] = new Matrix4f();
+            setUpdateInterval(i, i < updateIntervals.length ? updateIntervals[i] : 1);
+        }
+    }
+
+    /**
+     * Refit the cascades that are due this frame, returns a bitmask of the ones whose shadow map needs redrawing
+     */
+    public int update(Camera camera, float aspect, float near, float shadowDistance, Vector3f lightDirection) {
+        frame++;
+        computeSplits(near, shadowDistance);
+
+        Vector3f position = camera.getPosition();
+        Vector3f front = camera.getFront();
+        Vector3f right = camera.getRight();
+        Vector3f up = camera.getUp();
+        float tanHalf = (float) Math.tan(Math.toRadians(camera.getZoom()) * 0.5);
+
+        float[] direction = normalize(lightDirection.x, lightDirection.y, lightDirection.z);
+        int redraw = 0;
+        float sliceNear = near;
+        for (int i = 0; i < count; i++) {
+            float sliceFar = splits[i];
+            float sliceRadius = fitSlice(position, front, right, up, tanHalf, aspect, sliceNear, sliceFar, sliceCenter);
+            sliceNear = sliceFar;
+
+            boolean sunMoved = !fitted[i] || dot(direction, fittedDirection[i]) < DIRECTION_EPSILON;
+            boolean due = frame % updateIntervals[i] == 0;
+            boolean escaped = !fitted[i] || distance(sliceCenter, center[i]) + sliceRadius > radius[i];
+            if (!sunMoved && !escaped && !due) continue;
+
+            float slack = updateIntervals[i] > 1 ? 1f + SLACK : 1f;
+            // Whole blocks, so float noise in the fit never changes the texel size
+            radius[i] = (float) Math.ceil(sliceRadius * slack);
+            System.arraycopy(sliceCenter, 0, center[i], 0, 3);
+            if (sunMoved) System.arraycopy(direction, 0, fittedDirection[i], 0, 3);
+            buildLightSpace(i, fittedDirection[i]);
+            fitted[i] = true;
+            redraw |= 1 << i;
+        }
+        return redraw;
+    }
+
+    /**
+     * Whether a sphere can throw a shadow into a cascade, for skipping casters
+     */
+    public boolean mayCastInto(int cascade, float x, float y, float z, float sphereRadius) {
+        float[] m = lightSpace[cascade].m;
+        float reach = 1f + sphereRadius / radius[cascade];
+        float lx = m[0] * x + m[4] * y + m[8] * z + m[12];
+        float ly = m[1] * x + m[5] * y + m[9] * z + m[13];
+        return Math.abs(lx) <= reach && Math.abs(ly) <= reach;
+    }
+
+    public void setUpdateInterval(int cascade, int frames) {
+        if (frames < 1) {
+            throw new IllegalArgumentException("Cascade update interval must be at least 1 frame: " + frames);
+        }
+        updateIntervals[cascade] = frames;
+    }
+
+    /**
+     * Forget the fits so every cascade is refitted and redrawn next frame, after a teleport or dimension switch
+     */
+    public void invalidate() {
+        for (int i = 0; i < count; i++) fitted[i] = false;
+    }
+
+    public int getCount() { return count; }
+    public int getResolution() { return resolution; }
+    public int getUpdateInterval(int cascade) { return updateIntervals[cascade]; }
+    public Matrix4f getLightSpace(int cascade) { return lightSpace[cascade]; }
+
+    /**
+     * View depth where a cascade ends
+     */
+    public float getSplit(int cascade) { return splits[cascade]; }
+
+    /**
+     * World size of one shadow texel in a cascade
+     */
+    public float getTexelSize(int cascade) { return 2f * radius[cascade] / resolution; }
+
+    private void computeSplits(float near, float far) {
+        for (int i = 0; i < count; i++) {
+            float t = (i + 1) / (float) count;
+            float log = near * (float) Math.pow(far / near, t);
+            float uniform = near + (far - near) * t;
+            splits[i] = SPLIT_LAMBDA * log + (1f - SPLIT_LAMBDA) * uniform;
+        }
+    }
+
+    /**
+     * Bounding sphere of the frustum between two view depths, returns the radius
+     */
+    private float fitSlice(Vector3f position, Vector3f front, Vector3f right, Vector3f up, float tanHalf, float aspect,
+                           float sliceNear, float sliceFar, float[] out) {
+        float cx = 0, cy = 0, cz = 0;
+        for (int c = 0; c < 8; c++) {
+            sliceCorner(position, front, right, up, tanHalf, aspect, (c & 4) == 0 ? sliceNear : sliceFar, c);
+            cx += corner[0];
+            cy += corner[1];
+            cz += corner[2];
+        }
+        out[0] = cx / 8f;
+        out[1] = cy / 8f;
+        out[2] = cz / 8f;
+
+        float result = 0;
+        for (int c = 0; c < 8; c++) {
+            sliceCorner(position, front, right, up, tanHalf, aspect, (c & 4) == 0 ? sliceNear : sliceFar, c);
+            result = Math.max(result, distance(corner, out));
+        }
+        return result;
+    }
+
+    private void sliceCorner(Vector3f position, Vector3f front, Vector3f right, Vector3f up, float tanHalf, float aspect,
+                             float depth, int c) {
+        float h = depth * tanHalf * ((c & 1) == 0 ? -1 : 1);
+        float w = depth * tanHalf * aspect * ((c & 2) == 0 ? -1 : 1);
+        corner[0] = position.x + front.x * depth + right.x * w + up.x * h;
+        corner[1] = position.y + front.y * depth + right.y * w + up.y * h;
+        corner[2] = position.z + front.z * depth + right.z * w + up.z * h;
+    }
+
+    /**
+     * Orthographic projection times light view, built straight into the column-major array.
+     * x/y map the snapped sphere to -1..1, depth runs from CASTER_MARGIN past the sphere on the
+     * sun's side to its far edge.
+     */
+    private void buildLightSpace(int i, float[] f) {
+        float[] reference = Math.abs(f[1]) > 0.99f ? new float[]{0, 0, 1} : new float[]{0, 1, 0};
+        float[] s = normalize(f[1] * reference[2] - f[2] * reference[1],
+                f[2] * reference[0] - f[0] * reference[2],
+                f[0] * reference[1] - f[1] * reference[0]);
+        float[] u = {s[1] * f[2] - s[2] * f[1], s[2] * f[0] - s[0] * f[2], s[0] * f[1] - s[1] * f[0]};
+
+        float r = radius[i];
+        float texel = 2f * r / resolution;
+        float lx = (float) Math.floor(dot(s, center[i]) / texel) * texel;
+        float ly = (float) Math.floor(dot(u, center[i]) / texel) * texel;
+        float lz = dot(f, center[i]);
+        float depthRange = 2f * r + CASTER_MARGIN;
+
+        float[] m = lightSpace[i].m;
+        m[0] = s[0] / r;  m[4] = s[1] / r;  m[8] = s[2] / r;  m[12] = -lx / r;
+        m[1] = u[0] / r;  m[5] = u[1] / r;  m[9] = u[2] / r;  m[13] = -ly / r;
+        m[2] = 2f * f[0] / depthRange;  m[6] = 2f * f[1] / depthRange;  m[10] = 2f * f[2] / depthRange;
+        m[14] = (CASTER_MARGIN - 2f * lz) / depthRange;
+        m[3] = 0;  m[7] = 0;  m[11] = 0;  m[15] = 1;
+    }
+
+    private static float[] normalize(float x, float y, float z) {
+        float length = (float) Math.sqrt(x * x + y * y + z * z);
+        return length > 0 ? new float[]{x / length, y / length, z / length} : new float[]{0, -1, 0};
+    }
+
+    private static float dot(float[] a, float[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static float distance(float[] a, float[] b) {
+        float dx = a[0] - b[0], dy = a[1] - b[1], dz = a[2] - b[2];
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
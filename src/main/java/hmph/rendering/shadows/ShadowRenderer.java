@@ -0,0 +1,214 @@
+package hmph.rendering.shadows;
+
+import hmph.math.Matrix4f;
+import hmph.math.Vector3f;
+import hmph.rendering.LightingSystem;
+import hmph.rendering.camera.Camera;
+import hmph.rendering.shaders.ShaderProgram;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+import hmph.util.debug.LoggerHelper;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.GL_TEXTURE_WRAP_R;
+import static org.lwjgl.opengl.GL13.GL_CLAMP_TO_BORDER;
+import static org.lwjgl.opengl.GL13.GL_TEXTURE1;
+import static org.lwjgl.opengl.GL13.glActiveTexture;
+import static org.lwjgl.opengl.GL14.GL_DEPTH_COMPONENT24;
+import static org.lwjgl.opengl.GL14.GL_TEXTURE_COMPARE_FUNC;
+import static org.lwjgl.opengl.GL14.GL_TEXTURE_COMPARE_MODE;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL32.GL_DEPTH_CLAMP;
+
+/**
+ * Cascaded shadow maps for the sun. Every cascade is one layer of a depth texture array, drawn
+ * with the depth-only "shadow" shader straight from the chunk VAOs (only the position attribute is read).
+ * The chunk shader picks the cascade by view depth and does a small PCF over the hardware compare.
+ */
+public final class ShadowRenderer {
+    public static final int SHADOW_TEXTURE_UNIT = 1;
+    // Bounding sphere of a 16x256x16 chunk around its centre
+    private static final float CHUNK_RADIUS = 128.5f;
+    // Sun this close to the horizon (or below it) casts nothing worth drawing
+    private static final float MIN_SUN_HEIGHT = 0.05f;
+    private static final String[] LIGHT_SPACE_UNIFORMS = {"lightSpace[0]", "lightSpace[1]", "lightSpace[2]", "lightSpace[3]"};
+
+    private final ShadowCascades cascades;
+    private final ShaderProgram depthShader;
+    private final Matrix4f model = new Matrix4f();
+    private final float[] splits = new float[ShadowCascades.MAX_CASCADES];
+    private final float[] texels = new float[ShadowCascades.MAX_CASCADES];
+    private float shadowDistance;
+    private int texture = 0;
+    private int framebuffer = 0;
+    private boolean available = false;
+    private boolean active = false;
+    private int casterDraws = 0;
+
+    public ShadowRenderer(ShaderProgram depthShader, int cascadeCount, int resolution, float shadowDistance,
+                          int... updateIntervals) {
+        this.depthShader = depthShader;
+        this.cascades = new ShadowCascades(cascadeCount, resolution, updateIntervals);
+        this.shadowDistance = shadowDistance;
+        createTargets();
+    }
+
+    /**
+     * Refit the cascades and redraw the ones that are due - MUST be called on main thread
+     * Leaves the default framebuffer bound with the given viewport.
+     */
+    public void render(Camera camera, float aspect, float near, LightingSystem.LightData lighting,
+                       ChunkGrid<ChunkBase> chunks, int viewportWidth, int viewportHeight) {
+        active = available && depthShader != null && lighting.direction.y < -MIN_SUN_HEIGHT;
+        if (!active) return;
+
+        int redraw = cascades.update(camera, aspect, near, shadowDistance, lighting.direction);
+        casterDraws = 0;
+        if (redraw == 0) return;
+
+        glBindFramebuffer(GL_FRAMEBUFFER, framebuffer);
+        glViewport(0, 0, cascades.getResolution(), cascades.getResolution());
+        glEnable(GL_DEPTH_TEST);
+        glDepthMask(true);
+        glDisable(GL_CULL_FACE);
+        // Casters between the sun and the near plane are flattened onto it instead of clipped
+        glEnable(GL_DEPTH_CLAMP);
+        glEnable(GL_POLYGON_OFFSET_FILL);
+        glPolygonOffset(1.5f, 4.0f);
+
+        depthShader.bind();
+        for (int i = 0; i < cascades.getCount(); i++) {
+            if ((redraw & (1 << i)) == 0) continue;
+            glFramebufferTextureLayer(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, texture, 0, i);
+            glClear(GL_DEPTH_BUFFER_BIT);
+            depthShader.setUniform("lightSpace", cascades.getLightSpace(i));
+            drawCasters(i, chunks);
+        }
+        depthShader.unbind();
+        glBindVertexArray(0);
+
+        glDisable(GL_POLYGON_OFFSET_FILL);
+        glDisable(GL_DEPTH_CLAMP);
+        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+        glViewport(0, 0, viewportWidth, viewportHeight);
+    }
+
+    /**
+     * Bind the shadow map and cascade uniforms for the chunk shader, which must be bound - main thread only
+     */
+    public void apply(ShaderProgram shader) {
+        if (!active) {
+            shader.setUniformSafe("cascadeCount", 0);
+            return;
+        }
+
+        int count = cascades.getCount();
+        for (int i = 0; i < count; i++) {
+            shader.setUniformSafe(LIGHT_SPACE_UNIFORMS[i], cascades.getLightSpace(i));
+            splits[i] = cascades.getSplit(i);
+            texels[i] = cascades.getTexelSize(i);
+        }
+        shader.setUniform4f("cascadeSplits", splits[0], splits[1], splits[2], splits[3]);
+        shader.setUniform4f("cascadeTexels", texels[0], texels[1], texels[2], texels[3]);
+        shader.setUniformSafe("cascadeCount", count);
+
+        glActiveTexture(GL_TEXTURE1);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, texture);
+        glActiveTexture(GL_TEXTURE0);
+    }
+
+    /**
+     * Turn shadows off in the chunk shader again so other users of it (CubeRenderer) don't sample - main thread only
+     */
+    public void release(ShaderProgram shader) {
+        shader.bind();
+        shader.setUniformSafe("cascadeCount", 0);
+        glActiveTexture(GL_TEXTURE1);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+        glActiveTexture(GL_TEXTURE0);
+    }
+
+    /**
+     * Refit and redraw every cascade next frame, for teleports and dimension switches
+     */
+    public void invalidate() {
+        cascades.invalidate();
+    }
+
+    public void setShadowDistance(float shadowDistance) {
+        this.shadowDistance = shadowDistance;
+    }
+
+    /**
+     * Redraw a cascade only every given number of frames, far cascades can lag without it showing
+     */
+    public void setUpdateInterval(int cascade, int frames) {
+        cascades.setUpdateInterval(cascade, frames);
+    }
+
+    public boolean isAvailable() { return available; }
+    public ShadowCascades getCascades() { return cascades; }
+
+    public String getStats() {
+        return String.format("Shadows: %s, %d cascades at %d, %d caster draws last redraw",
+                active ? "on" : "off", cascades.getCount(), cascades.getResolution(), casterDraws);
+    }
+
+    public void cleanup() {
+        if (framebuffer != 0) glDeleteFramebuffers(framebuffer);
+        if (texture != 0) glDeleteTextures(texture);
+        framebuffer = 0;
+        texture = 0;
+        available = false;
+    }
+
+    private void drawCasters(int cascade, ChunkGrid<ChunkBase> chunks) {
+        chunks.forEach(chunk -> {
+            if (!chunk.isMeshBuilt() || chunk.getVao() == 0 || chunk.getIndexCount() <= 0) return;
+
+            Vector3f position = chunk.getPosition();
+            if (!cascades.mayCastInto(cascade, position.x + ChunkBase.SIZE_X * 0.5f, position.y + ChunkBase.SIZE_Y * 0.5f,
+                    position.z + ChunkBase.SIZE_Z * 0.5f, CHUNK_RADIUS)) return;
+
+            depthShader.setUniform("model", model.translation(position));
+            glBindVertexArray(chunk.getVao());
+            glDrawElements(GL_TRIANGLES, chunk.getIndexCount(), GL_UNSIGNED_INT, 0);
+            casterDraws++;
+        });
+    }
+
+    private void createTargets() {
+        int resolution = cascades.getResolution();
+        texture = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D_ARRAY, texture);
+        glTexImage3D(GL_TEXTURE_2D_ARRAY, 0, GL_DEPTH_COMPONENT24, resolution, resolution, cascades.getCount(),
+                0, GL_DEPTH_COMPONENT, GL_FLOAT, (java.nio.ByteBuffer) null);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_S, GL_CLAMP_TO_BORDER);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_T, GL_CLAMP_TO_BORDER);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_R, GL_CLAMP_TO_EDGE);
+        // Outside the map counts as lit
+        glTexParameterfv(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_BORDER_COLOR, new float[]{1f, 1f, 1f, 1f});
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_COMPARE_MODE, GL_COMPARE_REF_TO_TEXTURE);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_COMPARE_FUNC, GL_LEQUAL);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+
+        framebuffer = glGenFramebuffers();
+        glBindFramebuffer(GL_FRAMEBUFFER, framebuffer);
+        glFramebufferTextureLayer(GL_FRAMEBUFFER, GL_DEPTH_ATTACHMENT, texture, 0, 0);
+        glDrawBuffer(GL_NONE);
+        glReadBuffer(GL_NONE);
+        int status = glCheckFramebufferStatus(GL_FRAMEBUFFER);
+        glBindFramebuffer(GL_FRAMEBUFFER, 0);
+
+        available = status == GL_FRAMEBUFFER_COMPLETE;
+        if (!available) {
+            LoggerHelper.betterPrint("Shadow framebuffer incomplete (" + status + "), shadows disabled", LoggerHelper.LogType.ERROR);
+            cleanup();
+            return;
+        }
+        LoggerHelper.betterPrint("Shadows: " + cascades.getCount() + " cascades at " + resolution + "x" + resolution,
+                LoggerHelper.LogType.RENDERING);
+    }
+}
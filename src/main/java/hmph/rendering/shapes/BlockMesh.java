@@ -7,6 +7,30 @@ import java.util.List;
 
 public class BlockMesh {
     private static final float BLOCK_SCALE = 1.0f;
+    // pos3 + uv2 + normal3 + texture id + sky light + block light + ambient occlusion
+    public static final int FLOATS_PER_VERTEX = 12;
+    // Packed light for meshes built without a light engine: full sky, no block light
+    public static final int FULL_SKY = 15 << 4;
+    private static final float LIGHT_SCALE = 1f / 15f;
+    // Brightness for 0-3 unoccluded neighbours of a corner, baked into the vertex
+    private static final float[] AO_CURVE = {0.45f, 0.65f, 0.82f, 1.0f};
+    private static final int NO_OCCLUSION = 3;
+
+    /**
+     * Packed light (sky << 4 | block) seen by the face of cell (x, y, z) pointing in dir
+     */
+    @FunctionalInterface
+    public interface FaceLight {
+        int light(int x, int y, int z, Direction dir);
+    }
+
+    /**
+     * Whether the cell at (x, y, z) darkens the corners next to it, asked for cells just outside the grid too
+     */
+    @FunctionalInterface
+    public interface Occluder {
+        boolean occludes(int x, int y, int z);
+    }
 
     public static class MeshData {
         public List<Float> vertices;
@@ -25,7 +49,7 @@ public class BlockMesh {
     public static int addBlockMesh(int x, int y, int z, String[][][] blocks, List<Float> vertices,
                                    List<Integer> indices, BlockRegistry registry) {
         int facesAdded = 0;
-        int startVertexIndex = vertices.size() / 9; // Now using 9 floats per vertex (pos + uv + normal + texture_id)
+        int startVertexIndex = vertices.size() / FLOATS_PER_VERTEX;
         String blockName = blocks[x][y][z];
 
         if (blockName == null) return 0;
@@ -40,42 +64,138 @@ public class BlockMesh {
             boolean shouldRender = isAirOrOutOfBounds(nx, ny, nz, blocks);
             if (!shouldRender) continue;
 
-            Vector3f[] faceVertices = dir.getVertices();
-            Vector3f normal = dir.getNormal();
-            float[][] uvs = getUVsForFace(blockName, dir);
-
-            // Get texture name for this face
-            String textureName = registry.getTexture(blockName, dir);
-            float textureId = getTextureIndex(textureName); // You'll need to implement this
-
-            for (int i = 0; i < 4; i++) {
-                Vector3f v = faceVertices[i];
-                // Position
-                vertices.add((x + v.x) * BLOCK_SCALE);
-                vertices.add((y + v.y) * BLOCK_SCALE);
-                vertices.add((z + v.z) * BLOCK_SCALE);
-                // UV coordinates
-                vertices.add(uvs[i][0]);
-                vertices.add(uvs[i][1]);
-                // Normal
-                vertices.add(normal.x);
-                vertices.add(normal.y);
-                vertices.add(normal.z);
-                // Texture ID (for texture atlas or array)
-                vertices.add(textureId);
-            }
-
-            int baseIndex = startVertexIndex + facesAdded * 4;
+            addFace(x, y, z, 1, blockName, dir, FULL_SKY, null, startVertexIndex + facesAdded * 4, vertices, indices, registry);
+            facesAdded++;
+        }
+
+        return facesAdded;
+    }
+
+    /**
+     * Mesh one cell of an integer block grid where every cell is scale blocks wide.
+     * Used for downsampled LOD grids, cells outside the grid count as air so chunk
+     * borders always get their side faces.
+     */
+    public static int addBlockMesh(int x, int y, int z, int[][][] blocks, int scale, List<Float> vertices,
+                                   List<Integer> indices, BlockRegistry registry) {
+        return addBlockMesh(x, y, z, blocks, scale, null, vertices, indices, registry);
+    }
+
+    /**
+     * Same as above with per-face light baked into the vertices, a null faceLight means full sky.
+     * Corners are occluded by opaque cells inside the grid only.
+     */
+    public static int addBlockMesh(int x, int y, int z, int[][][] blocks, int scale, FaceLight faceLight,
+                                   List<Float> vertices, List<Integer> indices, BlockRegistry registry) {
+        Occluder occluder = (ox, oy, oz) -> !isAirOrOutOfBounds(ox, oy, oz, blocks) && registry.isOpaque(blocks[ox][oy][oz]);
+        return addBlockMesh(x, y, z, blocks, scale, faceLight, occluder, vertices, indices, registry);
+    }
+
+    /**
+     * Same as above with the occlusion lookup supplied by the caller, so corners on the grid
+     * border can see into neighbouring chunks. A null occluder leaves every corner unoccluded.
+     */
+    public static int addBlockMesh(int x, int y, int z, int[][][] blocks, int scale, FaceLight faceLight, Occluder occluder,
+                                   List<Float> vertices, List<Integer> indices, BlockRegistry registry) {
+        int id = blocks[x][y][z];
+        if (id == 0) return 0;
+
+        String blockName = registry.getNameFromID(id);
+        if (blockName == null || registry.get(blockName) == null) return 0;
+
+        int facesAdded = 0;
+        int startVertexIndex = vertices.size() / FLOATS_PER_VERTEX;
+        for (Direction dir : Direction.values()) {
+            int nx = x + (int) dir.x();
+            int ny = y + (int) dir.y();
+            int nz = z + (int) dir.z();
+            if (!isAirOrOutOfBounds(nx, ny, nz, blocks)) continue;
+
+            int light = faceLight != null ? faceLight.light(x, y, z, dir) : FULL_SKY;
+            addFace(x, y, z, scale, blockName, dir, light, occluder, startVertexIndex + facesAdded * 4, vertices, indices, registry);
+            facesAdded++;
+        }
+        return facesAdded;
+    }
+
+    private static void addFace(int x, int y, int z, int scale, String blockName, Direction dir, int light, Occluder occluder,
+                                int baseIndex, List<Float> vertices, List<Integer> indices, BlockRegistry registry) {
+        Vector3f[] faceVertices = dir.getVertices();
+        Vector3f normal = dir.getNormal();
+        float[][] uvs = getUVsForFace(blockName, dir);
+
+        int[] ao = new int[4];
+        for (int i = 0; i < 4; i++) {
+            ao[i] = occluder != null ? cornerOcclusion(x, y, z, dir, faceVertices[i], occluder) : NO_OCCLUSION;
+        }
+
+        // Get texture name for this face
+        String textureName = registry.getTexture(blockName, dir);
+        float textureId = getTextureIndex(textureName); // You'll need to implement this
+        float skyLight = (light >> 4) * LIGHT_SCALE;
+        float blockLight = (light & 0xF) * LIGHT_SCALE;
+
+        for (int i = 0; i < 4; i++) {
+            Vector3f v = faceVertices[i];
+            // Position
+            vertices.add((x + v.x) * scale * BLOCK_SCALE);
+            vertices.add((y + v.y) * scale * BLOCK_SCALE);
+            vertices.add((z + v.z) * scale * BLOCK_SCALE);
+            // UV coordinates, repeated across scaled cells so texels stay block-sized
+            vertices.add(uvs[i][0] * scale);
+            vertices.add(uvs[i][1] * scale);
+            // Normal
+            vertices.add(normal.x);
+            vertices.add(normal.y);
+            vertices.add(normal.z);
+            // Texture ID (for texture atlas or array)
+            vertices.add(textureId);
+            // Light, flat across the face, and per-corner occlusion
+            vertices.add(skyLight);
+            vertices.add(blockLight);
+            vertices.add(AO_CURVE[ao[i]]);
+        }
+
+        // Split along the brighter diagonal, otherwise the interpolation smears one dark corner
+        // across half the quad and identical corners shade differently depending on face orientation
+        if (ao[0] + ao[2] >= ao[1] + ao[3]) {
             indices.add(baseIndex);
             indices.add(baseIndex + 1);
             indices.add(baseIndex + 2);
             indices.add(baseIndex);
             indices.add(baseIndex + 2);
             indices.add(baseIndex + 3);
-            facesAdded++;
+        } else {
+            indices.add(baseIndex + 1);
+            indices.add(baseIndex + 2);
+            indices.add(baseIndex + 3);
+            indices.add(baseIndex + 1);
+            indices.add(baseIndex + 3);
+            indices.add(baseIndex);
         }
+    }
 
-        return facesAdded;
+    /**
+     * Classic voxel AO for one face corner: the two edge neighbours and the diagonal one in the
+     * layer the face looks into. Both edges blocked means fully occluded whatever the diagonal is.
+     * Returns how many of the three are open, 0-3.
+     */
+    private static int cornerOcclusion(int x, int y, int z, Direction dir, Vector3f corner, Occluder occluder) {
+        int nx = (int) dir.x(), ny = (int) dir.y(), nz = (int) dir.z();
+        int bx = x + nx, by = y + ny, bz = z + nz;
+        int sx = corner.x > 0 ? 1 : -1;
+        int sy = corner.y > 0 ? 1 : -1;
+        int sz = corner.z > 0 ? 1 : -1;
+
+        // The two axes across the face: x then z, with y standing in for whichever is the normal
+        int ux = nx == 0 ? sx : 0, uy = nx != 0 ? sy : 0;
+        int wy = nz != 0 ? sy : 0, wz = nz == 0 ? sz : 0;
+
+        boolean side1 = occluder.occludes(bx + ux, by + uy, bz);
+        boolean side2 = occluder.occludes(bx, by + wy, bz + wz);
+        if (side1 && side2) return 0;
+        boolean diagonal = occluder.occludes(bx + ux, by + uy + wy, bz + wz);
+        return NO_OCCLUSION - ((side1 ? 1 : 0) + (side2 ? 1 : 0) + (diagonal ? 1 : 0));
     }
 
 
@@ -134,4 +254,12 @@ public class BlockMesh {
         }
         return blocks[x][y][z] == null;
     }
+
+    private static boolean isAirOrOutOfBounds(int x, int y, int z, int[][][] blocks) {
+        if (x < 0 || y < 0 || z < 0 ||
+                x >= blocks.length || y >= blocks[0].length || z >= blocks[0][0].length) {
+            return true;
+        }
+        return blocks[x][y][z] == 0;
+    }
 }
\ No newline at end of file
@@ -4,9 +4,15 @@ import hmph.math.Vector3f;
 import hmph.math.PerlinNoise;
 import hmph.rendering.shapes.BlockMesh;
 import hmph.rendering.BlockRegistry;
+import hmph.rendering.buffers.ChunkBufferPool;
+import hmph.rendering.buffers.StagingRingBuffer;
+import hmph.rendering.world.chunk.light.ChunkLight;
+import hmph.rendering.world.chunk.visibility.SectionVisibility;
 import hmph.rendering.world.dimensions.DimensionCreator;
 import hmph.util.debug.LoggerHelper;
 import org.lwjgl.BufferUtils;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
@@ -19,21 +25,44 @@ public class ChunkBase {
     public static final int SIZE_X = 16;
     public static final int SIZE_Y = 256;
     public static final int SIZE_Z = 16;
+    public static final int LIGHT_SIDE_NORTH = 1, LIGHT_SIDE_SOUTH = 2, LIGHT_SIDE_EAST = 4, LIGHT_SIDE_WEST = 8;
     private static final int MAX_FACES_PER_CHUNK = 65536;
+    private static final VarHandle SNAPSHOT;
 
-    private final int[][][] blocks = new int[SIZE_X][SIZE_Y][SIZE_Z];
+    static {
+        try {
+            SNAPSHOT = MethodHandles.lookup().findVarHandle(ChunkBase.class, "snapshot", ChunkSnapshot.class);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Current blocks, replaced whole on every edit so readers never see a half-applied change
+    private volatile ChunkSnapshot snapshot = ChunkSnapshot.empty();
     private int vao = 0, vbo = 0, ebo = 0, indexCount = 0;
+    // Non-null when vao/vbo/ebo were borrowed from a ChunkBufferPool
+    private ChunkBufferPool.MeshBuffers meshBuffers = null;
     private final Vector3f position;
     private final int chunkX, chunkZ;
     private final PerlinNoise perlin;
     public final BlockRegistry registry;
     private boolean meshBuilt = false;
+    // Size of the GL buffers this chunk holds, capacity when they came from the pool
+    private long gpuBytes = 0;
+    // Frame the chunk last passed culling, for least-recently-viewed eviction (main thread only)
+    private long lastViewedFrame = 0;
     private ChunkManager chunkManager;
 
-    // Prepared mesh data that can be generated on any thread
-    public List<Float> preparedVertices = null;
-    public List<Integer> preparedIndices = null;
-    public boolean meshDataPrepared = false;
+    // Mesh the chunk built of itself (self-generating constructors and rebuildMesh), meshers hand theirs over directly
+    private volatile ChunkMesh preparedMesh = null;
+
+    // Face connectivity per 16-block section, used by the cave culler
+    private volatile long[] sectionVisibility = null;
+
+    // Voxel light, filled by the light engine before the first mesh
+    private final ChunkLight light = new ChunkLight();
+    // Sides (bit per LIGHT_SIDE_*) whose border faces were meshed without the neighbour's light
+    private volatile int estimatedLightSides = 0;
 
     private static final int AIR = 0;
     private static final int STONE = 1;
@@ -66,15 +95,20 @@ public class ChunkBase {
         this.perlin = perlin;
         this.registry = registry;
 
-        long startTime = System.nanoTime();
-
         generateTerrainWithDimension(dimensionCreator, dimensionName);
-
-        long terrainTime = System.nanoTime();
         prepareMeshData();
-        long meshTime = System.nanoTime();
-
+    }
 
+    /**
+     * Chunk around already generated blocks, no mesh is prepared - the chunk manager's mesher builds it
+     */
+    public ChunkBase(int chunkX, int chunkZ, BlockRegistry registry, int[][][] generatedBlocks) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.position = new Vector3f(chunkX * SIZE_X, 0, chunkZ * SIZE_Z);
+        this.perlin = null;
+        this.registry = registry;
+        this.snapshot = ChunkSnapshot.of(generatedBlocks, registry);
     }
 
     public void setChunkManager(ChunkManager manager) {
@@ -91,6 +125,7 @@ public class ChunkBase {
         int seaLevel = 10;
         int blocksGenerated = 0;
         int grassCount = 0, dirtCount = 0, stoneCount = 0;
+        int[][][] blocks = new int[SIZE_X][SIZE_Y][SIZE_Z];
 
         for (int x = 0; x < SIZE_X; x++) {
             for (int z = 0; z < SIZE_Z; z++) {
@@ -117,6 +152,7 @@ public class ChunkBase {
             }
         }
 
+        snapshot = ChunkSnapshot.of(blocks, registry);
         LoggerHelper.betterPrint("Generated " + blocksGenerated + " blocks in chunk: " +
                 grassCount + " grass, " + dirtCount + " dirt, " +
                 stoneCount + " stone", LoggerHelper.LogType.RENDERING);
@@ -128,14 +164,7 @@ public class ChunkBase {
     private void generateTerrainWithDimension(DimensionCreator dimensionCreator, String dimensionName) {
         DimensionCreator.TerrainData terrainData = dimensionCreator.generateTerrain(
                 dimensionName, chunkX, chunkZ, perlin);
-
-        for (int x = 0; x < SIZE_X; x++) {
-            for (int y = 0; y < SIZE_Y; y++) {
-                for (int z = 0; z < SIZE_Z; z++) {
-                    blocks[x][y][z] = terrainData.blocks[x][y][z];
-                }
-            }
-        }
+        snapshot = ChunkSnapshot.of(terrainData.blocks, registry);
     }
 
     /**
@@ -147,6 +176,8 @@ public class ChunkBase {
         List<Integer> indices = new ArrayList<>();
         int facesAdded = 0;
 
+        ChunkSnapshot source = snapshot;
+        int[][][] blocks = source.toArray();
         String[][][] blockNames = convertIDsToNames(blocks);
 
         for (int x = 0; x < SIZE_X && facesAdded < MAX_FACES_PER_CHUNK; x++) {
@@ -169,9 +200,7 @@ public class ChunkBase {
                     MAX_FACES_PER_CHUNK + " faces", LoggerHelper.LogType.WARNING);
         }
 
-        this.preparedVertices = vertices;
-        this.preparedIndices = indices;
-        this.meshDataPrepared = true;
+        preparedMesh = new ChunkMesh(this, vertices, indices, SectionVisibility.computeChunk(source, registry), 0);
     }
 
     /**
@@ -179,26 +208,56 @@ public class ChunkBase {
      * This creates the actual GPU resources using the prepared CPU data
      */
     public void buildGLBuffers() {
-        if (!meshDataPrepared || preparedVertices == null || preparedIndices == null) {
+        buildGLBuffers(null);
+    }
+
+    /**
+     * Build OpenGL buffers, recycling buffer objects through the pool when one is given - MUST be called on main thread
+     */
+    public void buildGLBuffers(ChunkBufferPool pool) {
+        ChunkMesh mesh = preparedMesh;
+        if (mesh == null) {
             return;
         }
+        preparedMesh = null;
+        upload(mesh, pool);
+    }
 
-        if (vao != 0 || vbo != 0 || ebo != 0) {
-            cleanup();
+    /**
+     * Swap in a mesh built for this chunk, recycling buffer objects through the pool when one is given - MUST be called on main thread
+     * The mesh is consumed either way, its staging space goes back to the ring.
+     */
+    public void upload(ChunkMesh mesh, ChunkBufferPool pool) {
+        sectionVisibility = mesh.getSectionVisibility();
+        estimatedLightSides = mesh.getEstimatedLightSides();
+
+        int newIndexCount = mesh.getIndexCount();
+        if (pool == null || newIndexCount == 0) {
+            if (vao != 0 || vbo != 0 || ebo != 0) {
+                cleanup();
+            }
         }
 
-        indexCount = preparedIndices.size();
+        indexCount = newIndexCount;
         if (indexCount == 0) {
+            mesh.discard();
             return;
         }
 
         try {
-            createGLBuffers(preparedVertices, preparedIndices);
+            int vertexBytes = mesh.getVertexBytes();
+            if (pool != null) {
+                fillPooledBuffers(pool, mesh);
+                gpuBytes = (long) meshBuffers.getVertexCapacity() + meshBuffers.getIndexCapacity();
+            } else if (mesh.getStaged() != null) {
+                createGLBuffersFromStaging(mesh);
+                gpuBytes = (long) vertexBytes + (long) indexCount * Integer.BYTES;
+            } else {
+                createGLBuffers(mesh.getVertices(), mesh.getIndices());
+                gpuBytes = (long) vertexBytes + (long) indexCount * Integer.BYTES;
+            }
             meshBuilt = true;
 
-            preparedVertices = null;
-            preparedIndices = null;
-
             int error = glGetError();
             if (error != GL_NO_ERROR) {
                 System.err.println("OpenGL error during mesh creation: " + error);
@@ -207,6 +266,119 @@ public class ChunkBase {
             System.err.println("Error creating GL buffers: " + e.getMessage());
             e.printStackTrace();
             cleanup();
+        } finally {
+            // Copies may have been issued even on failure, so the region waits for its fence
+            mesh.release();
+        }
+    }
+
+    /**
+     * Write the mesh into pooled buffers, the current set is kept when it still fits
+     */
+    private void fillPooledBuffers(ChunkBufferPool pool, ChunkMesh mesh) {
+        StagingRingBuffer.Allocation staged = mesh.getStaged();
+        int vertexBytes = mesh.getVertexBytes();
+        int indexBytes = indexCount * Integer.BYTES;
+
+        if (meshBuffers != null && !pool.reuse(meshBuffers, vertexBytes, indexBytes)) {
+            cleanup();
+        }
+        if (meshBuffers == null) {
+            if (vao != 0 || vbo != 0 || ebo != 0) {
+                cleanup();
+            }
+            meshBuffers = pool.acquire(vertexBytes, indexBytes);
+        }
+        vao = meshBuffers.vao;
+        vbo = meshBuffers.vbo;
+        ebo = meshBuffers.ebo;
+
+        // Keep the VAO bound so element buffer binds land on this chunk's EBO
+        glBindVertexArray(vao);
+        if (staged != null) {
+            StagingRingBuffer ring = staged.getOwner();
+            ring.copyTo(staged, 0, vbo, GL_ARRAY_BUFFER, 0, vertexBytes);
+            ring.copyTo(staged, vertexBytes, ebo, GL_ELEMENT_ARRAY_BUFFER, 0, indexBytes);
+        } else {
+            List<Float> vertices = mesh.getVertices();
+            List<Integer> indices = mesh.getIndices();
+            FloatBuffer vertexBuffer = BufferUtils.createFloatBuffer(vertices.size());
+            for (float f : vertices) {
+                vertexBuffer.put(f);
+            }
+            vertexBuffer.flip();
+            glBindBuffer(GL_ARRAY_BUFFER, vbo);
+            glBufferSubData(GL_ARRAY_BUFFER, 0, vertexBuffer);
+
+            IntBuffer indexBuffer = BufferUtils.createIntBuffer(indices.size());
+            for (int i : indices) {
+                indexBuffer.put(i);
+            }
+            indexBuffer.flip();
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+            glBufferSubData(GL_ELEMENT_ARRAY_BUFFER, 0, indexBuffer);
+        }
+
+        if (!meshBuffers.attributesConfigured) {
+            glBindBuffer(GL_ARRAY_BUFFER, vbo);
+            glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+            setupVertexAttributes();
+            meshBuffers.attributesConfigured = true;
+        }
+
+        glBindVertexArray(0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Create OpenGL buffers and fill them with GPU-side copies out of the staging ring - MUST be called on main thread
+     */
+    private void createGLBuffersFromStaging(ChunkMesh mesh) {
+        StagingRingBuffer.Allocation staged = mesh.getStaged();
+        StagingRingBuffer ring = staged.getOwner();
+        int stagedVertexBytes = mesh.getVertexBytes();
+        int indexBytes = indexCount * Integer.BYTES;
+
+        vao = glGenVertexArrays();
+        if (vao == 0) {
+            throw new RuntimeException("Failed to generate VAO");
+        }
+        glBindVertexArray(vao);
+
+        vbo = glGenBuffers();
+        if (vbo == 0) {
+            throw new RuntimeException("Failed to generate VBO");
+        }
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        glBufferData(GL_ARRAY_BUFFER, stagedVertexBytes, GL_STATIC_DRAW);
+        ring.copyTo(staged, 0, vbo, GL_ARRAY_BUFFER, 0, stagedVertexBytes);
+
+        ebo = glGenBuffers();
+        if (ebo == 0) {
+            throw new RuntimeException("Failed to generate EBO");
+        }
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexBytes, GL_STATIC_DRAW);
+        ring.copyTo(staged, stagedVertexBytes, ebo, GL_ELEMENT_ARRAY_BUFFER, 0, indexBytes);
+
+        // copyTo may have touched the bindings, the VAO needs both buffers bound again
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
+        setupVertexAttributes();
+
+        glBindVertexArray(0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Throw away mesh data that was prepared but will never be uploaded
+     */
+    public void discardPendingUpload() {
+        ChunkMesh mesh = preparedMesh;
+        if (mesh != null) {
+            preparedMesh = null;
+            mesh.discard();
         }
     }
 
@@ -246,25 +418,38 @@ public class ChunkBase {
         glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, ebo);
         glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL_STATIC_DRAW);
 
+        setupVertexAttributes();
+
+        glBindVertexArray(0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Vertex layout shared by every chunk VAO: position, uv, normal, texture id, light and AO
+     */
+    private void setupVertexAttributes() {
+        int stride = BlockMesh.FLOATS_PER_VERTEX * Float.BYTES;
+
         // Position attribute
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, 9 * Float.BYTES, 0);
+        glVertexAttribPointer(0, 3, GL_FLOAT, false, stride, 0);
         glEnableVertexAttribArray(0);
 
         // UV attribute
-        glVertexAttribPointer(1, 2, GL_FLOAT, false, 9 * Float.BYTES, 3 * Float.BYTES);
+        glVertexAttribPointer(1, 2, GL_FLOAT, false, stride, 3 * Float.BYTES);
         glEnableVertexAttribArray(1);
 
         // Normal attribute
-        glVertexAttribPointer(2, 3, GL_FLOAT, false, 9 * Float.BYTES, 5 * Float.BYTES);
+        glVertexAttribPointer(2, 3, GL_FLOAT, false, stride, 5 * Float.BYTES);
         glEnableVertexAttribArray(2);
 
         // Texture ID attribute
-        glVertexAttribPointer(3, 1, GL_FLOAT, false, 9 * Float.BYTES, 8 * Float.BYTES);
+        glVertexAttribPointer(3, 1, GL_FLOAT, false, stride, 8 * Float.BYTES);
         glEnableVertexAttribArray(3);
 
-        glBindVertexArray(0);
-        glBindBuffer(GL_ARRAY_BUFFER, 0);
-        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+        // Sky light, block light and ambient occlusion, 0-1
+        glVertexAttribPointer(4, 3, GL_FLOAT, false, stride, 9 * Float.BYTES);
+        glEnableVertexAttribArray(4);
     }
 
     /**
@@ -296,7 +481,7 @@ public class ChunkBase {
 
         if (localX >= 0 && localX < SIZE_X && localZ >= 0 && localZ < SIZE_Z &&
                 worldY >= 0 && worldY < SIZE_Y) {
-            return blocks[localX][worldY][localZ];
+            return snapshot.get(localX, worldY, localZ);
         }
 
         if (chunkManager != null) {
@@ -337,6 +522,12 @@ public class ChunkBase {
      * Clean up OpenGL resources
      */
     public void cleanup() {
+        if (meshBuffers != null) {
+            // Pooled buffers go back for the next mesh instead of being deleted
+            meshBuffers.getPool().release(meshBuffers);
+            meshBuffers = null;
+            vao = vbo = ebo = 0;
+        }
         if (ebo != 0) {
             glDeleteBuffers(ebo);
             ebo = 0;
@@ -349,6 +540,7 @@ public class ChunkBase {
             glDeleteVertexArrays(vao);
             vao = 0;
         }
+        gpuBytes = 0;
         meshBuilt = false;
     }
 
@@ -365,26 +557,97 @@ public class ChunkBase {
     public int getVao() { return vao; }
     public int getIndexCount() { return indexCount; }
     public boolean isMeshBuilt() { return meshBuilt; }
-    public boolean isMeshDataPrepared() { return meshDataPrepared; }
+    public boolean isMeshDataPrepared() { return preparedMesh != null; }
     public int getChunkX() { return chunkX; }
     public int getChunkZ() { return chunkZ; }
+    public long getGpuBytes() { return gpuBytes; }
+    public long getLastViewedFrame() { return lastViewedFrame; }
+
+    public void markViewed(long frame) {
+        lastViewedFrame = frame;
+    }
+
+    /**
+     * Heap held by the block snapshot and the light sections
+     */
+    public long getBlockBytes() {
+        return (long) ChunkSnapshot.VOLUME * Integer.BYTES + light.getAllocatedBytes();
+    }
+
+    public ChunkLight getLight() {
+        return light;
+    }
+
+    /**
+     * Loaded chunk next to this one, null when there is none or no chunk manager - safe from any thread
+     */
+    public ChunkBase getNeighbor(int dx, int dz) {
+        ChunkManager manager = chunkManager;
+        return manager != null ? manager.getLoadedChunks().get(chunkX + dx, chunkZ + dz) : null;
+    }
+
+    /**
+     * Sides the current mesh guessed the light on, the chunk manager remeshes once the missing neighbours arrive
+     */
+    public int getEstimatedLightSides() {
+        return estimatedLightSides;
+    }
+
+    /**
+     * Rough heap held by the chunk's own prepared mesh, meshes in flight are counted by their jobs
+     */
+    public long getPendingMeshBytes() {
+        ChunkMesh mesh = preparedMesh;
+        return mesh != null ? mesh.getHeapBytes() : 0;
+    }
+
+    /**
+     * Face connectivity of one section, everything counts as connected until the mesh is prepared
+     */
+    public long getSectionVisibility(int sectionY) {
+        long[] visibility = sectionVisibility;
+        return visibility != null ? visibility[sectionY] : SectionVisibility.ALL;
+    }
 
     /**
-     * Set block at local chunk coordinates
+     * Set block at local chunk coordinates - safe from any thread
+     * Copies the blocks and publishes the copy in one store, concurrent edits retry instead of being lost.
      */
     public void setBlock(int x, int y, int z, int id) {
-        if (x >= 0 && x < SIZE_X && y >= 0 && y < SIZE_Y && z >= 0 && z < SIZE_Z) {
-            blocks[x][y][z] = id;
+        if (!ChunkSnapshot.inBounds(x, y, z)) return;
+
+        while (true) {
+            ChunkSnapshot current = snapshot;
+            if (current.get(x, y, z) == id) return;
+            if (SNAPSHOT.compareAndSet(this, current, current.withBlock(x, y, z, id, registry))) return;
         }
     }
 
+    /**
+     * Current blocks - hold on to the result to read several blocks from the same version
+     */
+    public ChunkSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * True once the chunk has been edited, it then has to be saved before it is dropped
+     */
+    public boolean isModified() {
+        return snapshot.getVersion() > 0;
+    }
+
+    /**
+     * One above the top opaque block of a local column, 0 when it has none
+     */
+    public int getHeight(int x, int z) {
+        return snapshot.getHeight(x, z);
+    }
+
     /**
      * Get block at local chunk coordinates
      */
     public int getBlock(int x, int y, int z) {
-        if (x >= 0 && x < SIZE_X && y >= 0 && y < SIZE_Y && z >= 0 && z < SIZE_Z) {
-            return blocks[x][y][z];
-        }
-        return AIR;
+        return snapshot.get(x, y, z);
     }
 }
\ No newline at end of file
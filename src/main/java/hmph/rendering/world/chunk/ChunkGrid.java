@@ -0,0 +1,209 @@
+package hmph.rendering.world.chunk;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Square window of chunk columns stored in a toroidal array, a column lives at
+ * (floorMod(chunkX, width), floorMod(chunkZ, width)) so lookups are plain array indexing.
+ * Each slot is checked against the value's own coordinates, so a column that wrapped
+ * around from the other side of the window is never mistaken for the one asked for.
+ * Written from one thread, read from any.
+ */
+public class ChunkGrid<V> {
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    @FunctionalInterface
+    public interface EvictionListener<V> {
+        void evicted(V value);
+    }
+
+    @FunctionalInterface
+    public interface ColumnVisitor {
+        void visit(int chunkX, int chunkZ);
+    }
+
+    private final int radius;
+    private final int width;
+    private final Object[] cells;
+    private final ToLongFunction<V> keyOf;
+
+    private volatile int centerX = 0, centerZ = 0;
+    private volatile int size = 0;
+
+    /**
+     * keyOf must return the packed chunk key of a value, the same packing as ChunkManager uses
+     */
+    public ChunkGrid(int radius, ToLongFunction<V> keyOf) {
+        this.radius = radius;
+        this.width = radius * 2 + 1;
+        this.cells = new Object[width * width];
+        this.keyOf = keyOf;
+    }
+
+    public static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xffffffffL);
+    }
+
+    private int index(int chunkX, int chunkZ) {
+        return Math.floorMod(chunkX, width) + Math.floorMod(chunkZ, width) * width;
+    }
+
+    /**
+     * True when the column falls inside the current window
+     */
+    public boolean inWindow(int chunkX, int chunkZ) {
+        return Math.abs(chunkX - centerX) <= radius && Math.abs(chunkZ - centerZ) <= radius;
+    }
+
+    /**
+     * Lookup - safe from any thread
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int chunkX, int chunkZ) {
+        V value = (V) CELLS.getAcquire(cells, index(chunkX, chunkZ));
+        return value != null && keyOf.applyAsLong(value) == key(chunkX, chunkZ) ? value : null;
+    }
+
+    public V get(long chunkKey) {
+        return get((int) (chunkKey >> 32), (int) chunkKey);
+    }
+
+    /**
+     * Store a column, returns the value it replaced - writer thread only
+     * Columns outside the window are refused and handed back unchanged.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(V value) {
+        long chunkKey = keyOf.applyAsLong(value);
+        int chunkX = (int) (chunkKey >> 32);
+        int chunkZ = (int) chunkKey;
+        if (!inWindow(chunkX, chunkZ)) return value;
+
+        int i = index(chunkX, chunkZ);
+        V previous = (V) cells[i];
+        CELLS.setRelease(cells, i, value);
+        if (previous == null) size++;
+        return previous;
+    }
+
+    /**
+     * Remove a column, returns what was stored there - writer thread only
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int chunkX, int chunkZ) {
+        int i = index(chunkX, chunkZ);
+        V previous = (V) cells[i];
+        if (previous == null || keyOf.applyAsLong(previous) != key(chunkX, chunkZ)) return null;
+        CELLS.setRelease(cells, i, null);
+        size--;
+        return previous;
+    }
+
+    public V remove(long chunkKey) {
+        return remove((int) (chunkKey >> 32), (int) chunkKey);
+    }
+
+    /**
+     * Move the window, only the rows and columns that leave are visited - writer thread only
+     * Evicted values are handed to the listener after their slot is cleared.
+     */
+    public void recenter(int newCenterX, int newCenterZ, EvictionListener<V> listener) {
+        int oldX = centerX, oldZ = centerZ;
+        int dx = newCenterX - oldX;
+        int dz = newCenterZ - oldZ;
+        if (dx == 0 && dz == 0) return;
+
+        centerX = newCenterX;
+        centerZ = newCenterZ;
+
+        if (Math.abs(dx) >= width || Math.abs(dz) >= width) {
+            for (int i = 0; i < cells.length; i++) {
+                evict(i, listener);
+            }
+            return;
+        }
+
+        forEachLeaving(oldX, oldZ, newCenterX, newCenterZ, radius,
+                (chunkX, chunkZ) -> evict(index(chunkX, chunkZ), listener));
+    }
+
+    /**
+     * Visit each column of the square around (fromX, fromZ) that isn't in the one around (toX, toZ).
+     * Swap the centers to get the columns entering instead of leaving. Cost is the strip, not the square.
+     */
+    public static void forEachLeaving(int fromX, int fromZ, int toX, int toZ, int radius, ColumnVisitor visitor) {
+        int toMinX = toX - radius, toMaxX = toX + radius;
+        int toMinZ = toZ - radius, toMaxZ = toZ + radius;
+        int fromMinZ = fromZ - radius, fromMaxZ = fromZ + radius;
+
+        for (int chunkX = fromX - radius; chunkX <= fromX + radius; chunkX++) {
+            if (chunkX < toMinX || chunkX > toMaxX) {
+                // Whole column left
+                for (int chunkZ = fromMinZ; chunkZ <= fromMaxZ; chunkZ++) {
+                    visitor.visit(chunkX, chunkZ);
+                }
+                continue;
+            }
+            // Column still in range, only the ends that fell off
+            for (int chunkZ = fromMinZ; chunkZ < Math.min(toMinZ, fromMaxZ + 1); chunkZ++) {
+                visitor.visit(chunkX, chunkZ);
+            }
+            for (int chunkZ = Math.max(toMaxZ + 1, fromMinZ); chunkZ <= fromMaxZ; chunkZ++) {
+                visitor.visit(chunkX, chunkZ);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void evict(int i, EvictionListener<V> listener) {
+        V value = (V) cells[i];
+        if (value == null) return;
+        long chunkKey = keyOf.applyAsLong(value);
+        if (inWindow((int) (chunkKey >> 32), (int) chunkKey)) return;
+
+        CELLS.setRelease(cells, i, null);
+        size--;
+        if (listener != null) listener.evicted(value);
+    }
+
+    /**
+     * Visit every stored column - safe from any thread, weakly consistent
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<V> action) {
+        for (int i = 0; i < cells.length; i++) {
+            V value = (V) CELLS.getAcquire(cells, i);
+            if (value != null) action.accept(value);
+        }
+    }
+
+    /**
+     * Snapshot of the stored columns
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Empty every slot - writer thread only
+     */
+    public void clear() {
+        for (int i = 0; i < cells.length; i++) {
+            CELLS.setRelease(cells, i, null);
+        }
+        size = 0;
+    }
+
+    public int size() { return size; }
+    public int getRadius() { return radius; }
+    public int getWidth() { return width; }
+    public int getCenterX() { return centerX; }
+    public int getCenterZ() { return centerZ; }
+}
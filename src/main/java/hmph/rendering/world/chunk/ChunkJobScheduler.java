@@ -0,0 +1,187 @@
+package hmph.rendering.world.chunk;
+
+import hmph.util.debug.LoggerHelper;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs chunk work on two lanes. CPU-bound steps (generation, meshing) go to a bounded pool of
+ * platform threads, one per core minus the main thread. Blocking steps (region reads,
+ * decompression waits, save flushes) go to virtual threads so a slow disk never ties up a mesher.
+ * Work for a column is grouped under a Job: cancelling it stops stages that haven't started,
+ * interrupts blocked I/O stages and fails the job's futures with CancellationException.
+ * CPU stages are never interrupted since pool threads are reused, they finish and get dropped.
+ */
+public class ChunkJobScheduler {
+
+    /**
+     * Every stage started for one column, cancelled together when the column leaves range
+     */
+    public static final class Job {
+        public final long chunkKey;
+        private volatile boolean cancelled = false;
+        private final Set<Thread> running = ConcurrentHashMap.newKeySet();
+        private final Set<CompletableFuture<?>> stages = ConcurrentHashMap.newKeySet();
+
+        private Job(long chunkKey) {
+            this.chunkKey = chunkKey;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Throw out of a stage early, for long loops that want to notice cancellation
+         */
+        public void checkCancelled() {
+            if (cancelled) throw new CancellationException("Chunk job cancelled");
+        }
+
+        private void cancel() {
+            cancelled = true;
+            for (Thread thread : running) {
+                thread.interrupt();
+            }
+            for (CompletableFuture<?> stage : stages) {
+                stage.cancel(false);
+            }
+        }
+    }
+
+    private final ExecutorService cpuPool;
+    private final ExecutorService ioExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final int cpuThreads;
+
+    public ChunkJobScheduler() {
+        this(Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public ChunkJobScheduler(int cpuThreads) {
+        this.cpuThreads = cpuThreads;
+        this.cpuPool = Executors.newFixedThreadPool(cpuThreads, r -> {
+            Thread thread = new Thread(r, "ChunkWorker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LoggerHelper.betterPrint("Chunk scheduler: " + cpuThreads + " CPU worker(s), virtual threads for I/O",
+                LoggerHelper.LogType.RENDERING);
+    }
+
+    /**
+     * Start a job for a column, cancelling whatever was still running for it
+     */
+    public Job begin(long chunkKey) {
+        Job job = new Job(chunkKey);
+        Job previous = jobs.put(chunkKey, job);
+        if (previous != null) previous.cancel();
+        return job;
+    }
+
+    /**
+     * Mark a job done, a newer job for the same column is left alone
+     */
+    public void finish(Job job) {
+        jobs.remove(job.chunkKey, job);
+    }
+
+    /**
+     * Cancel the job for a column if there is one
+     */
+    public void cancel(long chunkKey) {
+        Job job = jobs.remove(chunkKey);
+        if (job != null) job.cancel();
+    }
+
+    public void cancelAll() {
+        for (Long chunkKey : jobs.keySet()) {
+            cancel(chunkKey);
+        }
+    }
+
+    public boolean isActive(long chunkKey) {
+        return jobs.containsKey(chunkKey);
+    }
+
+    public int getActiveJobs() {
+        return jobs.size();
+    }
+
+    /**
+     * Run a CPU-bound stage of a job on the platform pool
+     */
+    public <T> CompletableFuture<T> cpu(Job job, Supplier<T> stage) {
+        return run(job, cpuPool, stage::get, false);
+    }
+
+    /**
+     * Run a blocking stage of a job on its own virtual thread
+     */
+    public <T> CompletableFuture<T> io(Job job, Callable<T> stage) {
+        return run(job, ioExecutor, stage, true);
+    }
+
+    /**
+     * Blocking work that must not be cancelled with the column, e.g. flushing a save
+     */
+    public CompletableFuture<Void> io(Runnable task) {
+        return CompletableFuture.runAsync(task, ioExecutor);
+    }
+
+    private <T> CompletableFuture<T> run(Job job, ExecutorService executor, Callable<T> stage, boolean interruptible) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (job.cancelled) {
+            result.cancel(false);
+            return result;
+        }
+        job.stages.add(result);
+        result.whenComplete((value, error) -> job.stages.remove(result));
+
+        try {
+            executor.execute(() -> {
+                if (job.cancelled || result.isDone()) {
+                    result.cancel(false);
+                    return;
+                }
+                // Virtual threads are never reused, so only they are safe to interrupt
+                Thread thread = Thread.currentThread();
+                if (interruptible) job.running.add(thread);
+                try {
+                    result.complete(stage.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(job.cancelled ? new CancellationException("Chunk job cancelled") : t);
+                } finally {
+                    if (interruptible) job.running.remove(thread);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public String getStats() {
+        return String.format("Jobs: %d active on %d CPU worker(s)", jobs.size(), cpuThreads);
+    }
+
+    /**
+     * Cancel everything in flight and stop both lanes, pending I/O (saves) gets a grace period
+     */
+    public void shutdown() {
+        cancelAll();
+        cpuPool.shutdownNow();
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                ioExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            ioExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package hmph.rendering.world.chunk;
+
+import hmph.math.Vector3f;
+
+/**
+ * Per-column bookkeeping kept by the chunk manager for every chunk in range
+ */
+public class ChunkLOD {
+    public final Vector3f position;
+    public final int chunkX, chunkZ;
+    // Level of the mesh on screen, only changes when an upload lands
+    public LODLevel currentLOD = LODLevel.UNLOADED;
+    // Level the policy last asked for
+    public LODLevel targetLOD = LODLevel.UNLOADED;
+    public boolean swapQueued = false;
+    // Evicted or held back by the memory budget, loaded again once it is in view or memory frees up
+    public boolean evicted = false;
+    public float lastDistance;
+    public long lastUpdateTime;
+
+    public ChunkLOD(int chunkX, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.position = new Vector3f(chunkX * ChunkBase.SIZE_X, 0, chunkZ * ChunkBase.SIZE_Z);
+        this.lastUpdateTime = System.currentTimeMillis();
+    }
+}
@@ -1,26 +1,132 @@
 package hmph.rendering.world.chunk;
 
+import hmph.math.PerlinNoise;
 import hmph.math.Vector3f;
 import hmph.rendering.BlockRegistry;
-
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import hmph.math.PerlinNoise;
+import hmph.rendering.buffers.ChunkBufferPool;
+import hmph.rendering.buffers.StagingRingBuffer;
+import hmph.rendering.camera.Camera;
+import hmph.rendering.world.chunk.strategy.ChunkCuller;
+import hmph.rendering.world.chunk.strategy.ChunkGenerator;
+import hmph.rendering.world.chunk.strategy.ChunkMesher;
+import hmph.rendering.world.chunk.strategy.ChunkStore;
+import hmph.rendering.world.chunk.strategy.DimensionChunkGenerator;
+import hmph.rendering.world.chunk.strategy.DistanceLODPolicy;
+import hmph.rendering.world.chunk.strategy.DownsamplingChunkMesher;
+import hmph.rendering.world.chunk.strategy.LODPolicy;
+import hmph.rendering.world.chunk.light.LightEngine;
+import hmph.rendering.world.chunk.visibility.CaveCuller;
+import hmph.rendering.world.chunk.visibility.ChunkFrustumCuller;
+import hmph.rendering.world.chunk.visibility.SectionVisibility;
 import hmph.rendering.world.dimensions.DimensionCreator;
+import hmph.util.MainThreadExecutor;
+import hmph.util.debug.LoggerHelper;
 
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The chunk engine. Keeps every column in render distance at the detail level picked by the
+ * LOD policy, generates and meshes on worker threads and hands GL work to the main thread executor.
+ * Generation, meshing, LOD selection and culling are strategies that can be swapped at runtime.
+ */
 public class ChunkManager {
-    private Map<Long, ChunkBase> loadedChunks = new ConcurrentHashMap<>();
-    private BlockRegistry registry;
-    private int renderDistance;
-    private Vector3f lastPlayerChunkPos = new Vector3f();
-    private PerlinNoise sharedBruh = new PerlinNoise();
-    private DimensionCreator dimensionCreator;
+    private static final float LOD_DISTANCE_HIGH = 64f;
+    private static final float LOD_DISTANCE_MED = 128f;
+    private static final float LOD_DISTANCE_LOW = 192f;
+    private static final int STAGING_RING_BYTES = 64 << 20;
+    private static final long DEFAULT_UPLOAD_BUDGET_BYTES = 4L << 20;
+    private static final float DEFAULT_MAIN_THREAD_BUDGET_MS = 4.0f;
+    private static final long BUFFER_POOL_BYTES = 64L << 20;
+    private static final int UNLOAD_MARGIN = 2;
+    private static final float LOD_REEVALUATE_DISTANCE = 8f;
+    private static final long LOD_REEVALUATE_INTERVAL_MS = 250;
+    private static final float LOD_HYSTERESIS = 8f;
+    private static final int DEFAULT_MAX_LOD_SWAPS_PER_FRAME = 4;
+    private static final long DEFAULT_MEMORY_BUDGET_BYTES = 512L << 20;
+
+    // Both are only written on the main thread, workers read loadedChunks for neighbour lookups
+    private final LongChunkMap<ChunkLOD> chunkLODs = new LongChunkMap<>();
+    private final ChunkGrid<ChunkBase> loadedChunks;
+
+    // Loaded chunks waiting to change level, drained under the per-frame swap budget (main thread only)
+    private final ArrayDeque<ChunkLOD> lodSwapQueue = new ArrayDeque<>();
+    private int maxLODSwapsPerFrame = DEFAULT_MAX_LOD_SWAPS_PER_FRAME;
+    private final BlockRegistry registry;
+    private final int renderDistance;
+    // Player chunk the LOD entries were last built around, invalid until the first update
+    private boolean windowValid = false;
+    private int windowX = 0, windowZ = 0;
+
+    // Full LOD passes only run when the player moved far enough or something asked for one
+    private final Vector3f lastLODPosition = new Vector3f();
+    private long lastLODPassTime = 0;
+    private volatile boolean lodDirty = false;
+    private int visibleLastFrame = 0;
+    private long frame = 0;
+
+    // Re-measured on the LOD interval, least recently viewed chunks go first when over budget
+    private final ChunkMemoryBudget memoryBudget = new ChunkMemoryBudget(DEFAULT_MEMORY_BUDGET_BYTES);
+    private long lastMemoryCheckTime = 0;
+    private final PerlinNoise sharedBruh = new PerlinNoise();
+    private final DimensionCreator dimensionCreator;
     private String currentDimension = "overworld";
 
+    // Bumped on dimension switch so results from the old dimension are dropped
+    private volatile int dimensionEpoch = 0;
+
+    // CPU lane for generation and meshing, virtual threads for store I/O, one cancellable job per column
+    private final ChunkJobScheduler scheduler = new ChunkJobScheduler();
+
+    // Strategies, read by workers so they are volatile
+    private volatile ChunkGenerator generator;
+    private volatile ChunkMesher mesher;
+    private volatile LODPolicy lodPolicy;
+    private volatile ChunkStore store = null;
+    private final CopyOnWriteArrayList<ChunkCuller> cullers = new CopyOnWriteArrayList<>();
+
+    // Seams between chunks and block edits, main thread only - new chunks are lit on their worker
+    private final LightEngine lightEngine;
+    // Main thread only, other threads make their own over getLoadedChunks()
+    private final ChunkRaycaster raycaster;
+
+    private final ChunkFrustumCuller frustumCuller;
+    private final CaveCuller caveCuller;
+
+    // Created lazily on the main thread, workers write mesh data into it once it exists
+    private volatile StagingRingBuffer stagingRing = null;
+    // Heap held by finished meshes queued for upload, for the memory budget
+    private final AtomicLong pendingMeshBytes = new AtomicLong();
+
+    // Released chunk VAO/VBO/EBO sets waiting to be refilled
+    private final ChunkBufferPool bufferPool = new ChunkBufferPool(BUFFER_POOL_BYTES);
+
+    // GL uploads, deletes and anything else that must run on the main thread
+    private final MainThreadExecutor mainThreadExecutor =
+            new MainThreadExecutor(DEFAULT_MAIN_THREAD_BUDGET_MS, DEFAULT_UPLOAD_BUDGET_BYTES);
+
     public ChunkManager(BlockRegistry registry, int renderDistance) {
         this.registry = registry;
         this.renderDistance = renderDistance;
         this.dimensionCreator = new DimensionCreator(registry);
+        // Same margin as the LOD entries so a column is never dropped from one but not the other
+        this.loadedChunks = new ChunkGrid<>(renderDistance + UNLOAD_MARGIN, chunk -> ChunkGrid.key(chunk.getChunkX(), chunk.getChunkZ()));
+
+        this.generator = new DimensionChunkGenerator(dimensionCreator, sharedBruh, currentDimension);
+        this.mesher = new DownsamplingChunkMesher(registry);
+        this.lodPolicy = new DistanceLODPolicy(LOD_DISTANCE_HIGH, LOD_DISTANCE_MED, LOD_DISTANCE_LOW, LOD_HYSTERESIS);
+        this.lightEngine = new LightEngine(registry, loadedChunks::get);
+        this.raycaster = new ChunkRaycaster(loadedChunks);
+
+        this.frustumCuller = new ChunkFrustumCuller(renderDistance);
+        this.caveCuller = new CaveCuller(renderDistance, this::getSectionConnectivity);
+        cullers.add(frustumCuller);
+        cullers.add(caveCuller);
+
+        LoggerHelper.betterPrint("Initialized Chunk Manager, render distance " + renderDistance,
+                LoggerHelper.LogType.RENDERING);
     }
 
     /**
@@ -30,127 +136,744 @@ public class ChunkManager {
         return ((long) chunkX << 32) | (chunkZ & 0xffffffffL);
     }
 
-
     private int getChunkCoord(float worldCoord) {
-        return Math.floorDiv((int)worldCoord, ChunkBase.SIZE_X);
+        return Math.floorDiv((int) worldCoord, ChunkBase.SIZE_X);
+    }
+
+    private int getChunkCoord(int worldCoord) {
+        return Math.floorDiv(worldCoord, ChunkBase.SIZE_X);
     }
 
     public void updateChunks(Vector3f playerPosition) {
+        updateChunksWithCamera(playerPosition, null);
+    }
+
+    /**
+     * Main update, run once per frame - MUST be called on main thread
+     */
+    public void updateChunksWithCamera(Vector3f playerPosition, Camera camera) {
+        frame++;
         int playerChunkX = getChunkCoord(playerPosition.x);
         int playerChunkZ = getChunkCoord(playerPosition.z);
 
-        if (playerChunkX != (int)lastPlayerChunkPos.x || playerChunkZ != (int)lastPlayerChunkPos.z) {
-            lastPlayerChunkPos.set(playerChunkX, 0, playerChunkZ);
+        for (ChunkCuller culler : cullers) {
+            culler.update(camera, playerChunkX, playerChunkZ);
+        }
+
+        long now = System.currentTimeMillis();
+        if (!windowValid || playerChunkX != windowX || playerChunkZ != windowZ) {
+            moveWindow(playerPosition, playerChunkX, playerChunkZ, now);
+        }
 
-            for (int x = playerChunkX - renderDistance; x <= playerChunkX + renderDistance; x++) {
-                for (int z = playerChunkZ - renderDistance; z <= playerChunkZ + renderDistance; z++) {
-                    long key = getChunkKey(x, z);
-                    if (!loadedChunks.containsKey(key)) {
-                        ChunkBase chunk = new ChunkBase(x, z, registry, sharedBruh, dimensionCreator, currentDimension);
-                        chunk.setChunkManager(this);
-                        loadedChunks.put(key, chunk);
-                    }
-                }
+        if (now - lastLODPassTime >= LOD_REEVALUATE_INTERVAL_MS &&
+                (lodDirty || playerPosition.distance(lastLODPosition) >= LOD_REEVALUATE_DISTANCE)) {
+            reevaluateLODs(playerPosition, now);
+        }
+
+        processLODSwaps();
+        processGLBufferQueue();
+
+        if (now - lastMemoryCheckTime >= LOD_REEVALUATE_INTERVAL_MS) {
+            enforceMemoryBudget(now);
+        }
+    }
+
+    /**
+     * Re-measure chunk memory and evict least recently viewed chunks while over budget (main thread only)
+     * Chunks drawn this frame or the last are never evicted, even if that leaves the budget exceeded.
+     */
+    private void enforceMemoryBudget(long now) {
+        lastMemoryCheckTime = now;
+        memoryBudget.measure(loadedChunks, chunkLODs, scheduler.getActiveJobs(), pendingMeshBytes.get(), bufferPool);
+
+        if (memoryBudget.isOverBudget()) {
+            List<ChunkBase> candidates = loadedChunks.values();
+            candidates.sort(Comparator.comparingLong(ChunkBase::getLastViewedFrame));
+            for (ChunkBase chunk : candidates) {
+                if (!memoryBudget.isOverBudget() || chunk.getLastViewedFrame() >= frame - 1) break;
+                evictChunk(chunk);
             }
+        }
 
-            loadedChunks.entrySet().removeIf(entry -> {
-                long key = entry.getKey();
-                int chunkX = (int)(key >> 32);
-                int chunkZ = (int)(key & 0xFFFFFFFFL);
+        // Held back columns are retried by the next LOD pass, they load once in view or once there's room
+        if (memoryBudget.getEvictedColumns() > 0) {
+            lodDirty = true;
+        }
+    }
 
-                if (Math.abs(chunkX - playerChunkX) > renderDistance ||
-                        Math.abs(chunkZ - playerChunkZ) > renderDistance) {
-                    entry.getValue().cleanup();
-                    return true;
-                }
-                return false;
-            });
+    private void evictChunk(ChunkBase chunk) {
+        long chunkKey = getChunkKey(chunk.getChunkX(), chunk.getChunkZ());
+        memoryBudget.evicted(chunk);
+        scheduler.cancel(chunkKey);
+        unloadChunk(chunkKey);
+
+        ChunkLOD lod = chunkLODs.get(chunkKey);
+        if (lod != null) {
+            lod.currentLOD = LODLevel.UNLOADED;
+            lod.evicted = true;
         }
     }
 
-    public Map<Long, ChunkBase> getLoadedChunks() {
-        return loadedChunks;
+    /**
+     * Follow the player into a new chunk, only the strips entering or leaving the square are touched
+     */
+    private void moveWindow(Vector3f playerPos, int playerChunkX, int playerChunkZ, long now) {
+        if (windowValid) {
+            ChunkGrid.forEachLeaving(windowX, windowZ, playerChunkX, playerChunkZ, renderDistance + UNLOAD_MARGIN,
+                    (chunkX, chunkZ) -> {
+                        long chunkKey = getChunkKey(chunkX, chunkZ);
+                        chunkLODs.remove(chunkKey);
+                        scheduler.cancel(chunkKey);
+                    });
+        }
+        loadedChunks.recenter(playerChunkX, playerChunkZ, this::scheduleCleanup);
+
+        ChunkGrid.ColumnVisitor enter = (chunkX, chunkZ) -> {
+            long chunkKey = getChunkKey(chunkX, chunkZ);
+            ChunkLOD lod = chunkLODs.computeIfAbsent(chunkKey, k -> new ChunkLOD(chunkX, chunkZ));
+            evaluateLOD(chunkKey, lod, playerPos, now);
+        };
+        if (windowValid) {
+            ChunkGrid.forEachLeaving(playerChunkX, playerChunkZ, windowX, windowZ, renderDistance, enter);
+        } else {
+            for (int chunkX = playerChunkX - renderDistance; chunkX <= playerChunkX + renderDistance; chunkX++) {
+                for (int chunkZ = playerChunkZ - renderDistance; chunkZ <= playerChunkZ + renderDistance; chunkZ++) {
+                    enter.visit(chunkX, chunkZ);
+                }
+            }
+        }
+
+        windowX = playerChunkX;
+        windowZ = playerChunkZ;
+        windowValid = true;
     }
 
     /**
-     * Get a chunk at world coordinates (for block lookup)
+     * Re-pick the level of every column in render distance
      */
-    public ChunkBase getChunkAt(int worldX, int worldZ) {
-        int chunkX = Math.floorDiv(worldX, ChunkBase.SIZE_X);
-        int chunkZ = Math.floorDiv(worldZ, ChunkBase.SIZE_Z);
-        long chunkKey = getChunkKey(chunkX, chunkZ);
-        return loadedChunks.get(chunkKey);
+    private void reevaluateLODs(Vector3f playerPos, long now) {
+        lodDirty = false;
+        lastLODPassTime = now;
+        lastLODPosition.set(playerPos);
+
+        chunkLODs.forEach((chunkKey, lod) -> {
+            if (Math.abs(lod.chunkX - windowX) <= renderDistance && Math.abs(lod.chunkZ - windowZ) <= renderDistance) {
+                evaluateLOD(chunkKey, lod, playerPos, now);
+            }
+        });
     }
 
-    public void cleanup() {
-        for (ChunkBase chunk : loadedChunks.values()) {
-            chunk.cleanup();
+    private void evaluateLOD(long chunkKey, ChunkLOD lod, Vector3f playerPos, long now) {
+        float distance = calculateChunkDistance(playerPos, lod.position);
+        LODLevel requiredLOD = lodPolicy.select(lod, distance);
+        lod.targetLOD = requiredLOD;
+        if (requiredLOD == LODLevel.UNLOADED) {
+            // Nothing left to hold back
+            lod.evicted = false;
         }
-        loadedChunks.clear();
+        if (lod.currentLOD != requiredLOD) {
+            updateChunkLOD(chunkKey, lod, requiredLOD);
+        }
+        lod.lastDistance = distance;
+        lod.lastUpdateTime = now;
     }
 
-    public int getBlockAt(int worldX, int worldY, int worldZ) {
-        int chunkX = getChunkCoord(worldX);
-        int chunkZ = getChunkCoord(worldZ);
-        long key = getChunkKey(chunkX, chunkZ);
+    /**
+     * Update a chunk's LOD level
+     * Unloads and first loads happen right away, a loaded chunk changing level is queued
+     * and remeshed from its existing blocks under the per-frame swap budget.
+     */
+    private void updateChunkLOD(long chunkKey, ChunkLOD lod, LODLevel newLOD) {
+        if (newLOD == LODLevel.UNLOADED) {
+            scheduler.cancel(chunkKey);
+            unloadChunk(chunkKey);
+            lod.currentLOD = LODLevel.UNLOADED;
+            return;
+        }
 
-        ChunkBase chunk = loadedChunks.get(key);
-        if (chunk != null) {
-            return chunk.getBlockWorld(worldX, worldY, worldZ);
+        if (scheduler.isActive(chunkKey)) {
+            // Re-evaluated once the job in flight lands
+            return;
         }
-        return 0;
+
+        ChunkBase existingChunk = loadedChunks.get(chunkKey);
+        if (existingChunk != null) {
+            if (lod.currentLOD != newLOD && !lod.swapQueued) {
+                lod.swapQueued = true;
+                lodSwapQueue.add(lod);
+            }
+            return;
+        }
+
+        // Over budget only columns in view get loaded, the rest wait for room
+        if (!memoryBudget.hasHeadroom() && !isChunkVisible(lod.chunkX, lod.chunkZ)) {
+            lod.evicted = true;
+            return;
+        }
+
+        int epoch = dimensionEpoch;
+        ChunkJobScheduler.Job job = scheduler.begin(chunkKey);
+        loadBlocks(job, lod.chunkX, lod.chunkZ)
+                .thenCompose(blocks -> scheduler.cpu(job, () -> {
+                    ChunkBase chunk = new ChunkBase(lod.chunkX, lod.chunkZ, registry, blocks);
+                    chunk.setChunkManager(this);
+                    LightEngine.initialize(chunk, registry);
+                    return mesher.mesh(chunk, newLOD);
+                }))
+                .whenComplete((mesh, error) -> {
+                    if (error == null && mesh != null) {
+                        submitUpload(job, chunkKey, mesh, newLOD, epoch, true);
+                        return;
+                    }
+                    scheduler.finish(job);
+                    if (!job.isCancelled()) {
+                        logJobError("generating", lod.chunkX, lod.chunkZ, error);
+                        // Retried on the next LOD pass
+                        lodDirty = true;
+                    }
+                });
     }
 
     /**
-     * Set a block at world coordinates and rebuild affected chunk meshes
+     * Saved blocks from the store on the I/O lane, falling back to the generator on the CPU lane
      */
-    public void setBlockAt(int worldX, int worldY, int worldZ, int blockId) {
-        int chunkX = Math.floorDiv(worldX, ChunkBase.SIZE_X);
-        int chunkZ = Math.floorDiv(worldZ, ChunkBase.SIZE_Z);
+    private CompletableFuture<int[][][]> loadBlocks(ChunkJobScheduler.Job job, int chunkX, int chunkZ) {
+        ChunkStore store = this.store;
+        CompletableFuture<int[][][]> saved = store != null
+                ? scheduler.io(job, () -> store.load(chunkX, chunkZ))
+                : CompletableFuture.completedFuture(null);
+        return saved.thenCompose(blocks -> blocks != null
+                ? CompletableFuture.completedFuture(blocks)
+                : scheduler.cpu(job, () -> generator.generate(chunkX, chunkZ)));
+    }
 
-        long chunkKey = getChunkKey(chunkX, chunkZ);
+    /**
+     * Start queued level changes, at most maxLODSwapsPerFrame per call (main thread only)
+     */
+    private void processLODSwaps() {
+        int started = 0;
+        while (started < maxLODSwapsPerFrame) {
+            ChunkLOD lod = lodSwapQueue.poll();
+            if (lod == null) break;
+            lod.swapQueued = false;
+
+            long chunkKey = getChunkKey(lod.chunkX, lod.chunkZ);
+            LODLevel target = lod.targetLOD;
+            ChunkBase chunk = loadedChunks.get(chunkKey);
+            if (chunkLODs.get(chunkKey) != lod || chunk == null || target == LODLevel.UNLOADED
+                    || target == lod.currentLOD || scheduler.isActive(chunkKey)) {
+                continue;
+            }
+
+            remesh(chunkKey, chunk, target);
+            started++;
+        }
+    }
+
+    /**
+     * Remesh a loaded chunk at a level from the blocks it already has, no terrain generation
+     * The current mesh keeps drawing until the new one is uploaded over it. Runs as the column's job,
+     * so a newer remesh cancels one still in flight and only the latest mesh is ever uploaded.
+     */
+    private void remesh(long chunkKey, ChunkBase chunk, LODLevel level) {
+        int epoch = dimensionEpoch;
+        ChunkJobScheduler.Job job = scheduler.begin(chunkKey);
+        scheduler.cpu(job, () -> mesher.mesh(chunk, level)).whenComplete((mesh, error) -> {
+            if (error == null && mesh != null) {
+                submitUpload(job, chunkKey, mesh, level, epoch, false);
+                return;
+            }
+            scheduler.finish(job);
+            if (!job.isCancelled()) {
+                logJobError("remeshing", chunk.getChunkX(), chunk.getChunkZ(), error);
+                lodDirty = true;
+            }
+        });
+    }
+
+    /**
+     * Remesh a loaded chunk in place at its current level, the old mesh stays up until the upload lands
+     */
+    private void remeshAsync(long chunkKey) {
         ChunkBase chunk = loadedChunks.get(chunkKey);
+        ChunkLOD lod = chunkLODs.get(chunkKey);
+        if (chunk == null || lod == null || lod.currentLOD == LODLevel.UNLOADED) return;
+
+        // A level change this cancels is picked up again when the upload sees the target moved on
+        remesh(chunkKey, chunk, lod.currentLOD);
+    }
+
+    private void logJobError(String stage, int chunkX, int chunkZ, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause != null ? cause.getMessage() : "no mesh produced";
+        LoggerHelper.betterPrint("Error " + stage + " chunk (" + chunkX + "," + chunkZ + "): " + message,
+                LoggerHelper.LogType.ERROR);
+    }
+
+    /**
+     * Stage a finished mesh and queue its upload - can be called on any thread
+     * A job stays active until its upload runs, so no second one starts for the column meanwhile.
+     * placing is true for a freshly loaded chunk, which goes into the grid with its first mesh.
+     */
+    private void submitUpload(ChunkJobScheduler.Job job, long chunkKey, ChunkMesh mesh, LODLevel level, int epoch,
+                              boolean placing) {
+        if (job.isCancelled()) {
+            // Superseded while meshing, don't take ring space for it
+            return;
+        }
+        mesh.stage(stagingRing);
+        long heapBytes = mesh.getHeapBytes();
+        pendingMeshBytes.addAndGet(heapBytes);
+        mainThreadExecutor.submitUpload(mesh.getUploadBytes(), () -> {
+            pendingMeshBytes.addAndGet(-heapBytes);
+            uploadChunk(job, chunkKey, mesh, level, epoch, placing);
+        });
+    }
+
+    /**
+     * Run queued GL work for this frame (main thread only)
+     * Uploads and deletes share a time budget, uploads also stop at the byte budget
+     */
+    private void processGLBufferQueue() {
+        if (stagingRing == null) {
+            stagingRing = StagingRingBuffer.create(STAGING_RING_BYTES);
+        }
+        stagingRing.reclaim();
+        mainThreadExecutor.drain();
+    }
+
+    /**
+     * Upload a finished mesh (main thread only)
+     * A freshly loaded chunk is placed in the grid with it, a remesh only lands on the exact
+     * chunk the grid still holds - never on one that was unloaded, replaced or evicted meanwhile.
+     */
+    private void uploadChunk(ChunkJobScheduler.Job job, long chunkKey, ChunkMesh mesh, LODLevel level, int epoch,
+                             boolean placing) {
+        scheduler.finish(job);
+
+        ChunkBase chunk = mesh.getChunk();
+        ChunkLOD lod = chunkLODs.get(chunkKey);
+        if (job.isCancelled() || epoch != dimensionEpoch || lod == null || lod.targetLOD == LODLevel.UNLOADED
+                || !loadedChunks.inWindow(chunk.getChunkX(), chunk.getChunkZ())
+                || (!placing && loadedChunks.get(chunkKey) != chunk)) {
+            // Superseded, went out of range or out of dimension while it was queued
+            mesh.discard();
+            return;
+        }
+
+        chunk.upload(mesh, bufferPool);
+        if (chunk.isMeshBuilt()) {
+            if (placing) {
+                ChunkBase previous = loadedChunks.put(chunk);
+                if (previous != null) {
+                    scheduleCleanup(previous);
+                }
+                stitchLight(chunk);
+            }
+            lod.currentLOD = level;
+            lod.evicted = false;
+            // Counts as seen on arrival, so it isn't the first thing evicted before it is ever drawn
+            chunk.markViewed(frame);
+            if (lod.targetLOD != level) {
+                // The player moved on while this was in flight
+                lodDirty = true;
+            }
+        }
+    }
+
+    /**
+     * Let light cross the borders of a newly placed chunk, then remesh every chunk whose light changed
+     * and every neighbour that was meshed guessing the light on this side (main thread only)
+     */
+    private void stitchLight(ChunkBase chunk) {
+        Set<ChunkBase> remesh = new LinkedHashSet<>(lightEngine.stitch(chunk));
 
+        int[][] sides = {
+                {0, -1, ChunkBase.LIGHT_SIDE_NORTH, ChunkBase.LIGHT_SIDE_SOUTH},
+                {0, 1, ChunkBase.LIGHT_SIDE_SOUTH, ChunkBase.LIGHT_SIDE_NORTH},
+                {1, 0, ChunkBase.LIGHT_SIDE_EAST, ChunkBase.LIGHT_SIDE_WEST},
+                {-1, 0, ChunkBase.LIGHT_SIDE_WEST, ChunkBase.LIGHT_SIDE_EAST}};
+        for (int[] side : sides) {
+            ChunkBase neighbour = chunk.getNeighbor(side[0], side[1]);
+            if (neighbour == null) continue;
+            if ((neighbour.getEstimatedLightSides() & side[3]) != 0) remesh.add(neighbour);
+            // Arrived between this chunk's mesh and its upload
+            if ((chunk.getEstimatedLightSides() & side[2]) != 0) remesh.add(chunk);
+        }
+
+        for (ChunkBase changed : remesh) {
+            remeshAsync(getChunkKey(changed.getChunkX(), changed.getChunkZ()));
+        }
+    }
+
+    /**
+     * Unload a chunk and free its resources
+     */
+    private void unloadChunk(long chunkKey) {
+        ChunkBase chunk = loadedChunks.remove(chunkKey);
         if (chunk != null) {
-            int localX = worldX - (chunkX * ChunkBase.SIZE_X);
-            int localZ = worldZ - (chunkZ * ChunkBase.SIZE_Z);
+            scheduleCleanup(chunk);
+        }
+    }
 
-            if (localX >= 0 && localX < ChunkBase.SIZE_X && localZ >= 0 && localZ < ChunkBase.SIZE_Z && worldY >= 0 && worldY < ChunkBase.SIZE_Y) {
+    /**
+     * Flush the chunk if it was edited and queue its GL resources for deletion (main thread only)
+     */
+    private void scheduleCleanup(ChunkBase chunk) {
+        saveIfModified(chunk);
+        mainThreadExecutor.submit(MainThreadExecutor.TaskType.DELETE, chunk::cleanup);
+    }
 
-                chunk.setBlock(localX, worldY, localZ, blockId);
-                chunk.rebuildMesh();
+    /**
+     * Hand an edited chunk to the store on the I/O lane, the snapshot taken here is what gets written
+     */
+    private void saveIfModified(ChunkBase chunk) {
+        ChunkStore store = this.store;
+        if (store == null || !chunk.isModified()) return;
 
-                rebuildNeighborChunksIfNeeded(worldX, worldY, worldZ, chunkX, chunkZ);
+        int chunkX = chunk.getChunkX();
+        int chunkZ = chunk.getChunkZ();
+        ChunkSnapshot snapshot = chunk.getSnapshot();
+        scheduler.io(() -> {
+            try {
+                store.save(chunkX, chunkZ, snapshot.toArray());
+            } catch (IOException e) {
+                LoggerHelper.betterPrint("Error saving chunk (" + chunkX + "," + chunkZ + "): " + e.getMessage(),
+                        LoggerHelper.LogType.ERROR);
             }
+        });
+    }
+
+    /**
+     * Calculate distance between player and chunk center
+     */
+    private float calculateChunkDistance(Vector3f playerPos, Vector3f chunkPos) {
+        float dx = chunkPos.x + ChunkBase.SIZE_X * 0.5f - playerPos.x;
+        float dz = chunkPos.z + ChunkBase.SIZE_Z * 0.5f - playerPos.z;
+        return (float) Math.sqrt(dx * dx + dz * dz);
+    }
+
+    /**
+     * Raycaster over the loaded chunks - main thread only
+     */
+    public ChunkRaycaster getRaycaster() {
+        return raycaster;
+    }
+
+    /**
+     * Every column closer to the player than this is loaded with voxels, whatever renders past the chunks starts here.
+     * Bounded by the LOD policy's unload distance (to a chunk center, so less half a chunk diagonal) and the window.
+     */
+    public float getVoxelRadius() {
+        float halfDiagonal = (float) Math.hypot(ChunkBase.SIZE_X, ChunkBase.SIZE_Z) * 0.5f;
+        return Math.min(lodPolicy.getUnloadDistance() - halfDiagonal, renderDistance * ChunkBase.SIZE_X);
+    }
+
+    public ChunkGrid<ChunkBase> getLoadedChunks() {
+        return loadedChunks;
+    }
+
+    /**
+     * Result of this frame's culling pass, a chunk is visible when every culler accepts it
+     */
+    public boolean isChunkVisible(int chunkX, int chunkZ) {
+        for (ChunkCuller culler : cullers) {
+            if (!culler.isChunkVisible(chunkX, chunkZ)) return false;
         }
+        return true;
+    }
+
+    /**
+     * Get only chunks that are visible for rendering
+     */
+    public Map<Long, ChunkBase> getVisibleChunks() {
+        Map<Long, ChunkBase> visible = new HashMap<>();
+        loadedChunks.forEach(chunk -> {
+            if (!isChunkVisible(chunk.getChunkX(), chunk.getChunkZ())) return;
+            long key = getChunkKey(chunk.getChunkX(), chunk.getChunkZ());
+            ChunkLOD lod = chunkLODs.get(key);
+            if (lod != null && lod.currentLOD != LODLevel.UNLOADED) {
+                visible.put(key, chunk);
+                chunk.markViewed(frame);
+            }
+        });
+        visibleLastFrame = visible.size();
+        return visible;
+    }
+
+    /**
+     * Section connectivity lookup for the cave culler, unloaded chunks are treated as open
+     */
+    private long getSectionConnectivity(int chunkX, int sectionY, int chunkZ) {
+        ChunkBase chunk = loadedChunks.get(chunkX, chunkZ);
+        return chunk != null ? chunk.getSectionVisibility(sectionY) : SectionVisibility.ALL;
+    }
+
+    public void setCaveCullingEnabled(boolean enabled) {
+        if (enabled) {
+            cullers.addIfAbsent(caveCuller);
+        } else {
+            cullers.remove(caveCuller);
+        }
+    }
+
+    public boolean isCaveCullingEnabled() {
+        return cullers.contains(caveCuller);
+    }
+
+    public boolean isSectionVisible(int chunkX, int sectionY, int chunkZ) {
+        return !isCaveCullingEnabled() || caveCuller.isSectionVisible(chunkX, sectionY, chunkZ);
+    }
+
+    public void setGenerator(ChunkGenerator generator) {
+        this.generator = generator;
+    }
+
+    public ChunkGenerator getGenerator() {
+        return generator;
+    }
+
+    public void setMesher(ChunkMesher mesher) {
+        this.mesher = mesher;
+    }
+
+    public ChunkMesher getMesher() {
+        return mesher;
+    }
+
+    /**
+     * Cap on loaded chunks that start changing level per frame
+     */
+    public void setMaxLODSwapsPerFrame(int maxSwaps) {
+        this.maxLODSwapsPerFrame = Math.max(1, maxSwaps);
+    }
+
+    public int getMaxLODSwapsPerFrame() {
+        return maxLODSwapsPerFrame;
+    }
+
+    /**
+     * Cap on heap and GPU memory held by chunks, least recently viewed chunks are evicted above it
+     */
+    public void setMemoryBudgetBytes(long budgetBytes) {
+        memoryBudget.setBudgetBytes(budgetBytes);
+        lastMemoryCheckTime = 0;
+    }
+
+    public ChunkMemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setLODPolicy(LODPolicy lodPolicy) {
+        this.lodPolicy = lodPolicy;
+        this.lodDirty = true;
+    }
+
+    public LODPolicy getLODPolicy() {
+        return lodPolicy;
+    }
+
+    /**
+     * Add a culler, it is updated every frame after the ones already registered
+     */
+    public void addCuller(ChunkCuller culler) {
+        cullers.add(culler);
+    }
+
+    public boolean removeCuller(ChunkCuller culler) {
+        return cullers.remove(culler);
+    }
+
+    public List<ChunkCuller> getCullers() {
+        return Collections.unmodifiableList(cullers);
+    }
+
+    public ChunkBufferPool getBufferPool() {
+        return bufferPool;
+    }
+
+    public MainThreadExecutor getMainThreadExecutor() {
+        return mainThreadExecutor;
+    }
+
+    public void setUploadBudgetBytes(long bytesPerFrame) {
+        mainThreadExecutor.setUploadBudgetBytes(bytesPerFrame);
+    }
+
+    public void setMainThreadBudgetMillis(float millis) {
+        mainThreadExecutor.setBudgetMillis(millis);
+    }
+
+    /**
+     * Get a chunk at world coordinates (for block lookup)
+     */
+    public ChunkBase getChunkAt(int worldX, int worldZ) {
+        return loadedChunks.get(getChunkCoord(worldX), getChunkCoord(worldZ));
+    }
+
+    public int getBlockAt(int worldX, int worldY, int worldZ) {
+        ChunkBase chunk = getChunkAt(worldX, worldZ);
+        return chunk != null ? chunk.getBlockWorld(worldX, worldY, worldZ) : 0;
     }
 
     /**
-     * Rebuild neighboring chunk meshes if the modified block is on a chunk boundary
+     * One above the top opaque block of a world column, -1 while its chunk isn't loaded
      */
-    private void rebuildNeighborChunksIfNeeded(int worldX, int worldY, int worldZ, int chunkX, int chunkZ) {
+    public int getSurfaceHeight(int worldX, int worldZ) {
+        ChunkBase chunk = getChunkAt(worldX, worldZ);
+        if (chunk == null) return -1;
+        return chunk.getHeight(Math.floorMod(worldX, ChunkBase.SIZE_X), Math.floorMod(worldZ, ChunkBase.SIZE_Z));
+    }
+
+    /**
+     * Set a block at world coordinates, relight around it and remesh affected chunks in the background
+     * MUST be called on main thread
+     */
+    public void setBlockAt(int worldX, int worldY, int worldZ, int blockId) {
+        int chunkX = getChunkCoord(worldX);
+        int chunkZ = getChunkCoord(worldZ);
+        long chunkKey = getChunkKey(chunkX, chunkZ);
+        ChunkBase chunk = loadedChunks.get(chunkKey);
+        if (chunk == null) return;
+
         int localX = worldX - (chunkX * ChunkBase.SIZE_X);
         int localZ = worldZ - (chunkZ * ChunkBase.SIZE_Z);
+        if (!isValidLocalCoord(localX, worldY, localZ)) return;
 
-        if (localX == 0) {
-            ChunkBase westChunk = loadedChunks.get(getChunkKey(chunkX - 1, chunkZ));
-            if (westChunk != null) westChunk.rebuildMesh();
-        }
-        if (localX == ChunkBase.SIZE_X - 1) {
-            ChunkBase eastChunk = loadedChunks.get(getChunkKey(chunkX + 1, chunkZ));
-            if (eastChunk != null) eastChunk.rebuildMesh();
+        chunk.setBlock(localX, worldY, localZ, blockId);
+
+        Set<Long> remesh = new LinkedHashSet<>();
+        remesh.add(chunkKey);
+        addNeighborsIfOnBorder(remesh, localX, localZ, chunkX, chunkZ);
+        for (ChunkBase relit : lightEngine.blockChanged(worldX, worldY, worldZ)) {
+            remesh.add(getChunkKey(relit.getChunkX(), relit.getChunkZ()));
         }
-        if (localZ == 0) {
-            ChunkBase northChunk = loadedChunks.get(getChunkKey(chunkX, chunkZ - 1));
-            if (northChunk != null) northChunk.rebuildMesh();
+        for (long key : remesh) {
+            remeshAsync(key);
         }
-        if (localZ == ChunkBase.SIZE_Z - 1) {
-            ChunkBase southChunk = loadedChunks.get(getChunkKey(chunkX, chunkZ + 1));
-            if (southChunk != null) southChunk.rebuildMesh();
+    }
+
+    public static boolean isValidLocalCoord(int localX, int y, int localZ) {
+        return localX >= 0 && localX < ChunkBase.SIZE_X &&
+                localZ >= 0 && localZ < ChunkBase.SIZE_Z &&
+                y >= 0 && y < ChunkBase.SIZE_Y;
+    }
+
+    /**
+     * Neighbouring chunks to remesh if the modified block is on a chunk boundary
+     */
+    private void addNeighborsIfOnBorder(Set<Long> remesh, int localX, int localZ, int chunkX, int chunkZ) {
+        if (localX == 0) remesh.add(getChunkKey(chunkX - 1, chunkZ));
+        if (localX == ChunkBase.SIZE_X - 1) remesh.add(getChunkKey(chunkX + 1, chunkZ));
+        if (localZ == 0) remesh.add(getChunkKey(chunkX, chunkZ - 1));
+        if (localZ == ChunkBase.SIZE_Z - 1) remesh.add(getChunkKey(chunkX, chunkZ + 1));
+
+        // A corner block also shades the corner vertices of the diagonal chunk
+        int dx = localX == 0 ? -1 : (localX == ChunkBase.SIZE_X - 1 ? 1 : 0);
+        int dz = localZ == 0 ? -1 : (localZ == ChunkBase.SIZE_Z - 1 ? 1 : 0);
+        if (dx != 0 && dz != 0) remesh.add(getChunkKey(chunkX + dx, chunkZ + dz));
+    }
+
+    /**
+     * Drop every chunk and start generating the new dimension - MUST be called on main thread
+     */
+    public void switchDimension(String dimensionName) {
+        if (!dimensionCreator.getAvailableDimensions().contains(dimensionName)) return;
+
+        dimensionEpoch++;
+        scheduler.cancelAll();
+        loadedChunks.forEach(this::scheduleCleanup);
+        loadedChunks.clear();
+        chunkLODs.clear();
+        lodSwapQueue.clear();
+
+        currentDimension = dimensionName;
+        generator = new DimensionChunkGenerator(dimensionCreator, sharedBruh, dimensionName);
+        windowValid = false;
+    }
+
+    public String getCurrentDimension() {
+        return currentDimension;
+    }
+
+    public DimensionCreator getDimensionCreator() {
+        return dimensionCreator;
+    }
+
+    public void cleanup() {
+        loadedChunks.forEach(this::saveIfModified);
+        // Waits for the saves above, everything else in flight is cancelled
+        scheduler.shutdown();
+
+        loadedChunks.forEach(ChunkBase::cleanup);
+        loadedChunks.clear();
+        chunkLODs.clear();
+        mainThreadExecutor.clear();
+        lodSwapQueue.clear();
+
+        if (stagingRing != null) {
+            stagingRing.cleanup();
+            stagingRing = null;
         }
+        bufferPool.cleanup();
+
+        LoggerHelper.betterPrint("Chunk Manager cleaned up", LoggerHelper.LogType.INFO);
     }
 
     public int getLoadedChunkCount() {
         return loadedChunks.size();
     }
-}
\ No newline at end of file
+
+    public int getChunksInQueue() {
+        return mainThreadExecutor.getBacklog(MainThreadExecutor.TaskType.UPLOAD);
+    }
+
+    public int getChunksBeingGenerated() {
+        return scheduler.getActiveJobs();
+    }
+
+    public ChunkJobScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Storage for edited chunks, null (the default) means every column is generated and edits are lost on unload
+     */
+    public void setChunkStore(ChunkStore store) {
+        this.store = store;
+    }
+
+    public ChunkStore getChunkStore() {
+        return store;
+    }
+
+    /**
+     * Get performance statistics
+     */
+    public String getPerformanceStats() {
+        int totalChunks = chunkLODs.size();
+        int high = 0, medium = 0, low = 0, unloaded = 0;
+
+        for (ChunkLOD lod : chunkLODs.values()) {
+            switch (lod.currentLOD) {
+                case HIGH: high++; break;
+                case MEDIUM: medium++; break;
+                case LOW: low++; break;
+                case UNLOADED: unloaded++; break;
+            }
+        }
+
+        StringBuilder culling = new StringBuilder();
+        for (ChunkCuller culler : cullers) {
+            String stats = culler.getStats();
+            if (stats.isEmpty()) continue;
+            if (culling.length() > 0) culling.append(", ");
+            culling.append(stats);
+        }
+
+        return String.format("Chunks: %d total, %d loaded, %d visible | LOD: %d high, %d med, %d low, %d unloaded | Queue: %d, Swaps: %d | %s | %s | %s | %s | %s",
+                totalChunks, loadedChunks.size(), visibleLastFrame, high, medium, low, unloaded,
+                getChunksInQueue(), lodSwapQueue.size(), scheduler.getStats(), memoryBudget.getStats(), culling,
+                mainThreadExecutor.getStats(), bufferPool.getStats());
+    }
+}
@@ -0,0 +1,104 @@
+package hmph.rendering.world.chunk;
+
+import hmph.rendering.buffers.ChunkBufferPool;
+
+/**
+ * Tracks what the chunk engine holds on to: block storage, CPU-side mesh data waiting for upload,
+ * GPU buffers (owned and pooled) and the per-column bookkeeping. Figures are re-measured from the
+ * live chunks on the main thread, so they can't drift the way running totals would.
+ * The chunk manager evicts least recently viewed chunks while the total is over the budget.
+ */
+public class ChunkMemoryBudget {
+    // ChunkLOD with its Vector3f plus a key and value slot in the LOD table
+    public static final long LOD_ENTRY_BYTES = 96;
+    // A job in flight holds the generated array and the snapshot copied from it
+    public static final long JOB_BYTES = 2L * ChunkSnapshot.VOLUME * Integer.BYTES;
+    // Loads resume once usage falls below this fraction of the budget
+    private static final float RESUME_FRACTION = 0.9f;
+
+    private long budgetBytes;
+    private long blockBytes, meshBytes, gpuBytes, bookkeepingBytes, jobBytes;
+    private int evictedColumns = 0;
+    private long evictions = 0;
+
+    public ChunkMemoryBudget(long budgetBytes) {
+        this.budgetBytes = checkBudget(budgetBytes);
+    }
+
+    /**
+     * Re-measure everything from the loaded chunks, pendingMeshBytes is what finished meshes queued for upload hold - main thread only
+     */
+    public void measure(ChunkGrid<ChunkBase> loadedChunks, LongChunkMap<ChunkLOD> chunkLODs,
+                        int activeJobs, long pendingMeshBytes, ChunkBufferPool bufferPool) {
+        long blocks = 0, mesh = pendingMeshBytes, gpu = 0;
+        for (ChunkBase chunk : loadedChunks.values()) {
+            blocks += chunk.getBlockBytes();
+            mesh += chunk.getPendingMeshBytes();
+            gpu += chunk.getGpuBytes();
+        }
+
+        int evicted = 0;
+        for (ChunkLOD lod : chunkLODs.values()) {
+            if (lod.evicted) evicted++;
+        }
+
+        blockBytes = blocks;
+        meshBytes = mesh;
+        gpuBytes = gpu + bufferPool.getPooledBytes();
+        bookkeepingBytes = chunkLODs.size() * LOD_ENTRY_BYTES;
+        jobBytes = activeJobs * JOB_BYTES;
+        evictedColumns = evicted;
+    }
+
+    /**
+     * Account for a chunk that was just evicted, until the next measure
+     */
+    public void evicted(ChunkBase chunk) {
+        blockBytes -= chunk.getBlockBytes();
+        meshBytes -= chunk.getPendingMeshBytes();
+        gpuBytes -= chunk.getGpuBytes();
+        evictedColumns++;
+        evictions++;
+    }
+
+    public long getUsedBytes() {
+        return blockBytes + meshBytes + gpuBytes + bookkeepingBytes + jobBytes;
+    }
+
+    public boolean isOverBudget() {
+        return getUsedBytes() > budgetBytes;
+    }
+
+    /**
+     * True when there is room for new loads, a bit under the budget so loads and evictions don't ping-pong
+     */
+    public boolean hasHeadroom() {
+        return getUsedBytes() < budgetBytes * RESUME_FRACTION;
+    }
+
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = checkBudget(budgetBytes);
+    }
+
+    private static long checkBudget(long budgetBytes) {
+        if (budgetBytes <= 0) {
+            throw new IllegalArgumentException("Chunk memory budget must be positive: " + budgetBytes);
+        }
+        return budgetBytes;
+    }
+
+    public long getBudgetBytes() { return budgetBytes; }
+    public long getBlockBytes() { return blockBytes; }
+    public long getMeshBytes() { return meshBytes; }
+    public long getGpuBytes() { return gpuBytes; }
+    public long getBookkeepingBytes() { return bookkeepingBytes; }
+    public long getJobBytes() { return jobBytes; }
+    public int getEvictedColumns() { return evictedColumns; }
+    public long getEvictions() { return evictions; }
+
+    public String getStats() {
+        return String.format("Memory: %d/%d MB (blocks %d, mesh %d, GPU %d, jobs %d MB), %d evicted",
+                getUsedBytes() >> 20, budgetBytes >> 20, blockBytes >> 20, meshBytes >> 20,
+                gpuBytes >> 20, jobBytes >> 20, evictedColumns);
+    }
+}
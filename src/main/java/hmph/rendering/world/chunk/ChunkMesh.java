@@ -0,0 +1,131 @@
+package hmph.rendering.world.chunk;
+
+import hmph.rendering.buffers.StagingRingBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * One mesh built for one chunk, carried from the worker that built it to the upload that consumes it.
+ * Every meshing job gets its own, so meshes of the same chunk in flight at once never share data.
+ * Handed to the main thread through the upload queue, then either uploaded or discarded exactly once.
+ */
+public final class ChunkMesh {
+    private final ChunkBase chunk;
+    private List<Float> vertices;
+    private List<Integer> indices;
+    // Computed from the same snapshot as the vertices, applied to the chunk when the mesh is uploaded
+    private final long[] sectionVisibility;
+    private final int estimatedLightSides;
+
+    // Set once the lists were copied into the staging ring, they are dropped then
+    private StagingRingBuffer.Allocation staged = null;
+    private int stagedVertexBytes = 0;
+    private int stagedIndexCount = 0;
+
+    public ChunkMesh(ChunkBase chunk, List<Float> vertices, List<Integer> indices,
+                     long[] sectionVisibility, int estimatedLightSides) {
+        this.chunk = chunk;
+        this.vertices = vertices;
+        this.indices = indices;
+        this.sectionVisibility = sectionVisibility;
+        this.estimatedLightSides = estimatedLightSides;
+    }
+
+    /**
+     * Copy the mesh into the staging ring - can be called on any thread
+     * Returns false when the ring has no room, the lists are then uploaded the old way
+     */
+    public boolean stage(StagingRingBuffer ring) {
+        if (ring == null || staged != null || vertices == null || indices == null || indices.isEmpty()) {
+            return false;
+        }
+
+        int vertexBytes = vertices.size() * Float.BYTES;
+        int indexBytes = indices.size() * Integer.BYTES;
+        StagingRingBuffer.Allocation allocation = ring.allocate(vertexBytes + indexBytes);
+        if (allocation == null) {
+            return false;
+        }
+
+        ByteBuffer data = allocation.data;
+        int pos = 0;
+        for (float f : vertices) {
+            data.putFloat(pos, f);
+            pos += Float.BYTES;
+        }
+        for (int i : indices) {
+            data.putInt(pos, i);
+            pos += Integer.BYTES;
+        }
+
+        stagedVertexBytes = vertexBytes;
+        stagedIndexCount = indices.size();
+        staged = allocation;
+        vertices = null;
+        indices = null;
+        return true;
+    }
+
+    /**
+     * Give the staging space back after the upload, the copies out of it were issued - MUST be called on main thread
+     */
+    void release() {
+        StagingRingBuffer.Allocation allocation = staged;
+        if (allocation != null) {
+            staged = null;
+            allocation.getOwner().release(allocation);
+        }
+        vertices = null;
+        indices = null;
+    }
+
+    /**
+     * Throw the mesh away without uploading it, its staging space is freed right away
+     */
+    public void discard() {
+        StagingRingBuffer.Allocation allocation = staged;
+        if (allocation != null) {
+            staged = null;
+            allocation.getOwner().discard(allocation);
+        }
+        vertices = null;
+        indices = null;
+    }
+
+    public ChunkBase getChunk() { return chunk; }
+    public long[] getSectionVisibility() { return sectionVisibility; }
+    public int getEstimatedLightSides() { return estimatedLightSides; }
+
+    StagingRingBuffer.Allocation getStaged() { return staged; }
+    List<Float> getVertices() { return vertices; }
+    List<Integer> getIndices() { return indices; }
+
+    public int getIndexCount() {
+        if (staged != null) return stagedIndexCount;
+        return indices != null ? indices.size() : 0;
+    }
+
+    public int getVertexBytes() {
+        if (staged != null) return stagedVertexBytes;
+        return vertices != null ? vertices.size() * Float.BYTES : 0;
+    }
+
+    /**
+     * Bytes the upload will copy to the GPU
+     */
+    public int getUploadBytes() {
+        return getVertexBytes() + getIndexCount() * Integer.BYTES;
+    }
+
+    /**
+     * Rough heap held by the lists, a boxed element costs about 20 bytes with its reference
+     * A staged mesh lives in mapped memory and is not counted.
+     */
+    public long getHeapBytes() {
+        List<Float> v = vertices;
+        List<Integer> i = indices;
+        long elements = (v != null ? v.size() : 0) + (i != null ? i.size() : 0);
+        return elements * 20;
+    }
+}
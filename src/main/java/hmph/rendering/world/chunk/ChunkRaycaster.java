@@ -0,0 +1,191 @@
+package hmph.rendering.world.chunk;
+
+/**
+ * Voxel raycaster (Amanatides & Woo) that walks the loaded chunks directly. It holds on to the
+ * snapshot of the chunk the ray is in and indexes it locally, the chunk grid is only asked again
+ * when the ray crosses into the next column. The result of the last cast is left in the public
+ * fields, nothing is allocated per cast. Any non-air block stops a ray, unloaded chunks read as air.
+ * One instance per thread, snapshots make it safe to use off the main thread.
+ */
+public class ChunkRaycaster {
+    // Packed per ray in castAll: block id (0 = miss), block x, y, z, normal x, y, z
+    public static final int INTS_PER_HIT = 7;
+    // Packed per ray in castAll: origin x, y, z, direction x, y, z
+    public static final int FLOATS_PER_RAY = 6;
+
+    private final ChunkGrid<ChunkBase> chunks;
+
+    // Result of the last cast
+    public boolean hit;
+    public int blockId;
+    public int blockX, blockY, blockZ;
+    // Face of the hit block the ray came through, 0,0,0 when the ray started inside it
+    public int normalX, normalY, normalZ;
+    public float distance;
+    // Exact point where the ray enters the hit block, the origin when it started inside it
+    public float hitX, hitY, hitZ;
+
+    // Column the walk is in
+    private ChunkSnapshot snapshot;
+    private int chunkX, chunkZ;
+
+    public ChunkRaycaster(ChunkGrid<ChunkBase> chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * Walk from the origin along the direction for up to maxDistance (in direction lengths), true on a hit
+     */
+    public boolean cast(float originX, float originY, float originZ, float dirX, float dirY, float dirZ, float maxDistance) {
+        hit = false;
+        blockId = 0;
+        normalX = normalY = normalZ = 0;
+        distance = maxDistance;
+
+        int x = (int) Math.floor(originX);
+        int y = (int) Math.floor(originY);
+        int z = (int) Math.floor(originZ);
+
+        int stepX = dirX < 0 ? -1 : 1;
+        int stepY = dirY < 0 ? -1 : 1;
+        int stepZ = dirZ < 0 ? -1 : 1;
+        float tDeltaX = dirX != 0 ? Math.abs(1f / dirX) : Float.POSITIVE_INFINITY;
+        float tDeltaY = dirY != 0 ? Math.abs(1f / dirY) : Float.POSITIVE_INFINITY;
+        float tDeltaZ = dirZ != 0 ? Math.abs(1f / dirZ) : Float.POSITIVE_INFINITY;
+        float tMaxX = dirX != 0 ? ((dirX < 0 ? x : x + 1) - originX) / dirX : Float.POSITIVE_INFINITY;
+        float tMaxY = dirY != 0 ? ((dirY < 0 ? y : y + 1) - originY) / dirY : Float.POSITIVE_INFINITY;
+        float tMaxZ = dirZ != 0 ? ((dirZ < 0 ? z : z + 1) - originZ) / dirZ : Float.POSITIVE_INFINITY;
+
+        // Looked up fresh every cast so edits since the last one are seen
+        snapshot = null;
+        enterColumn(Math.floorDiv(x, ChunkBase.SIZE_X), Math.floorDiv(z, ChunkBase.SIZE_Z));
+        int localX = x - chunkX * ChunkBase.SIZE_X;
+        int localZ = z - chunkZ * ChunkBase.SIZE_Z;
+        float t = 0;
+        int nx = 0, ny = 0, nz = 0;
+
+        while (true) {
+            if (snapshot != null && y >= 0 && y < ChunkBase.SIZE_Y) {
+                int id = snapshot.get(ChunkSnapshot.index(localX, y, localZ));
+                if (id != 0) {
+                    hit = true;
+                    blockId = id;
+                    blockX = x;
+                    blockY = y;
+                    blockZ = z;
+                    normalX = nx;
+                    normalY = ny;
+                    normalZ = nz;
+                    resolveEntry(originX, originY, originZ, dirX, dirY, dirZ, t);
+                    return true;
+                }
+            } else if ((y < 0 && stepY < 0) || (y >= ChunkBase.SIZE_Y && stepY > 0)) {
+                return false; // Left the world vertically, nothing more to hit
+            }
+
+            if (tMaxX < tMaxY && tMaxX < tMaxZ) {
+                t = tMaxX;
+                tMaxX += tDeltaX;
+                x += stepX;
+                localX += stepX;
+                nx = -stepX; ny = 0; nz = 0;
+                if (localX < 0 || localX >= ChunkBase.SIZE_X) {
+                    enterColumn(chunkX + stepX, chunkZ);
+                    localX -= stepX * ChunkBase.SIZE_X;
+                }
+            } else if (tMaxY < tMaxZ) {
+                t = tMaxY;
+                tMaxY += tDeltaY;
+                y += stepY;
+                nx = 0; ny = -stepY; nz = 0;
+            } else {
+                t = tMaxZ;
+                tMaxZ += tDeltaZ;
+                z += stepZ;
+                localZ += stepZ;
+                nx = 0; ny = 0; nz = -stepZ;
+                if (localZ < 0 || localZ >= ChunkBase.SIZE_Z) {
+                    enterColumn(chunkX, chunkZ + stepZ);
+                    localZ -= stepZ * ChunkBase.SIZE_Z;
+                }
+            }
+            if (t > maxDistance) return false;
+        }
+    }
+
+    /**
+     * Whether nothing solid lies between two points, the block containing the target doesn't count
+     */
+    public boolean hasLineOfSight(float fromX, float fromY, float fromZ, float toX, float toY, float toZ) {
+        float dx = toX - fromX, dy = toY - fromY, dz = toZ - fromZ;
+        if (!cast(fromX, fromY, fromZ, dx, dy, dz, 1f)) return true;
+        return blockX == (int) Math.floor(toX) && blockY == (int) Math.floor(toY) && blockZ == (int) Math.floor(toZ);
+    }
+
+    /**
+     * Cast a batch of rays packed FLOATS_PER_RAY apart, writing INTS_PER_HIT ints and one distance per ray.
+     * Returns the hit count.
+     */
+    public int castAll(float[] rays, int rayCount, float maxDistance, int[] hits, float[] distances) {
+        int hitCount = 0;
+        for (int i = 0; i < rayCount; i++) {
+            int r = i * FLOATS_PER_RAY;
+            int h = i * INTS_PER_HIT;
+            if (cast(rays[r], rays[r + 1], rays[r + 2], rays[r + 3], rays[r + 4], rays[r + 5], maxDistance)) {
+                hitCount++;
+            }
+            hits[h] = blockId;
+            hits[h + 1] = blockX;
+            hits[h + 2] = blockY;
+            hits[h + 3] = blockZ;
+            hits[h + 4] = normalX;
+            hits[h + 5] = normalY;
+            hits[h + 6] = normalZ;
+            distances[i] = distance;
+        }
+        return hitCount;
+    }
+
+    /**
+     * Line of sight for a batch of segments packed as from x, y, z, to x, y, z. Returns how many are clear.
+     */
+    public int lineOfSightAll(float[] segments, int segmentCount, boolean[] visible) {
+        int clear = 0;
+        for (int i = 0; i < segmentCount; i++) {
+            int s = i * FLOATS_PER_RAY;
+            visible[i] = hasLineOfSight(segments[s], segments[s + 1], segments[s + 2],
+                    segments[s + 3], segments[s + 4], segments[s + 5]);
+            if (visible[i]) clear++;
+        }
+        return clear;
+    }
+
+    /**
+     * The walk's t is a running sum that drifts a little, so recompute it from the plane of the
+     * face the ray came through and put the point exactly on that plane
+     */
+    private void resolveEntry(float originX, float originY, float originZ, float dirX, float dirY, float dirZ, float t) {
+        if (normalX != 0) {
+            float plane = normalX < 0 ? blockX : blockX + 1;
+            t = (plane - originX) / dirX;
+        } else if (normalY != 0) {
+            float plane = normalY < 0 ? blockY : blockY + 1;
+            t = (plane - originY) / dirY;
+        } else if (normalZ != 0) {
+            float plane = normalZ < 0 ? blockZ : blockZ + 1;
+            t = (plane - originZ) / dirZ;
+        }
+        distance = t;
+        hitX = normalX != 0 ? (normalX < 0 ? blockX : blockX + 1) : originX + dirX * t;
+        hitY = normalY != 0 ? (normalY < 0 ? blockY : blockY + 1) : originY + dirY * t;
+        hitZ = normalZ != 0 ? (normalZ < 0 ? blockZ : blockZ + 1) : originZ + dirZ * t;
+    }
+
+    private void enterColumn(int newChunkX, int newChunkZ) {
+        if (snapshot != null && newChunkX == chunkX && newChunkZ == chunkZ) return;
+        chunkX = newChunkX;
+        chunkZ = newChunkZ;
+        ChunkBase chunk = chunks.get(newChunkX, newChunkZ);
+        snapshot = chunk != null ? chunk.getSnapshot() : null;
+    }
+}
@@ -0,0 +1,148 @@
+package hmph.rendering.world.chunk;
+
+import hmph.rendering.BlockRegistry;
+
+/**
+ * Immutable view of a chunk's blocks, stored flat in [x][y][z] order.
+ * A chunk publishes a new snapshot for every edit, so a mesher or any other background
+ * reader that grabs one sees a single consistent version for as long as it holds on to it.
+ * Carries a heightmap of the top opaque block per column, kept up to date by withBlock.
+ */
+public final class ChunkSnapshot {
+    public static final int VOLUME = ChunkBase.SIZE_X * ChunkBase.SIZE_Y * ChunkBase.SIZE_Z;
+    private static final int COLUMNS = ChunkBase.SIZE_X * ChunkBase.SIZE_Z;
+
+    private final int[] blocks;
+    // Per column, one above the top opaque block (0 = no opaque block), shared between versions until it changes
+    private final short[] heights;
+    // No block of any kind at or above this y, only ever raised by edits
+    private final int topBound;
+    private final long version;
+
+    private ChunkSnapshot(int[] blocks, short[] heights, int topBound, long version) {
+        this.blocks = blocks;
+        this.heights = heights;
+        this.topBound = topBound;
+        this.version = version;
+    }
+
+    /**
+     * Snapshot over freshly generated blocks, version 0 means nothing was edited since
+     */
+    public static ChunkSnapshot of(int[][][] generated, BlockRegistry registry) {
+        int[] blocks = new int[VOLUME];
+        int i = 0;
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int y = 0; y < ChunkBase.SIZE_Y; y++) {
+                System.arraycopy(generated[x][y], 0, blocks, i, ChunkBase.SIZE_Z);
+                i += ChunkBase.SIZE_Z;
+            }
+        }
+
+        short[] heights = new short[COLUMNS];
+        int topBound = 0;
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                int y = ChunkBase.SIZE_Y - 1;
+                while (y >= 0 && blocks[index(x, y, z)] == 0) y--;
+                topBound = Math.max(topBound, y + 1);
+                while (y >= 0 && !registry.isOpaque(blocks[index(x, y, z)])) y--;
+                heights[column(x, z)] = (short) (y + 1);
+            }
+        }
+        return new ChunkSnapshot(blocks, heights, topBound, 0);
+    }
+
+    public static ChunkSnapshot empty() {
+        return new ChunkSnapshot(new int[VOLUME], new short[COLUMNS], 0, 0);
+    }
+
+    public static int index(int x, int y, int z) {
+        return (x * ChunkBase.SIZE_Y + y) * ChunkBase.SIZE_Z + z;
+    }
+
+    public static boolean inBounds(int x, int y, int z) {
+        return x >= 0 && x < ChunkBase.SIZE_X && y >= 0 && y < ChunkBase.SIZE_Y && z >= 0 && z < ChunkBase.SIZE_Z;
+    }
+
+    /**
+     * Block at local coordinates, air outside the chunk
+     */
+    public int get(int x, int y, int z) {
+        return inBounds(x, y, z) ? blocks[index(x, y, z)] : 0;
+    }
+
+    /**
+     * Block at a flat index from index(), no bounds check
+     */
+    public int get(int index) {
+        return blocks[index];
+    }
+
+    /**
+     * Copy with one block changed and the version bumped, this snapshot is left untouched
+     * The heightmap only rescans when the top opaque block of the column was removed.
+     */
+    public ChunkSnapshot withBlock(int x, int y, int z, int id, BlockRegistry registry) {
+        int[] copy = blocks.clone();
+        copy[index(x, y, z)] = id;
+
+        short[] newHeights = heights;
+        int height = heights[column(x, z)];
+        if (registry.isOpaque(id)) {
+            if (y >= height) {
+                newHeights = heights.clone();
+                newHeights[column(x, z)] = (short) (y + 1);
+            }
+        } else if (y == height - 1) {
+            int below = y - 1;
+            while (below >= 0 && !registry.isOpaque(copy[index(x, below, z)])) below--;
+            newHeights = heights.clone();
+            newHeights[column(x, z)] = (short) (below + 1);
+        }
+
+        int newTop = id != 0 ? Math.max(topBound, y + 1) : topBound;
+        return new ChunkSnapshot(copy, newHeights, newTop, version + 1);
+    }
+
+    /**
+     * One above the top opaque block of a column, 0 when the column has none.
+     * Everything from here up is open to the sky.
+     */
+    public int getHeight(int x, int z) {
+        return heights[column(x, z)];
+    }
+
+    /**
+     * No block of any kind at or above this y, lets scans skip empty air
+     */
+    public int getTopBound() {
+        return topBound;
+    }
+
+    private static int column(int x, int z) {
+        return x + z * ChunkBase.SIZE_X;
+    }
+
+    /**
+     * Nested copy in the layout the generator and the store use
+     */
+    public int[][][] toArray() {
+        int[][][] result = new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+        int i = 0;
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int y = 0; y < ChunkBase.SIZE_Y; y++) {
+                System.arraycopy(blocks, i, result[x][y], 0, ChunkBase.SIZE_Z);
+                i += ChunkBase.SIZE_Z;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Edits applied since the chunk was generated or loaded
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,17 @@
+package hmph.rendering.world.chunk;
+
+/**
+ * Detail level a chunk is meshed at, the factor is the edge length of the voxel cell
+ */
+public enum LODLevel {
+    HIGH(1),
+    MEDIUM(2),
+    LOW(4),
+    UNLOADED(0);
+
+    public final int simplificationFactor;
+
+    LODLevel(int factor) {
+        this.simplificationFactor = factor;
+    }
+}
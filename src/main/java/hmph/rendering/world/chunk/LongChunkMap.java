@@ -0,0 +1,265 @@
+package hmph.rendering.world.chunk;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Open-addressing map from packed chunk keys to values, no boxing on lookup.
+ * One writer thread (the main thread for the chunk manager) and any number of readers.
+ * Values are published with release/acquire so a reader that finds a slot sees the whole value.
+ * Keys never move inside a table: removal leaves a tombstone and the table is rebuilt
+ * and swapped in one store once tombstones pile up, so a probe can't miss an entry.
+ */
+public class LongChunkMap<V> {
+    private static final Object TOMBSTONE = new Object();
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final int MIN_CAPACITY = 16;
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    @FunctionalInterface
+    public interface EntryPredicate<V> {
+        boolean test(long key, V value);
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values; // null = never used, TOMBSTONE = removed
+        final int mask;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table;
+    private volatile int size = 0;
+    private int tombstones = 0;
+
+    public LongChunkMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongChunkMap(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * Lookup - safe from any thread
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Table t = table;
+        int i = hash(key) & t.mask;
+        while (true) {
+            Object value = VALUES.getAcquire(t.values, i);
+            if (value == null) return null;
+            if (t.keys[i] == key) {
+                return value == TOMBSTONE ? null : (V) value;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Insert or replace, null values are not allowed - writer thread only
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) throw new NullPointerException("LongChunkMap does not store null values");
+
+        Table t = table;
+        int i = hash(key) & t.mask;
+        while (true) {
+            Object current = t.values[i];
+            if (current == null) break;
+            if (t.keys[i] == key) {
+                VALUES.setRelease(t.values, i, value);
+                if (current == TOMBSTONE) {
+                    tombstones--;
+                    size++;
+                    return null;
+                }
+                return (V) current;
+            }
+            i = (i + 1) & t.mask;
+        }
+
+        // Key is new: rebuild first if this insert would push the table past half full,
+        // at the same size when it's mostly tombstones, doubled otherwise
+        if ((size + tombstones + 1) * 2 > t.keys.length) {
+            t = rebuild(tombstones > size ? t.keys.length : t.keys.length * 2);
+            i = hash(key) & t.mask;
+            while (t.values[i] != null) i = (i + 1) & t.mask;
+        }
+        t.keys[i] = key;
+        VALUES.setRelease(t.values, i, value);
+        size++;
+        return null;
+    }
+
+    /**
+     * Get the value for key, creating it if absent - writer thread only
+     */
+    public V computeIfAbsent(long key, LongFunction<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Remove and return the value for key - writer thread only
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        Table t = table;
+        int i = hash(key) & t.mask;
+        while (true) {
+            Object current = t.values[i];
+            if (current == null) return null;
+            if (t.keys[i] == key) {
+                if (current == TOMBSTONE) return null;
+                VALUES.setRelease(t.values, i, TOMBSTONE);
+                size--;
+                tombstones++;
+                return (V) current;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    /**
+     * Remove every entry the predicate accepts - writer thread only
+     */
+    @SuppressWarnings("unchecked")
+    public int removeIf(EntryPredicate<V> predicate) {
+        Table t = table;
+        int removed = 0;
+        for (int i = 0; i < t.values.length; i++) {
+            Object value = t.values[i];
+            if (value == null || value == TOMBSTONE) continue;
+            if (predicate.test(t.keys[i], (V) value)) {
+                VALUES.setRelease(t.values, i, TOMBSTONE);
+                removed++;
+            }
+        }
+        size -= removed;
+        tombstones += removed;
+        return removed;
+    }
+
+    /**
+     * Visit every entry - safe from any thread, readers see a weakly consistent view
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<V> action) {
+        Table t = table;
+        for (int i = 0; i < t.values.length; i++) {
+            Object value = VALUES.getAcquire(t.values, i);
+            if (value != null && value != TOMBSTONE) {
+                action.accept(t.keys[i], (V) value);
+            }
+        }
+    }
+
+    public void forEachValue(Consumer<V> action) {
+        forEach((key, value) -> action.accept(value));
+    }
+
+    /**
+     * Snapshot of the values
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        forEachValue(result::add);
+        return result;
+    }
+
+    /**
+     * Snapshot of the keys
+     */
+    public long[] keys() {
+        Table t = table;
+        long[] result = new long[t.keys.length];
+        int n = 0;
+        for (int i = 0; i < t.values.length; i++) {
+            Object value = VALUES.getAcquire(t.values, i);
+            if (value != null && value != TOMBSTONE) result[n++] = t.keys[i];
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Drop everything - writer thread only
+     */
+    public void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+        tombstones = 0;
+    }
+
+    /**
+     * Copy live entries into a fresh table and publish it, readers on the old table see a frozen snapshot
+     */
+    private Table rebuild(int capacity) {
+        Table old = table;
+        Table fresh = new Table(capacity);
+        for (int i = 0; i < old.values.length; i++) {
+            Object value = old.values[i];
+            if (value == null || value == TOMBSTONE) continue;
+            int j = hash(old.keys[i]) & fresh.mask;
+            while (fresh.values[j] != null) j = (j + 1) & fresh.mask;
+            fresh.keys[j] = old.keys[i];
+            fresh.values[j] = value;
+        }
+        tombstones = 0;
+        table = fresh;
+        return fresh;
+    }
+
+    /**
+     * Power of two with room for expectedSize at 50% load
+     */
+    private static int capacityFor(int expectedSize) {
+        int needed = Math.max(MIN_CAPACITY, expectedSize * 2);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    /**
+     * Chunk keys are x in the high word and z in the low word, both small and clustered,
+     * so the halves are folded and run through the murmur3 finalizer before masking
+     */
+    private static int hash(long key) {
+        long h = key ^ (key >>> 32);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,107 @@
+package hmph.rendering.world.chunk.light;
+
+import hmph.rendering.world.chunk.ChunkBase;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Sky and block light of one chunk, 4 bits per voxel in 16x16x16 sections.
+ * A section nobody wrote to has no array and one uniform value, so open sky above the
+ * terrain and solid rock below it cost nothing. Until the light engine runs everything
+ * reads as full skylight, the same as before there was a light engine.
+ * One writer at a time (the worker building the chunk, then the main thread), readers on any thread.
+ */
+public class ChunkLight {
+    public static final int SKY = 0;
+    public static final int BLOCK = 1;
+    public static final int MAX_LIGHT = 15;
+
+    private static final int SECTION_SIZE = 16;
+    private static final int SECTION_COUNT = ChunkBase.SIZE_Y / SECTION_SIZE;
+    private static final int SECTION_BYTES = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE / 2;
+    private static final VarHandle SECTIONS = MethodHandles.arrayElementVarHandle(byte[][].class);
+
+    // [channel][section], null = uniform
+    private final byte[][][] sections = new byte[2][SECTION_COUNT][];
+    private final byte[][] uniform = new byte[2][SECTION_COUNT];
+
+    public ChunkLight() {
+        Arrays.fill(uniform[SKY], (byte) MAX_LIGHT);
+    }
+
+    /**
+     * Light of one channel at local coordinates, 0 outside the chunk
+     */
+    public int get(int channel, int x, int y, int z) {
+        if (y < 0 || y >= ChunkBase.SIZE_Y) return 0;
+        byte[] data = (byte[]) SECTIONS.getAcquire(sections[channel], y >> 4);
+        if (data == null) return uniform[channel][y >> 4];
+
+        int i = index(x, y, z);
+        return (data[i >> 1] >> ((i & 1) << 2)) & 0xF;
+    }
+
+    /**
+     * Set light of one channel at local coordinates - writer thread only
+     */
+    public void set(int channel, int x, int y, int z, int level) {
+        int section = y >> 4;
+        byte[] data = sections[channel][section];
+        if (data == null) {
+            if (uniform[channel][section] == level) return;
+            data = allocate(channel, section);
+        }
+
+        int i = index(x, y, z);
+        int shift = (i & 1) << 2;
+        data[i >> 1] = (byte) ((data[i >> 1] & ~(0xF << shift)) | (level << shift));
+    }
+
+    /**
+     * Give a whole untouched section one value, for the initial fill - writer thread only
+     */
+    public void fillSection(int channel, int section, int level) {
+        SECTIONS.setRelease(sections[channel], section, null);
+        uniform[channel][section] = (byte) level;
+    }
+
+    public int getSky(int x, int y, int z) {
+        return get(SKY, x, y, z);
+    }
+
+    public int getBlockLight(int x, int y, int z) {
+        return get(BLOCK, x, y, z);
+    }
+
+    /**
+     * Both channels in one int, sky in bits 4-7 and block light in bits 0-3
+     */
+    public int getPacked(int x, int y, int z) {
+        return (get(SKY, x, y, z) << 4) | get(BLOCK, x, y, z);
+    }
+
+    public long getAllocatedBytes() {
+        long bytes = 0;
+        for (byte[][] channel : sections) {
+            for (byte[] data : channel) {
+                if (data != null) bytes += SECTION_BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    private byte[] allocate(int channel, int section) {
+        int level = uniform[channel][section];
+        byte[] data = new byte[SECTION_BYTES];
+        Arrays.fill(data, (byte) (level | (level << 4)));
+        // Filled before it is published, readers never see a blank section
+        SECTIONS.setRelease(sections[channel], section, data);
+        return data;
+    }
+
+    private static int index(int x, int y, int z) {
+        return ((y & 15) << 8) | (z << 4) | x;
+    }
+}
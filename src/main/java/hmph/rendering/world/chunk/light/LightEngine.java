@@ -0,0 +1,371 @@
+package hmph.rendering.world.chunk.light;
+
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkSnapshot;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Flood-fill light propagation over chunk columns, in world coordinates.
+ * Skylight enters from the top and travels straight down without losing strength,
+ * every other step (sideways, up, and down once below full strength) costs one level.
+ * Block light spreads from emitters the same way. Opaque blocks stop both.
+ *
+ * Edits relight incrementally: light that came from a removed source is cleared
+ * by a removal pass, and the edge of the cleared area refills it from what's left.
+ * An engine holds scratch queues, so one instance per thread.
+ */
+public class LightEngine {
+
+    /**
+     * Loaded chunk at chunk coordinates, null when there is none
+     */
+    @FunctionalInterface
+    public interface ChunkLookup {
+        ChunkBase get(int chunkX, int chunkZ);
+    }
+
+    private static final int[] DX = {0, 0, 1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 0, 0, 1, -1};
+    private static final int[] DZ = {-1, 1, 0, 0, 0, 0};
+    private static final int DOWN = 5;
+
+    private final BlockRegistry registry;
+    private final ChunkLookup chunks;
+
+    private final LongQueue propagation = new LongQueue();
+    private final LongQueue removal = new LongQueue();
+    // Border seeds found by stitch, one queue per channel
+    private final LongQueue skySeeds = new LongQueue();
+    private final LongQueue blockSeeds = new LongQueue();
+    private final Set<ChunkBase> touched = new LinkedHashSet<>();
+    private boolean trackTouched = false;
+    private ChunkBase cached = null;
+
+    public LightEngine(BlockRegistry registry, ChunkLookup chunks) {
+        this.registry = registry;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Light a freshly generated chunk on its own, neighbours are joined later by stitch().
+     * Runs on the worker that builds the chunk, before anyone else can see it.
+     */
+    public static void initialize(ChunkBase chunk, BlockRegistry registry) {
+        new LightEngine(registry, (chunkX, chunkZ) ->
+                chunkX == chunk.getChunkX() && chunkZ == chunk.getChunkZ() ? chunk : null).fill(chunk);
+    }
+
+    private void fill(ChunkBase chunk) {
+        ChunkLight light = chunk.getLight();
+        ChunkSnapshot blocks = chunk.getSnapshot();
+        int[] height = new int[ChunkBase.SIZE_X * ChunkBase.SIZE_Z];
+        int lowest = ChunkBase.SIZE_Y, highest = 0;
+
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                int h = blocks.getHeight(x, z);
+                height[x + z * ChunkBase.SIZE_X] = h;
+                lowest = Math.min(lowest, h);
+                highest = Math.max(highest, h);
+            }
+        }
+
+        // Sections entirely above the terrain keep uniform full sky, entirely below start dark
+        for (int section = 0; section < ChunkBase.SIZE_Y / 16; section++) {
+            int bottom = section * 16, top = bottom + 15;
+            if (top < lowest) {
+                light.fillSection(ChunkLight.SKY, section, 0);
+            } else if (bottom < highest) {
+                for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                    for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                        int h = height[x + z * ChunkBase.SIZE_X];
+                        for (int y = bottom; y <= top; y++) {
+                            light.set(ChunkLight.SKY, x, y, z, y >= h ? ChunkLight.MAX_LIGHT : 0);
+                        }
+                    }
+                }
+            }
+        }
+
+        // Only sky cells next to a taller column can spread sideways
+        int baseX = chunk.getChunkX() * ChunkBase.SIZE_X, baseZ = chunk.getChunkZ() * ChunkBase.SIZE_Z;
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                int h = height[x + z * ChunkBase.SIZE_X];
+                int neighbourTop = h;
+                if (x > 0) neighbourTop = Math.max(neighbourTop, height[x - 1 + z * ChunkBase.SIZE_X]);
+                if (x < ChunkBase.SIZE_X - 1) neighbourTop = Math.max(neighbourTop, height[x + 1 + z * ChunkBase.SIZE_X]);
+                if (z > 0) neighbourTop = Math.max(neighbourTop, height[x + (z - 1) * ChunkBase.SIZE_X]);
+                if (z < ChunkBase.SIZE_Z - 1) neighbourTop = Math.max(neighbourTop, height[x + (z + 1) * ChunkBase.SIZE_X]);
+                for (int y = h; y < neighbourTop; y++) {
+                    propagation.push(pack(baseX + x, y, baseZ + z, ChunkLight.MAX_LIGHT));
+                }
+            }
+        }
+        propagate(ChunkLight.SKY);
+
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int y = 0; y < blocks.getTopBound(); y++) {
+                for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                    int emission = registry.getLightEmission(blocks.get(x, y, z));
+                    if (emission > 0) {
+                        light.set(ChunkLight.BLOCK, x, y, z, emission);
+                        propagation.push(pack(baseX + x, y, baseZ + z, emission));
+                    }
+                }
+            }
+        }
+        propagate(ChunkLight.BLOCK);
+    }
+
+    /**
+     * Let light flow across the borders between a chunk and its loaded neighbours - main thread only
+     * Returns the chunks whose light or bordering faces changed, they need a remesh.
+     */
+    public Set<ChunkBase> stitch(ChunkBase chunk) {
+        begin();
+        int baseX = chunk.getChunkX() * ChunkBase.SIZE_X, baseZ = chunk.getChunkZ() * ChunkBase.SIZE_Z;
+        for (int side = 0; side < 4; side++) {
+            if (chunks.get(chunk.getChunkX() + DX[side], chunk.getChunkZ() + DZ[side]) == null) continue;
+
+            for (int k = 0; k < ChunkBase.SIZE_X; k++) {
+                // Border cell inside this chunk and the one across the border
+                int ax, az;
+                switch (side) {
+                    case 0: ax = baseX + k; az = baseZ; break;
+                    case 1: ax = baseX + k; az = baseZ + ChunkBase.SIZE_Z - 1; break;
+                    case 2: ax = baseX + ChunkBase.SIZE_X - 1; az = baseZ + k; break;
+                    default: ax = baseX; az = baseZ + k; break;
+                }
+                int bx = ax + DX[side], bz = az + DZ[side];
+                for (int y = 0; y < ChunkBase.SIZE_Y; y++) {
+                    for (int channel = ChunkLight.SKY; channel <= ChunkLight.BLOCK; channel++) {
+                        int a = getLight(channel, ax, y, az);
+                        int b = getLight(channel, bx, y, bz);
+                        if (a - 1 > b && !isOpaque(bx, y, bz)) {
+                            seed(channel, ax, y, az, a);
+                        } else if (b - 1 > a && !isOpaque(ax, y, az)) {
+                            seed(channel, bx, y, bz, b);
+                        }
+                    }
+                }
+            }
+        }
+        propagate(ChunkLight.SKY, skySeeds);
+        propagate(ChunkLight.BLOCK, blockSeeds);
+        return finish();
+    }
+
+    private void seed(int channel, int x, int y, int z, int level) {
+        (channel == ChunkLight.SKY ? skySeeds : blockSeeds).push(pack(x, y, z, level));
+    }
+
+    /**
+     * Relight around a block that was just changed - main thread only, after the block is set
+     * Returns the chunks whose light or bordering faces changed, they need a remesh.
+     */
+    public Set<ChunkBase> blockChanged(int x, int y, int z) {
+        begin();
+        int newId = getBlock(x, y, z);
+        boolean opaque = registry.isOpaque(newId);
+        int emission = registry.getLightEmission(newId);
+
+        for (int channel = ChunkLight.SKY; channel <= ChunkLight.BLOCK; channel++) {
+            int current = getLight(channel, x, y, z);
+            if (current > 0) {
+                // Whatever lit this cell, or was lit through it, may no longer apply
+                setLight(channel, x, y, z, 0);
+                removal.push(pack(x, y, z, current));
+                unlight(channel);
+            }
+
+            if (channel == ChunkLight.BLOCK && emission > 0) {
+                setLight(channel, x, y, z, emission);
+                propagation.push(pack(x, y, z, emission));
+            }
+            if (!opaque) {
+                pullFromNeighbours(channel, x, y, z);
+            }
+            propagate(channel);
+        }
+        return finish();
+    }
+
+    /**
+     * Queue every lit neighbour of a cell so it floods back in
+     */
+    private void pullFromNeighbours(int channel, int x, int y, int z) {
+        if (channel == ChunkLight.SKY && y == ChunkBase.SIZE_Y - 1) {
+            setLight(channel, x, y, z, ChunkLight.MAX_LIGHT);
+            propagation.push(pack(x, y, z, ChunkLight.MAX_LIGHT));
+        }
+        for (int d = 0; d < 6; d++) {
+            int nx = x + DX[d], ny = y + DY[d], nz = z + DZ[d];
+            int level = getLight(channel, nx, ny, nz);
+            if (level > 0) propagation.push(pack(nx, ny, nz, level));
+        }
+    }
+
+    /**
+     * Removal pass: clear light that was fed by the cells in the removal queue,
+     * cells lit from elsewhere are queued to flood back into the cleared area
+     */
+    private void unlight(int channel) {
+        while (!removal.isEmpty()) {
+            long entry = removal.pop();
+            int x = unpackX(entry), y = unpackY(entry), z = unpackZ(entry), level = unpackLevel(entry);
+
+            for (int d = 0; d < 6; d++) {
+                int nx = x + DX[d], ny = y + DY[d], nz = z + DZ[d];
+                if (ny < 0 || ny >= ChunkBase.SIZE_Y) continue;
+                int neighbour = getLight(channel, nx, ny, nz);
+                if (neighbour == 0) continue;
+
+                boolean fedByThis = neighbour < level
+                        || (channel == ChunkLight.SKY && d == DOWN && level == ChunkLight.MAX_LIGHT);
+                if (fedByThis) {
+                    setLight(channel, nx, ny, nz, 0);
+                    removal.push(pack(nx, ny, nz, neighbour));
+                    int emission = channel == ChunkLight.BLOCK ? registry.getLightEmission(getBlock(nx, ny, nz)) : 0;
+                    if (emission > 0) {
+                        setLight(channel, nx, ny, nz, emission);
+                        propagation.push(pack(nx, ny, nz, emission));
+                    }
+                } else {
+                    propagation.push(pack(nx, ny, nz, neighbour));
+                }
+            }
+        }
+    }
+
+    private void propagate(int channel) {
+        propagate(channel, propagation);
+    }
+
+    /**
+     * Spread light outward from every queued cell until nothing gets brighter
+     */
+    private void propagate(int channel, LongQueue queue) {
+        while (!queue.isEmpty()) {
+            long entry = queue.pop();
+            int x = unpackX(entry), y = unpackY(entry), z = unpackZ(entry);
+            int level = getLight(channel, x, y, z);
+            if (level <= 1) continue;
+
+            for (int d = 0; d < 6; d++) {
+                int nx = x + DX[d], ny = y + DY[d], nz = z + DZ[d];
+                if (ny < 0 || ny >= ChunkBase.SIZE_Y) continue;
+                ChunkBase chunk = chunkAt(nx, nz);
+                if (chunk == null || registry.isOpaque(chunk.getBlock(nx & 15, ny, nz & 15))) continue;
+
+                int next = channel == ChunkLight.SKY && d == DOWN && level == ChunkLight.MAX_LIGHT ? level : level - 1;
+                if (chunk.getLight().get(channel, nx & 15, ny, nz & 15) < next) {
+                    setLight(channel, nx, ny, nz, next);
+                    queue.push(pack(nx, ny, nz, next));
+                }
+            }
+        }
+    }
+
+    private void begin() {
+        touched.clear();
+        trackTouched = true;
+        cached = null;
+    }
+
+    private Set<ChunkBase> finish() {
+        trackTouched = false;
+        cached = null;
+        return touched;
+    }
+
+    private ChunkBase chunkAt(int x, int z) {
+        int chunkX = x >> 4, chunkZ = z >> 4;
+        ChunkBase chunk = cached;
+        if (chunk != null && chunk.getChunkX() == chunkX && chunk.getChunkZ() == chunkZ) return chunk;
+        chunk = chunks.get(chunkX, chunkZ);
+        if (chunk != null) cached = chunk;
+        return chunk;
+    }
+
+    private int getLight(int channel, int x, int y, int z) {
+        ChunkBase chunk = chunkAt(x, z);
+        return chunk != null ? chunk.getLight().get(channel, x & 15, y, z & 15) : 0;
+    }
+
+    private void setLight(int channel, int x, int y, int z, int level) {
+        ChunkBase chunk = chunkAt(x, z);
+        if (chunk == null) return;
+        chunk.getLight().set(channel, x & 15, y, z & 15, level);
+
+        if (trackTouched) {
+            touched.add(chunk);
+            // Faces in the neighbouring chunk sample border cells
+            int lx = x & 15, lz = z & 15;
+            if (lx == 0) touchChunk(chunk.getChunkX() - 1, chunk.getChunkZ());
+            if (lx == 15) touchChunk(chunk.getChunkX() + 1, chunk.getChunkZ());
+            if (lz == 0) touchChunk(chunk.getChunkX(), chunk.getChunkZ() - 1);
+            if (lz == 15) touchChunk(chunk.getChunkX(), chunk.getChunkZ() + 1);
+        }
+    }
+
+    private void touchChunk(int chunkX, int chunkZ) {
+        ChunkBase chunk = chunks.get(chunkX, chunkZ);
+        if (chunk != null) touched.add(chunk);
+    }
+
+    private int getBlock(int x, int y, int z) {
+        ChunkBase chunk = chunkAt(x, z);
+        return chunk != null ? chunk.getBlock(x & 15, y, z & 15) : 0;
+    }
+
+    private boolean isOpaque(int x, int y, int z) {
+        return registry.isOpaque(getBlock(x, y, z));
+    }
+
+    // Queue entries: 26-bit x, 26-bit z, 8-bit y, 4-bit level
+    private static long pack(int x, int y, int z, int level) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | ((long) y << 4) | level;
+    }
+
+    private static int unpackX(long entry) { return (int) (entry >> 38); }
+    private static int unpackZ(long entry) { return (int) ((entry << 26) >> 38); }
+    private static int unpackY(long entry) { return (int) (entry >>> 4) & 0xFF; }
+    private static int unpackLevel(long entry) { return (int) entry & 0xF; }
+
+    /**
+     * Growable FIFO of packed entries, emptied by every pass so it never wraps
+     */
+    private static final class LongQueue {
+        private long[] data = new long[1024];
+        private int head = 0, tail = 0;
+
+        void push(long value) {
+            if (tail == data.length) {
+                if (head > data.length / 2) {
+                    System.arraycopy(data, head, data, 0, tail - head);
+                } else {
+                    data = Arrays.copyOf(data, data.length * 2);
+                    System.arraycopy(data, head, data, 0, tail - head);
+                }
+                tail -= head;
+                head = 0;
+            }
+            data[tail++] = value;
+        }
+
+        long pop() {
+            long value = data[head++];
+            if (head == tail) head = tail = 0;
+            return value;
+        }
+
+        boolean isEmpty() {
+            return head == tail;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.rendering.camera.Camera;
+
+/**
+ * Per-frame visibility test, a chunk is drawn only when every culler accepts it
+ */
+public interface ChunkCuller {
+    /**
+     * Refresh for this frame - MUST be called on main thread, camera may be null
+     */
+    void update(Camera camera, int playerChunkX, int playerChunkZ);
+
+    boolean isChunkVisible(int chunkX, int chunkZ);
+
+    default String getStats() {
+        return "";
+    }
+}
@@ -0,0 +1,86 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkSnapshot;
+
+/**
+ * Builds coarse block grids for LOD meshing.
+ * Each factor^3 cube of blocks becomes one cell: solid when at least half of it is solid,
+ * with the most common non-air block as its type. Ties go to the block found first scanning
+ * top-down, so surface materials win over what's under them. Fully deterministic.
+ */
+public class ChunkDownsampler {
+    private ChunkDownsampler() {}
+
+    /**
+     * Downsample a chunk's blocks, factor must divide the chunk size (1, 2, 4, 8 or 16)
+     */
+    public static int[][][] downsample(ChunkBase chunk, int factor) {
+        return downsample(chunk.getSnapshot(), factor);
+    }
+
+    /**
+     * Downsample one version of a chunk's blocks, safe to run while the chunk is being edited
+     */
+    public static int[][][] downsample(ChunkSnapshot chunk, int factor) {
+        if (factor <= 0 || ChunkBase.SIZE_X % factor != 0 || ChunkBase.SIZE_Y % factor != 0 || ChunkBase.SIZE_Z % factor != 0) {
+            throw new IllegalArgumentException("Unsupported LOD factor: " + factor);
+        }
+
+        if (factor == 1) {
+            return chunk.toArray();
+        }
+
+        int sizeX = ChunkBase.SIZE_X / factor;
+        int sizeY = ChunkBase.SIZE_Y / factor;
+        int sizeZ = ChunkBase.SIZE_Z / factor;
+        int[][][] result = new int[sizeX][sizeY][sizeZ];
+
+        int cellVolume = factor * factor * factor;
+        int[] ids = new int[cellVolume];
+        int[] counts = new int[cellVolume];
+        // Cells starting at or above the top bound are all air, which is what result already holds
+        int filledCells = Math.min(sizeY, (chunk.getTopBound() + factor - 1) / factor);
+
+        for (int cx = 0; cx < sizeX; cx++) {
+            for (int cy = 0; cy < filledCells; cy++) {
+                for (int cz = 0; cz < sizeZ; cz++) {
+                    result[cx][cy][cz] = voteCell(chunk, cx * factor, cy * factor, cz * factor, factor, cellVolume, ids, counts);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int voteCell(ChunkSnapshot chunk, int baseX, int baseY, int baseZ, int factor, int cellVolume,
+                                int[] ids, int[] counts) {
+        int distinct = 0;
+        int solid = 0;
+
+        for (int dy = factor - 1; dy >= 0; dy--) {
+            for (int dx = 0; dx < factor; dx++) {
+                for (int dz = 0; dz < factor; dz++) {
+                    int id = chunk.get(baseX + dx, baseY + dy, baseZ + dz);
+                    if (id == 0) continue;
+                    solid++;
+
+                    int slot = 0;
+                    while (slot < distinct && ids[slot] != id) slot++;
+                    if (slot == distinct) {
+                        ids[distinct] = id;
+                        counts[distinct++] = 0;
+                    }
+                    counts[slot]++;
+                }
+            }
+        }
+
+        if (solid * 2 < cellVolume) return 0;
+
+        int best = 0;
+        for (int i = 1; i < distinct; i++) {
+            if (counts[i] > counts[best]) best = i;
+        }
+        return ids[best];
+    }
+}
@@ -0,0 +1,11 @@
+package hmph.rendering.world.chunk.strategy;
+
+/**
+ * Produces the block data for a chunk column
+ */
+public interface ChunkGenerator {
+    /**
+     * Fill a fresh SIZE_X x SIZE_Y x SIZE_Z block array - runs on a worker thread
+     */
+    int[][][] generate(int chunkX, int chunkZ);
+}
@@ -0,0 +1,16 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkMesh;
+import hmph.rendering.world.chunk.LODLevel;
+
+/**
+ * Turns a chunk's blocks into vertex data for a given detail level
+ */
+public interface ChunkMesher {
+    /**
+     * Build a new mesh for the chunk, null when the level has none - runs on a worker thread, no GL calls
+     * Nothing on the chunk is touched, the caller uploads the result with ChunkBase.upload.
+     */
+    ChunkMesh mesh(ChunkBase chunk, LODLevel lod);
+}
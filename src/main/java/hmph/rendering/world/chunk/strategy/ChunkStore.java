@@ -0,0 +1,19 @@
+package hmph.rendering.world.chunk.strategy;
+
+import java.io.IOException;
+
+/**
+ * Persistent storage for chunk columns. Both calls block and run on the I/O lane (virtual threads),
+ * they should respond to interruption since a load is cancelled when its column leaves range.
+ */
+public interface ChunkStore {
+    /**
+     * Read a saved column, null when it was never saved and has to be generated
+     */
+    int[][][] load(int chunkX, int chunkZ) throws IOException;
+
+    /**
+     * Write a column that was edited since it was loaded or generated
+     */
+    void save(int chunkX, int chunkZ, int[][][] blocks) throws IOException;
+}
@@ -0,0 +1,28 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.math.PerlinNoise;
+import hmph.rendering.world.dimensions.DimensionCreator;
+
+/**
+ * Default generator, delegates to DimensionCreator for one dimension
+ */
+public class DimensionChunkGenerator implements ChunkGenerator {
+    private final DimensionCreator dimensionCreator;
+    private final PerlinNoise perlin;
+    private final String dimensionName;
+
+    public DimensionChunkGenerator(DimensionCreator dimensionCreator, PerlinNoise perlin, String dimensionName) {
+        this.dimensionCreator = dimensionCreator;
+        this.perlin = perlin;
+        this.dimensionName = dimensionName;
+    }
+
+    @Override
+    public int[][][] generate(int chunkX, int chunkZ) {
+        return dimensionCreator.generateTerrain(dimensionName, chunkX, chunkZ, perlin).blocks;
+    }
+
+    public String getDimensionName() {
+        return dimensionName;
+    }
+}
@@ -0,0 +1,63 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.rendering.world.chunk.ChunkLOD;
+import hmph.rendering.world.chunk.LODLevel;
+
+/**
+ * Default policy, distance thresholds for each level with a hysteresis band around each one.
+ * A loaded chunk only drops to a coarser level once it is hysteresis past the threshold and
+ * only comes back once it is hysteresis inside it, so standing on a boundary doesn't flip it.
+ */
+public class DistanceLODPolicy implements LODPolicy {
+    private final float highDistance;
+    private final float mediumDistance;
+    private final float lowDistance;
+    private final float hysteresis;
+
+    public DistanceLODPolicy(float highDistance, float mediumDistance, float lowDistance) {
+        this(highDistance, mediumDistance, lowDistance, 0f);
+    }
+
+    public DistanceLODPolicy(float highDistance, float mediumDistance, float lowDistance, float hysteresis) {
+        this.highDistance = highDistance;
+        this.mediumDistance = mediumDistance;
+        this.lowDistance = lowDistance;
+        this.hysteresis = hysteresis;
+    }
+
+    @Override
+    public LODLevel select(ChunkLOD lod, float distance) {
+        LODLevel level = levelAt(distance);
+        LODLevel current = lod.currentLOD;
+        if (hysteresis <= 0f || current == LODLevel.UNLOADED || level == current) {
+            return level;
+        }
+
+        // Coarser levels sit later in the enum, shift the thresholds away from the current level
+        if (level.ordinal() > current.ordinal()) {
+            return levelAt(distance - hysteresis);
+        }
+        return levelAt(distance + hysteresis);
+    }
+
+    private LODLevel levelAt(float distance) {
+        if (distance <= highDistance) {
+            return LODLevel.HIGH;
+        } else if (distance <= mediumDistance) {
+            return LODLevel.MEDIUM;
+        } else if (distance <= lowDistance) {
+            return LODLevel.LOW;
+        } else {
+            return LODLevel.UNLOADED;
+        }
+    }
+
+    @Override
+    public float getUnloadDistance() {
+        return lowDistance;
+    }
+
+    public float getHysteresis() {
+        return hysteresis;
+    }
+}
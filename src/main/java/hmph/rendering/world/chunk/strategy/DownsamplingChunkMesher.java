@@ -0,0 +1,175 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.shapes.BlockMesh;
+import hmph.rendering.world.Direction;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkMesh;
+import hmph.rendering.world.chunk.ChunkSnapshot;
+import hmph.rendering.world.chunk.LODLevel;
+import hmph.rendering.world.chunk.light.ChunkLight;
+import hmph.rendering.world.chunk.visibility.SectionVisibility;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Default mesher. Full detail meshes the blocks directly, lower LODs mesh a majority-voted
+ * 2x2x2 or 4x4x4 grid with the same mesher. Side faces on the chunk border are always emitted,
+ * so they hang down like skirts and cover the gaps against neighbours meshed at a different LOD.
+ * Each face takes the light of the cell it looks into, and each corner is darkened by the
+ * opaque cells around it (ambient occlusion), baked in at mesh time.
+ */
+public class DownsamplingChunkMesher implements ChunkMesher {
+    private final BlockRegistry registry;
+
+    public DownsamplingChunkMesher(BlockRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public ChunkMesh mesh(ChunkBase chunk, LODLevel lod) {
+        int step = lod.simplificationFactor;
+        if (step == 0) return null;
+
+        List<Float> vertices = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+
+        // One version for the whole mesh, edits made meanwhile queue their own remesh
+        ChunkSnapshot source = chunk.getSnapshot();
+        int[][][] cells = ChunkDownsampler.downsample(source, step);
+        FaceLightSampler faceLight = new FaceLightSampler(chunk, step);
+        CornerOccluder occluder = new CornerOccluder(chunk, cells, step, registry);
+        for (int x = 0; x < cells.length; x++) {
+            for (int y = 0; y < cells[0].length; y++) {
+                for (int z = 0; z < cells[0][0].length; z++) {
+                    if (cells[x][y][z] != 0) {
+                        BlockMesh.addBlockMesh(x, y, z, cells, step, faceLight, occluder, vertices, indices, registry);
+                    }
+                }
+            }
+        }
+
+        return new ChunkMesh(chunk, vertices, indices, SectionVisibility.computeChunk(source, registry),
+                faceLight.estimatedSides | occluder.estimatedSides);
+    }
+
+    /**
+     * Light lookups for one mesh. Full detail reads the neighbouring voxel, across the border from
+     * the neighbour chunk when it is loaded. Coarse cells take the brightest voxel of the cell they
+     * face, and border faces of coarse meshes just get full sky.
+     */
+    private static final class FaceLightSampler implements BlockMesh.FaceLight {
+        private final ChunkLight light;
+        private final int step;
+        private final ChunkBase north, south, east, west;
+        int estimatedSides = 0;
+
+        FaceLightSampler(ChunkBase chunk, int step) {
+            this.light = chunk.getLight();
+            this.step = step;
+            boolean fullDetail = step == 1;
+            this.north = fullDetail ? chunk.getNeighbor(0, -1) : null;
+            this.south = fullDetail ? chunk.getNeighbor(0, 1) : null;
+            this.east = fullDetail ? chunk.getNeighbor(1, 0) : null;
+            this.west = fullDetail ? chunk.getNeighbor(-1, 0) : null;
+        }
+
+        @Override
+        public int light(int x, int y, int z, Direction dir) {
+            int nx = (x + (int) dir.x()) * step;
+            int ny = (y + (int) dir.y()) * step;
+            int nz = (z + (int) dir.z()) * step;
+            if (ny >= ChunkBase.SIZE_Y) return BlockMesh.FULL_SKY;
+            if (ny < 0) return 0;
+
+            boolean inside = nx >= 0 && nx < ChunkBase.SIZE_X && nz >= 0 && nz < ChunkBase.SIZE_Z;
+            if (step == 1) {
+                return inside ? light.getPacked(nx, ny, nz) : acrossBorder(nx, ny, nz, dir);
+            }
+            if (!inside) return BlockMesh.FULL_SKY;
+
+            int sky = 0, block = 0;
+            for (int dx = 0; dx < step; dx++) {
+                for (int dy = 0; dy < step; dy++) {
+                    for (int dz = 0; dz < step; dz++) {
+                        sky = Math.max(sky, light.getSky(nx + dx, ny + dy, nz + dz));
+                        block = Math.max(block, light.getBlockLight(nx + dx, ny + dy, nz + dz));
+                    }
+                }
+            }
+            return (sky << 4) | block;
+        }
+
+        private int acrossBorder(int x, int y, int z, Direction dir) {
+            ChunkBase neighbour;
+            int side;
+            switch (dir) {
+                case NORTH: neighbour = north; side = ChunkBase.LIGHT_SIDE_NORTH; break;
+                case SOUTH: neighbour = south; side = ChunkBase.LIGHT_SIDE_SOUTH; break;
+                case EAST: neighbour = east; side = ChunkBase.LIGHT_SIDE_EAST; break;
+                default: neighbour = west; side = ChunkBase.LIGHT_SIDE_WEST; break;
+            }
+            if (neighbour == null) {
+                // Guess open sky, redone once the neighbour is in
+                estimatedSides |= side;
+                return BlockMesh.FULL_SKY;
+            }
+            return neighbour.getLight().getPacked(x & 15, y, z & 15);
+        }
+    }
+
+    /**
+     * Occlusion lookups for one mesh, in cell coordinates. Full detail reads across the border from
+     * the neighbour chunks (diagonal ones included) through their snapshots, coarse cells outside
+     * the grid count as open like the skirts they sit on.
+     */
+    private static final class CornerOccluder implements BlockMesh.Occluder {
+        private final ChunkBase chunk;
+        private final int[][][] cells;
+        private final int step;
+        private final BlockRegistry registry;
+        // 3x3 around the chunk, looked up the first time a corner reaches across
+        private final ChunkSnapshot[] neighbours = new ChunkSnapshot[9];
+        private final boolean[] looked = new boolean[9];
+        int estimatedSides = 0;
+
+        CornerOccluder(ChunkBase chunk, int[][][] cells, int step, BlockRegistry registry) {
+            this.chunk = chunk;
+            this.cells = cells;
+            this.step = step;
+            this.registry = registry;
+        }
+
+        @Override
+        public boolean occludes(int x, int y, int z) {
+            if (y < 0 || y >= cells[0].length) return false;
+            if (x >= 0 && x < cells.length && z >= 0 && z < cells[0][0].length) {
+                return registry.isOpaque(cells[x][y][z]);
+            }
+            if (step != 1) return false;
+
+            int dx = x < 0 ? -1 : (x >= ChunkBase.SIZE_X ? 1 : 0);
+            int dz = z < 0 ? -1 : (z >= ChunkBase.SIZE_Z ? 1 : 0);
+            ChunkSnapshot neighbour = neighbour(dx, dz);
+            return neighbour != null && registry.isOpaque(neighbour.get(x & 15, y, z & 15));
+        }
+
+        private ChunkSnapshot neighbour(int dx, int dz) {
+            int slot = (dx + 1) * 3 + dz + 1;
+            if (!looked[slot]) {
+                looked[slot] = true;
+                ChunkBase other = chunk.getNeighbor(dx, dz);
+                neighbours[slot] = other != null ? other.getSnapshot() : null;
+                if (other == null) {
+                    // Guess open, redone once the neighbour is in
+                    if (dz < 0) estimatedSides |= ChunkBase.LIGHT_SIDE_NORTH;
+                    if (dz > 0) estimatedSides |= ChunkBase.LIGHT_SIDE_SOUTH;
+                    if (dx > 0) estimatedSides |= ChunkBase.LIGHT_SIDE_EAST;
+                    if (dx < 0) estimatedSides |= ChunkBase.LIGHT_SIDE_WEST;
+                }
+            }
+            return neighbours[slot];
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.rendering.world.chunk.ChunkLOD;
+import hmph.rendering.world.chunk.LODLevel;
+
+/**
+ * Decides what detail level a chunk should be shown at
+ */
+public interface LODPolicy {
+    /**
+     * Level wanted for a chunk whose center is distance blocks from the player, UNLOADED drops it
+     */
+    LODLevel select(ChunkLOD lod, float distance);
+
+    /**
+     * Distance from the player (to a chunk center) past which chunks are never loaded
+     */
+    float getUnloadDistance();
+}
@@ -0,0 +1,177 @@
+package hmph.rendering.world.chunk.visibility;
+
+import hmph.math.Vector3f;
+import hmph.rendering.camera.Camera;
+import hmph.rendering.world.Direction;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.strategy.ChunkCuller;
+
+/**
+ * Breadth-first section traversal from the camera through the face connectivity graph.
+ * Sections that can't be reached through air (sealed caves, the ground under the player)
+ * are reported as hidden even when they sit inside the frustum.
+ */
+public class CaveCuller implements ChunkCuller {
+
+    @FunctionalInterface
+    public interface SectionSource {
+        /**
+         * Connectivity of a section, SectionVisibility.ALL if the chunk isn't known yet
+         */
+        long getConnectivity(int chunkX, int sectionY, int chunkZ);
+    }
+
+    private static final int SECTIONS = SectionVisibility.SECTION_COUNT;
+    private static final int NO_FACE = 7;
+
+    private static final int[] DX = new int[SectionVisibility.FACE_COUNT];
+    private static final int[] DY = new int[SectionVisibility.FACE_COUNT];
+    private static final int[] DZ = new int[SectionVisibility.FACE_COUNT];
+
+    static {
+        for (Direction dir : Direction.values()) {
+            DX[dir.ordinal()] = (int) dir.x();
+            DY[dir.ordinal()] = (int) dir.y();
+            DZ[dir.ordinal()] = (int) dir.z();
+        }
+    }
+
+    private final int radius;
+    private final int width;
+    private final SectionSource source;
+
+    // Stamped per update so nothing has to be cleared between frames
+    private final int[] sectionStamp;
+    private final int[] columnStamp;
+    private final long[] connectivity;
+    private final int[] queue;
+    private int stamp = 0;
+
+    private int centerX, centerZ;
+    private int visibleSections = 0;
+
+    public CaveCuller(int radius) {
+        this(radius, null);
+    }
+
+    /**
+     * Culler that reads connectivity from source when driven through the ChunkCuller interface
+     */
+    public CaveCuller(int radius, SectionSource source) {
+        this.source = source;
+        this.radius = radius + 1;
+        this.width = this.radius * 2 + 1;
+        this.sectionStamp = new int[width * width * SECTIONS];
+        this.columnStamp = new int[width * width];
+        this.connectivity = new long[width * width * SECTIONS];
+        this.queue = new int[width * width * SECTIONS];
+    }
+
+    @Override
+    public void update(Camera camera, int playerChunkX, int playerChunkZ) {
+        if (camera == null || source == null) return;
+        Vector3f eye = camera.getPosition();
+        update(eye.x, eye.y, eye.z, source);
+    }
+
+    /**
+     * Run the traversal for this frame from the camera's world position
+     */
+    public void update(float cameraX, float cameraY, float cameraZ, SectionSource source) {
+        nextStamp();
+        centerX = Math.floorDiv((int) Math.floor(cameraX), ChunkBase.SIZE_X);
+        centerZ = Math.floorDiv((int) Math.floor(cameraZ), ChunkBase.SIZE_Z);
+        int startSection = Math.floorDiv((int) Math.floor(cameraY), SectionVisibility.SECTION_SIZE);
+        startSection = Math.max(0, Math.min(SECTIONS - 1, startSection));
+
+        int head = 0, tail = 0;
+        int start = index(radius, startSection, radius);
+        markVisible(start, radius, radius, SectionVisibility.ALL);
+        queue[tail++] = pack(start, NO_FACE, 0);
+        visibleSections = 1;
+
+        while (head < tail) {
+            int entry = queue[head++];
+            int idx = entry >>> 9;
+            int entryFace = (entry >>> 6) & 7;
+            int travelled = entry & 63;
+
+            int lx = idx % width;
+            int lz = (idx / width) % width;
+            int sy = idx / (width * width);
+            long vis = connectivity[idx];
+
+            for (int face = 0; face < SectionVisibility.FACE_COUNT; face++) {
+                // Never step back against a direction already taken, keeps the search outward-facing
+                if ((travelled & (1 << SectionVisibility.opposite(face))) != 0) continue;
+                if (entryFace != NO_FACE && !SectionVisibility.isConnected(vis, entryFace, face)) continue;
+
+                int nx = lx + DX[face];
+                int ny = sy + DY[face];
+                int nz = lz + DZ[face];
+                if (nx < 0 || nx >= width || nz < 0 || nz >= width || ny < 0 || ny >= SECTIONS) continue;
+
+                int next = index(nx, ny, nz);
+                if (sectionStamp[next] == stamp) continue;
+
+                long nextVis = source.getConnectivity(centerX + nx - radius, ny, centerZ + nz - radius);
+                markVisible(next, nx, nz, nextVis);
+                visibleSections++;
+                queue[tail++] = pack(next, SectionVisibility.opposite(face), travelled | (1 << face));
+            }
+        }
+    }
+
+    /**
+     * Check if any section of a chunk column was reached in the last update.
+     * Chunks outside the traversal grid are never culled here.
+     */
+    @Override
+    public boolean isChunkVisible(int chunkX, int chunkZ) {
+        if (stamp == 0) return true;
+        int lx = chunkX - centerX + radius;
+        int lz = chunkZ - centerZ + radius;
+        if (lx < 0 || lx >= width || lz < 0 || lz >= width) return true;
+        return columnStamp[lz * width + lx] == stamp;
+    }
+
+    public boolean isSectionVisible(int chunkX, int sectionY, int chunkZ) {
+        if (stamp == 0) return true;
+        int lx = chunkX - centerX + radius;
+        int lz = chunkZ - centerZ + radius;
+        if (lx < 0 || lx >= width || lz < 0 || lz >= width || sectionY < 0 || sectionY >= SECTIONS) return true;
+        return sectionStamp[index(lx, sectionY, lz)] == stamp;
+    }
+
+    public int getVisibleSectionCount() {
+        return visibleSections;
+    }
+
+    @Override
+    public String getStats() {
+        return "Sections reached: " + visibleSections;
+    }
+
+    private void markVisible(int idx, int lx, int lz, long vis) {
+        sectionStamp[idx] = stamp;
+        connectivity[idx] = vis;
+        columnStamp[lz * width + lx] = stamp;
+    }
+
+    private void nextStamp() {
+        stamp++;
+        if (stamp == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(sectionStamp, 0);
+            java.util.Arrays.fill(columnStamp, 0);
+            stamp = 1;
+        }
+    }
+
+    private int index(int lx, int sy, int lz) {
+        return (sy * width + lz) * width + lx;
+    }
+
+    private static int pack(int idx, int entryFace, int travelled) {
+        return (idx << 9) | (entryFace << 6) | travelled;
+    }
+}
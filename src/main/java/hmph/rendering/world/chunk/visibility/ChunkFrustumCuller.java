@@ -0,0 +1,127 @@
+package hmph.rendering.world.chunk.visibility;
+
+import hmph.math.Frustum;
+import hmph.rendering.camera.Camera;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.strategy.ChunkCuller;
+
+/**
+ * Frustum test for every chunk column in the render square, done once per frame.
+ * Bounds are kept as structure-of-arrays and only rebuilt when the player changes chunk,
+ * the resulting bitset is what both the LOD update and the draw loop read.
+ */
+public class ChunkFrustumCuller implements ChunkCuller {
+    private static final float ASPECT_RATIO = 16f / 9f;
+
+    private final int radius;
+    private final int width;
+    private final int count;
+
+    private final float[] minX, minY, minZ;
+    private final float[] maxX, maxY, maxZ;
+    private final long[] visibleBits;
+
+    private int originChunkX = Integer.MIN_VALUE;
+    private int originChunkZ = Integer.MIN_VALUE;
+    private boolean culled = false;
+    private int visibleCount = 0;
+
+    public ChunkFrustumCuller(int radius) {
+        this.radius = radius;
+        this.width = radius * 2 + 1;
+        this.count = width * width;
+        this.minX = new float[count];
+        this.minY = new float[count];
+        this.minZ = new float[count];
+        this.maxX = new float[count];
+        this.maxY = new float[count];
+        this.maxZ = new float[count];
+        this.visibleBits = new long[(count + 63) >>> 6];
+    }
+
+    /**
+     * Refresh the camera frustum out to the render square and cull it, no camera means no culling
+     */
+    @Override
+    public void update(Camera camera, int playerChunkX, int playerChunkZ) {
+        if (camera == null) {
+            reset();
+            return;
+        }
+        camera.updateFrustum(ASPECT_RATIO, 0.1f, radius * ChunkBase.SIZE_X * 1.5f);
+        update(camera.getFrustum(), playerChunkX, playerChunkZ);
+    }
+
+    /**
+     * Cull the whole square around the player chunk against the frustum
+     */
+    public void update(Frustum frustum, int playerChunkX, int playerChunkZ) {
+        if (playerChunkX != originChunkX || playerChunkZ != originChunkZ) {
+            rebuildBounds(playerChunkX, playerChunkZ);
+        }
+
+        frustum.cullAABBs(minX, minY, minZ, maxX, maxY, maxZ, count, visibleBits);
+        culled = true;
+
+        int visible = 0;
+        for (long word : visibleBits) {
+            visible += Long.bitCount(word);
+        }
+        visibleCount = visible;
+    }
+
+    /**
+     * Forget the last result, everything reports visible until the next update
+     */
+    public void reset() {
+        culled = false;
+    }
+
+    /**
+     * Check the last frame's result, chunks outside the square are reported as not visible
+     */
+    public boolean isVisible(int chunkX, int chunkZ) {
+        if (!culled) return true;
+        int lx = chunkX - originChunkX + radius;
+        int lz = chunkZ - originChunkZ + radius;
+        if (lx < 0 || lx >= width || lz < 0 || lz >= width) return false;
+        int i = lz * width + lx;
+        return (visibleBits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    @Override
+    public boolean isChunkVisible(int chunkX, int chunkZ) {
+        return isVisible(chunkX, chunkZ);
+    }
+
+    @Override
+    public String getStats() {
+        return "Frustum: " + getVisibleCount() + "/" + count;
+    }
+
+    public int getVisibleCount() {
+        return culled ? visibleCount : count;
+    }
+
+    public int getTotalCount() {
+        return count;
+    }
+
+    private void rebuildBounds(int playerChunkX, int playerChunkZ) {
+        originChunkX = playerChunkX;
+        originChunkZ = playerChunkZ;
+        for (int lz = 0; lz < width; lz++) {
+            for (int lx = 0; lx < width; lx++) {
+                int i = lz * width + lx;
+                float x = (playerChunkX + lx - radius) * (float) ChunkBase.SIZE_X;
+                float z = (playerChunkZ + lz - radius) * (float) ChunkBase.SIZE_Z;
+                minX[i] = x;
+                minY[i] = 0f;
+                minZ[i] = z;
+                maxX[i] = x + ChunkBase.SIZE_X;
+                maxY[i] = ChunkBase.SIZE_Y;
+                maxZ[i] = z + ChunkBase.SIZE_Z;
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package hmph.rendering.world.chunk.visibility;
+
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.world.Direction;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkSnapshot;
+
+/**
+ * Face-to-face connectivity for 16x16x16 chunk sections.
+ * Bit (a * 6 + b) is set when face a can see face b through non-opaque blocks,
+ * faces are indexed by Direction.ordinal() so the opposite face is always ordinal ^ 1.
+ */
+public class SectionVisibility {
+    public static final int SECTION_SIZE = 16;
+    public static final int SECTION_COUNT = ChunkBase.SIZE_Y / SECTION_SIZE;
+    public static final int FACE_COUNT = 6;
+
+    public static final long NONE = 0L;
+    public static final long ALL = (1L << (FACE_COUNT * FACE_COUNT)) - 1;
+
+    private static final int CELLS = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE;
+
+    private SectionVisibility() {}
+
+    public static boolean isConnected(long visibility, int faceA, int faceB) {
+        return (visibility & (1L << (faceA * FACE_COUNT + faceB))) != 0;
+    }
+
+    public static int opposite(int face) {
+        return face ^ 1;
+    }
+
+    /**
+     * Compute connectivity for every section of a chunk.
+     * Runs on whatever thread prepares the mesh, the scratch arrays are shared across sections.
+     */
+    public static long[] computeChunk(ChunkSnapshot chunk, BlockRegistry registry) {
+        long[] result = new long[SECTION_COUNT];
+        boolean[] visited = new boolean[CELLS];
+        int[] queue = new int[CELLS];
+
+        for (int section = 0; section < SECTION_COUNT; section++) {
+            result[section] = computeSection(chunk, registry, section * SECTION_SIZE, visited, queue);
+        }
+        return result;
+    }
+
+    /**
+     * Flood fill each open region of one section and record which faces it touches
+     */
+    static long computeSection(ChunkSnapshot chunk, BlockRegistry registry, int baseY, boolean[] visited, int[] queue) {
+        int openCells = 0;
+        for (int i = 0; i < CELLS; i++) {
+            boolean opaque = registry.isOpaque(chunk.get(cellX(i), baseY + cellY(i), cellZ(i)));
+            visited[i] = opaque;
+            if (!opaque) openCells++;
+        }
+
+        if (openCells == 0) return NONE;
+        if (openCells == CELLS) return ALL;
+
+        long visibility = NONE;
+        for (int start = 0; start < CELLS; start++) {
+            if (visited[start]) continue;
+
+            int faces = floodFill(start, visited, queue);
+            for (int a = 0; a < FACE_COUNT; a++) {
+                if ((faces & (1 << a)) == 0) continue;
+                for (int b = 0; b < FACE_COUNT; b++) {
+                    if ((faces & (1 << b)) != 0) {
+                        visibility |= 1L << (a * FACE_COUNT + b);
+                    }
+                }
+            }
+            if (visibility == ALL) break;
+        }
+        return visibility;
+    }
+
+    /**
+     * Returns a bitmask of the faces touched by the region containing start
+     */
+    private static int floodFill(int start, boolean[] visited, int[] queue) {
+        int head = 0, tail = 0;
+        int faces = 0;
+        queue[tail++] = start;
+        visited[start] = true;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cellX(cell), y = cellY(cell), z = cellZ(cell);
+
+            if (z == 0) faces |= 1 << Direction.NORTH.ordinal();
+            if (z == SECTION_SIZE - 1) faces |= 1 << Direction.SOUTH.ordinal();
+            if (x == SECTION_SIZE - 1) faces |= 1 << Direction.EAST.ordinal();
+            if (x == 0) faces |= 1 << Direction.WEST.ordinal();
+            if (y == SECTION_SIZE - 1) faces |= 1 << Direction.UP.ordinal();
+            if (y == 0) faces |= 1 << Direction.DOWN.ordinal();
+
+            if (x > 0) tail = visit(cell - 1, visited, queue, tail);
+            if (x < SECTION_SIZE - 1) tail = visit(cell + 1, visited, queue, tail);
+            if (z > 0) tail = visit(cell - SECTION_SIZE, visited, queue, tail);
+            if (z < SECTION_SIZE - 1) tail = visit(cell + SECTION_SIZE, visited, queue, tail);
+            if (y > 0) tail = visit(cell - SECTION_SIZE * SECTION_SIZE, visited, queue, tail);
+            if (y < SECTION_SIZE - 1) tail = visit(cell + SECTION_SIZE * SECTION_SIZE, visited, queue, tail);
+        }
+        return faces;
+    }
+
+    private static int visit(int cell, boolean[] visited, int[] queue, int tail) {
+        if (!visited[cell]) {
+            visited[cell] = true;
+            queue[tail++] = cell;
+        }
+        return tail;
+    }
+
+    // Cell index layout is y-major: (y * 16 + z) * 16 + x
+    private static int cellX(int cell) { return cell & 15; }
+    private static int cellZ(int cell) { return (cell >> 4) & 15; }
+    private static int cellY(int cell) { return cell >> 8; }
+}
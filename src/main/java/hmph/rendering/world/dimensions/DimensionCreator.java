@@ -98,20 +98,7 @@ public class DimensionCreator {
                 int worldX = chunkX * 16 + x;
                 int worldZ = chunkZ * 16 + z;
 
-                // Generate height using multiple noise layers
-                double continentHeight = continentNoise.noise(worldX * CONTINENT_SCALE, 0, worldZ * CONTINENT_SCALE);
-                double terrainHeight = terrainNoise.noise(worldX * TERRAIN_SCALE, 0, worldZ * TERRAIN_SCALE);
-                double detailHeight = detailNoise.noise(worldX * DETAIL_SCALE, 0, worldZ * DETAIL_SCALE);
-
-                // Combine noise layers with different weights
-                double combinedNoise =
-                        continentHeight * 0.5 +     // Large scale landmasses
-                                terrainHeight * 0.3 +       // Medium scale hills
-                                detailHeight * 0.2;         // Fine detail
-
-                // Convert to height
-                int baseHeight = (int) ((combinedNoise * 0.5 + 0.5) * (MAX_HEIGHT - SEA_LEVEL)) + SEA_LEVEL;
-                baseHeight = Math.max(MIN_HEIGHT, Math.min(baseHeight, MAX_HEIGHT));
+                int baseHeight = computeBaseHeight(worldX, worldZ);
 
                 // Determine biome
                 String biome = determineBiome(worldX, worldZ, baseHeight);
@@ -154,6 +141,48 @@ public class DimensionCreator {
         return new TerrainData(blocks, blocksGenerated, primaryBiome);
     }
 
+    /**
+     * Height from the layered noise before any biome adjustment
+     */
+    private int computeBaseHeight(int worldX, int worldZ) {
+        // Generate height using multiple noise layers
+        double continentHeight = continentNoise.noise(worldX * CONTINENT_SCALE, 0, worldZ * CONTINENT_SCALE);
+        double terrainHeight = terrainNoise.noise(worldX * TERRAIN_SCALE, 0, worldZ * TERRAIN_SCALE);
+        double detailHeight = detailNoise.noise(worldX * DETAIL_SCALE, 0, worldZ * DETAIL_SCALE);
+
+        // Combine noise layers with different weights
+        double combinedNoise =
+                continentHeight * 0.5 +     // Large scale landmasses
+                        terrainHeight * 0.3 +       // Medium scale hills
+                        detailHeight * 0.2;         // Fine detail
+
+        // Convert to height
+        int baseHeight = (int) ((combinedNoise * 0.5 + 0.5) * (MAX_HEIGHT - SEA_LEVEL)) + SEA_LEVEL;
+        return Math.max(MIN_HEIGHT, Math.min(baseHeight, MAX_HEIGHT));
+    }
+
+    /**
+     * Surface height and biome of one overworld column, filled in by sampleSurface
+     */
+    public static class SurfaceSample {
+        public int height;
+        public String biome;
+    }
+
+    /**
+     * Sample the overworld surface without generating blocks - safe from any thread
+     * Matches the generated terrain height, caves and surface features are ignored.
+     */
+    public void sampleSurface(int worldX, int worldZ, SurfaceSample out) {
+        int baseHeight = computeBaseHeight(worldX, worldZ);
+        out.biome = determineBiome(worldX, worldZ, baseHeight);
+        out.height = adjustHeightForBiome(baseHeight, out.biome, worldX, worldZ);
+    }
+
+    public int getSeaLevel() {
+        return SEA_LEVEL;
+    }
+
     private String determineBiome(int worldX, int worldZ, int height) {
         double temperature = continentNoise.noise(worldX * BIOME_SCALE, 100, worldZ * BIOME_SCALE);
         double humidity = terrainNoise.noise(worldX * BIOME_SCALE, 200, worldZ * BIOME_SCALE);
@@ -0,0 +1,208 @@
+package hmph.rendering.world.terrain;
+
+import hmph.rendering.world.dimensions.DimensionCreator;
+import org.lwjgl.BufferUtils;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * One square quad-tree leaf of the far terrain: a PATCH_RESOLUTION^2 height grid
+ * coloured by biome, with skirts around the edge to hide cracks against coarser neighbours.
+ */
+public class FarTerrainPatch {
+    public static final int RESOLUTION = 16;
+    public static final int GRID_VERTICES = (RESOLUTION + 1) * (RESOLUTION + 1);
+    public static final int VERTEX_COUNT = GRID_VERTICES + 4 * (RESOLUTION + 1);
+    public static final int INDEX_COUNT = RESOLUTION * RESOLUTION * 6 + 4 * RESOLUTION * 6;
+    static final int FLOATS_PER_VERTEX = 9; // pos3 + normal3 + color3
+
+    final long key;
+    final int level;
+    final int originX, originZ, size;
+    float minY, maxY;
+    // Main thread only, set once the build has been handed to a worker
+    boolean submitted = false;
+
+    // Written once by the worker, read by the main thread after it shows up in the built queue
+    private volatile float[] vertexData = null;
+    private int vao = 0, vbo = 0;
+
+    FarTerrainPatch(long key, int level, int originX, int originZ, int size) {
+        this.key = key;
+        this.level = level;
+        this.originX = originX;
+        this.originZ = originZ;
+        this.size = size;
+    }
+
+    /**
+     * Sample heights and build vertex data - runs on a far terrain worker, no GL calls
+     */
+    void build(DimensionCreator dimensionCreator) {
+        int spacing = size / RESOLUTION;
+        int samples = RESOLUTION + 3; // one extra ring for normals
+        int[] heights = new int[samples * samples];
+        String[] biomes = new String[samples * samples];
+        DimensionCreator.SurfaceSample sample = new DimensionCreator.SurfaceSample();
+
+        for (int j = 0; j < samples; j++) {
+            for (int i = 0; i < samples; i++) {
+                dimensionCreator.sampleSurface(originX + (i - 1) * spacing, originZ + (j - 1) * spacing, sample);
+                heights[j * samples + i] = sample.height;
+                biomes[j * samples + i] = sample.biome;
+            }
+        }
+
+        float[] data = new float[VERTEX_COUNT * FLOATS_PER_VERTEX];
+        float low = Float.MAX_VALUE, high = -Float.MAX_VALUE;
+
+        for (int j = 0; j <= RESOLUTION; j++) {
+            for (int i = 0; i <= RESOLUTION; i++) {
+                int s = (j + 1) * samples + (i + 1);
+                // Top of the surface block, not its base
+                float y = heights[s] + 1;
+                low = Math.min(low, y);
+                high = Math.max(high, y);
+
+                float nx = heights[s - 1] - heights[s + 1];
+                float ny = 2f * spacing;
+                float nz = heights[s - samples] - heights[s + samples];
+                float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+
+                int o = (j * (RESOLUTION + 1) + i) * FLOATS_PER_VERTEX;
+                data[o] = originX + i * spacing;
+                data[o + 1] = y;
+                data[o + 2] = originZ + j * spacing;
+                data[o + 3] = nx / length;
+                data[o + 4] = ny / length;
+                data[o + 5] = nz / length;
+                writeColor(data, o + 6, biomes[s], heights[s]);
+            }
+        }
+
+        // Skirts hang below each edge, deep enough to cover the step to a coarser patch
+        float skirtDepth = spacing * 2f;
+        for (int edge = 0; edge < 4; edge++) {
+            for (int k = 0; k <= RESOLUTION; k++) {
+                int src = gridIndex(edge, k) * FLOATS_PER_VERTEX;
+                int dst = (GRID_VERTICES + edge * (RESOLUTION + 1) + k) * FLOATS_PER_VERTEX;
+                System.arraycopy(data, src, data, dst, FLOATS_PER_VERTEX);
+                data[dst + 1] -= skirtDepth;
+            }
+        }
+
+        minY = low - skirtDepth;
+        maxY = high;
+        vertexData = data;
+    }
+
+    /**
+     * Upload vertex data and hook it to the shared index buffer - MUST be called on main thread
+     */
+    void upload(int sharedEbo) {
+        float[] data = vertexData;
+        if (data == null) return;
+
+        FloatBuffer buffer = BufferUtils.createFloatBuffer(data.length);
+        buffer.put(data).flip();
+
+        vao = glGenVertexArrays();
+        glBindVertexArray(vao);
+        vbo = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, vbo);
+        glBufferData(GL_ARRAY_BUFFER, buffer, GL_STATIC_DRAW);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, sharedEbo);
+
+        int stride = FLOATS_PER_VERTEX * Float.BYTES;
+        glVertexAttribPointer(0, 3, GL_FLOAT, false, stride, 0);
+        glEnableVertexAttribArray(0);
+        glVertexAttribPointer(1, 3, GL_FLOAT, false, stride, 3 * Float.BYTES);
+        glEnableVertexAttribArray(1);
+        glVertexAttribPointer(2, 3, GL_FLOAT, false, stride, 6 * Float.BYTES);
+        glEnableVertexAttribArray(2);
+
+        glBindVertexArray(0);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        vertexData = null;
+    }
+
+    void render() {
+        glBindVertexArray(vao);
+        glDrawElements(GL_TRIANGLES, INDEX_COUNT, GL_UNSIGNED_INT, 0);
+    }
+
+    boolean isUploaded() { return vao != 0; }
+
+    void cleanup() {
+        if (vbo != 0) {
+            glDeleteBuffers(vbo);
+            vbo = 0;
+        }
+        if (vao != 0) {
+            glDeleteVertexArrays(vao);
+            vao = 0;
+        }
+        vertexData = null;
+    }
+
+    /**
+     * Index data shared by every patch, grid quads followed by the four skirt strips
+     */
+    static int[] buildIndices() {
+        int[] indices = new int[INDEX_COUNT];
+        int n = 0;
+        for (int j = 0; j < RESOLUTION; j++) {
+            for (int i = 0; i < RESOLUTION; i++) {
+                int a = j * (RESOLUTION + 1) + i;
+                int b = a + 1;
+                int c = a + RESOLUTION + 1;
+                int d = c + 1;
+                indices[n++] = a; indices[n++] = c; indices[n++] = b;
+                indices[n++] = b; indices[n++] = c; indices[n++] = d;
+            }
+        }
+        for (int edge = 0; edge < 4; edge++) {
+            for (int k = 0; k < RESOLUTION; k++) {
+                int top0 = gridIndex(edge, k);
+                int top1 = gridIndex(edge, k + 1);
+                int bottom0 = GRID_VERTICES + edge * (RESOLUTION + 1) + k;
+                int bottom1 = bottom0 + 1;
+                indices[n++] = top0; indices[n++] = bottom0; indices[n++] = top1;
+                indices[n++] = top1; indices[n++] = bottom0; indices[n++] = bottom1;
+            }
+        }
+        return indices;
+    }
+
+    // Edges: 0 = north row, 1 = south row, 2 = west column, 3 = east column
+    private static int gridIndex(int edge, int k) {
+        switch (edge) {
+            case 0: return k;
+            case 1: return RESOLUTION * (RESOLUTION + 1) + k;
+            case 2: return k * (RESOLUTION + 1);
+            default: return k * (RESOLUTION + 1) + RESOLUTION;
+        }
+    }
+
+    private static void writeColor(float[] data, int offset, String biome, int height) {
+        float r, g, b;
+        switch (biome == null ? "" : biome) {
+            case "desert": r = 0.86f; g = 0.80f; b = 0.55f; break;
+            case "swamp": r = 0.33f; g = 0.40f; b = 0.25f; break;
+            case "forest": r = 0.20f; g = 0.42f; b = 0.17f; break;
+            case "taiga": r = 0.90f; g = 0.93f; b = 0.95f; break;
+            case "mountains":
+                if (height > 100) { r = 0.92f; g = 0.94f; b = 0.96f; }
+                else { r = 0.50f; g = 0.50f; b = 0.52f; }
+                break;
+            default: r = 0.38f; g = 0.60f; b = 0.25f; break;
+        }
+        data[offset] = r;
+        data[offset + 1] = g;
+        data[offset + 2] = b;
+    }
+}
@@ -0,0 +1,348 @@
+package hmph.rendering.world.terrain;
+
+import hmph.math.Frustum;
+import hmph.math.Matrix4f;
+import hmph.rendering.LightingSystem;
+import hmph.rendering.shaders.ShaderProgram;
+import hmph.rendering.world.dimensions.DimensionCreator;
+import hmph.util.debug.LoggerHelper;
+import org.lwjgl.BufferUtils;
+
+import java.nio.IntBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Coarse heightmap terrain drawn past the voxel render distance.
+ * Heights come straight from DimensionCreator's surface noise, no voxel columns are generated.
+ * The area is tiled by a quad-tree of patches that get bigger (and coarser) with distance,
+ * built on a dedicated worker pool and uploaded under a per-frame cap.
+ */
+public class FarTerrainRenderer {
+    private static final int MIN_PATCH_SIZE = 64;
+    private static final int MAX_LEVEL = 5; // 2048 block root tiles
+    private static final float SPLIT_FACTOR = 1.5f;
+
+    private final DimensionCreator dimensionCreator;
+    private final ExecutorService workers;
+    private final int maxBuildsInFlight;
+    private int maxUploadsPerFrame = 4;
+
+    private float innerRadius;
+    private float outerRadius;
+
+    // Main thread only
+    private final Map<Long, FarTerrainPatch> patches = new HashMap<>();
+    private final ArrayDeque<FarTerrainPatch> pendingBuilds = new ArrayDeque<>();
+    private final List<FarTerrainPatch> desired = new ArrayList<>();
+    private final List<FarTerrainPatch> drawList = new ArrayList<>();
+    private final Set<Long> keep = new HashSet<>();
+    private boolean drawListDirty = true;
+    private boolean hasSelection = false;
+    private float lastSelectX, lastSelectZ;
+    private int sharedEbo = 0;
+
+    private final ConcurrentLinkedQueue<FarTerrainPatch> built = new ConcurrentLinkedQueue<>();
+    // Builds that threw, handed back so the main thread can queue them again
+    private final ConcurrentLinkedQueue<FarTerrainPatch> failed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buildsInFlight = new AtomicInteger();
+
+    private final Matrix4f viewProjection = new Matrix4f();
+    private final Frustum frustum = new Frustum();
+    private int patchesDrawnLastFrame = 0;
+
+    public FarTerrainRenderer(DimensionCreator dimensionCreator, float innerRadius, float outerRadius, int workerThreads) {
+        this.dimensionCreator = dimensionCreator;
+        this.innerRadius = innerRadius;
+        this.outerRadius = outerRadius;
+        this.maxBuildsInFlight = Math.max(1, workerThreads) * 2;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), r -> {
+            Thread thread = new Thread(r, "FarTerrainWorker");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        LoggerHelper.betterPrint("Far terrain: " + (int) innerRadius + " to " + (int) outerRadius + " blocks, "
+                + workerThreads + " worker(s)", LoggerHelper.LogType.RENDERING);
+    }
+
+    /**
+     * Upload finished patches and refresh the patch selection - MUST be called on main thread
+     */
+    public void update(float cameraX, float cameraZ) {
+        int uploads = 0;
+        FarTerrainPatch patch;
+        while (uploads < maxUploadsPerFrame && (patch = built.poll()) != null) {
+            if (patches.get(patch.key) != patch) continue; // Dropped while it was building
+            if (sharedEbo == 0) createSharedIndices();
+            patch.upload(sharedEbo);
+            drawListDirty = true;
+            uploads++;
+        }
+
+        while ((patch = failed.poll()) != null) {
+            if (patches.get(patch.key) != patch) continue;
+            // Retried after whatever is already queued, so a bad patch can't hold up the others
+            patch.submitted = false;
+            pendingBuilds.addLast(patch);
+        }
+
+        float dx = cameraX - lastSelectX;
+        float dz = cameraZ - lastSelectZ;
+        if (!hasSelection || dx * dx + dz * dz > (MIN_PATCH_SIZE / 2f) * (MIN_PATCH_SIZE / 2f)) {
+            select(cameraX, cameraZ);
+            lastSelectX = cameraX;
+            lastSelectZ = cameraZ;
+            hasSelection = true;
+            drawListDirty = true;
+        }
+
+        while (buildsInFlight.get() < maxBuildsInFlight && !pendingBuilds.isEmpty()) {
+            FarTerrainPatch next = pendingBuilds.pollFirst();
+            if (patches.get(next.key) != next) continue;
+            next.submitted = true;
+            buildsInFlight.incrementAndGet();
+            workers.submit(() -> {
+                try {
+                    next.build(dimensionCreator);
+                    built.offer(next);
+                } catch (Exception e) {
+                    LoggerHelper.betterPrint("Far terrain patch failed: " + e.getMessage(), LoggerHelper.LogType.ERROR);
+                    failed.offer(next);
+                } finally {
+                    buildsInFlight.decrementAndGet();
+                }
+            });
+        }
+
+        if (drawListDirty) {
+            rebuildDrawList();
+            drawListDirty = false;
+        }
+    }
+
+    /**
+     * Draw all ready patches - MUST be called on main thread
+     * The projection should reach outerRadius, chunks are expected to be drawn afterwards over a cleared depth buffer.
+     */
+    public void render(ShaderProgram shader, Matrix4f view, Matrix4f projection, LightingSystem.LightData lighting,
+                       float cameraX, float cameraZ) {
+        patchesDrawnLastFrame = 0;
+        if (drawList.isEmpty()) return;
+
+        viewProjection.set(projection).multiply(view);
+        frustum.extractFromMatrix(viewProjection);
+
+        shader.bind();
+        shader.setUniform("view", view);
+        shader.setUniform("projection", projection);
+        shader.setUniform("lightDirection", lighting.direction);
+        shader.setUniform("lightColor", lighting.color);
+        shader.setUniform("ambientStrength", lighting.ambientStrength);
+        shader.setUniform("ambientColor", lighting.ambientColor);
+        shader.setUniform3f("cameraPos", cameraX, 0f, cameraZ);
+        // Pull the cut-off in a little so the far terrain tucks under the voxel edge
+        shader.setUniform("innerRadius", Math.max(0f, innerRadius - MIN_PATCH_SIZE / 4f));
+
+        boolean cullFace = glIsEnabled(GL_CULL_FACE);
+        glDisable(GL_CULL_FACE);
+        for (FarTerrainPatch patch : drawList) {
+            if (!frustum.intersectsAABB(patch.originX, patch.minY, patch.originZ,
+                    patch.originX + patch.size, patch.maxY, patch.originZ + patch.size)) continue;
+            patch.render();
+            patchesDrawnLastFrame++;
+        }
+        glBindVertexArray(0);
+        if (cullFace) glEnable(GL_CULL_FACE);
+        shader.unbind();
+    }
+
+    /**
+     * Walk the quad-tree around the camera and queue any leaf that isn't built yet, nearest first
+     */
+    private void select(float cameraX, float cameraZ) {
+        desired.clear();
+        int rootSize = MIN_PATCH_SIZE << MAX_LEVEL;
+        int minRootX = Math.floorDiv((int) (cameraX - outerRadius), rootSize);
+        int maxRootX = Math.floorDiv((int) (cameraX + outerRadius), rootSize);
+        int minRootZ = Math.floorDiv((int) (cameraZ - outerRadius), rootSize);
+        int maxRootZ = Math.floorDiv((int) (cameraZ + outerRadius), rootSize);
+
+        for (int rz = minRootZ; rz <= maxRootZ; rz++) {
+            for (int rx = minRootX; rx <= maxRootX; rx++) {
+                visit(MAX_LEVEL, rx * rootSize, rz * rootSize, cameraX, cameraZ);
+            }
+        }
+
+        List<FarTerrainPatch> toBuild = new ArrayList<>();
+        for (FarTerrainPatch patch : desired) {
+            if (!patch.submitted) toBuild.add(patch);
+        }
+        toBuild.sort(Comparator.comparingDouble(p -> distanceToPatch(p.originX, p.originZ, p.size, cameraX, cameraZ)));
+        pendingBuilds.clear();
+        pendingBuilds.addAll(toBuild);
+    }
+
+    private void visit(int level, int originX, int originZ, float cameraX, float cameraZ) {
+        int size = MIN_PATCH_SIZE << level;
+        float nearest = distanceToPatch(originX, originZ, size, cameraX, cameraZ);
+        if (nearest > outerRadius) return;
+        if (farthestCorner(originX, originZ, size, cameraX, cameraZ) < innerRadius) return;
+
+        if (level > 0 && nearest < size * SPLIT_FACTOR) {
+            int half = size / 2;
+            visit(level - 1, originX, originZ, cameraX, cameraZ);
+            visit(level - 1, originX + half, originZ, cameraX, cameraZ);
+            visit(level - 1, originX, originZ + half, cameraX, cameraZ);
+            visit(level - 1, originX + half, originZ + half, cameraX, cameraZ);
+            return;
+        }
+
+        long key = patchKey(level, originX, originZ);
+        FarTerrainPatch patch = patches.get(key);
+        if (patch == null) {
+            patch = new FarTerrainPatch(key, level, originX, originZ, size);
+            patches.put(key, patch);
+        }
+        desired.add(patch);
+    }
+
+    /**
+     * Desired leaves that are ready get drawn. Missing ones fall back to a ready parent, or to
+     * four ready children, so the horizon never opens up while patches are rebuilt.
+     */
+    private void rebuildDrawList() {
+        drawList.clear();
+        keep.clear();
+
+        for (FarTerrainPatch patch : desired) {
+            keep.add(patch.key);
+            if (patch.isUploaded()) {
+                addToDrawList(patch);
+                continue;
+            }
+
+            FarTerrainPatch fallback = findReadyAncestor(patch);
+            if (fallback != null) {
+                addToDrawList(fallback);
+                continue;
+            }
+            if (patch.level > 0) {
+                int half = patch.size / 2;
+                FarTerrainPatch a = patches.get(patchKey(patch.level - 1, patch.originX, patch.originZ));
+                FarTerrainPatch b = patches.get(patchKey(patch.level - 1, patch.originX + half, patch.originZ));
+                FarTerrainPatch c = patches.get(patchKey(patch.level - 1, patch.originX, patch.originZ + half));
+                FarTerrainPatch d = patches.get(patchKey(patch.level - 1, patch.originX + half, patch.originZ + half));
+                if (isReady(a) && isReady(b) && isReady(c) && isReady(d)) {
+                    addToDrawList(a);
+                    addToDrawList(b);
+                    addToDrawList(c);
+                    addToDrawList(d);
+                }
+            }
+        }
+
+        for (FarTerrainPatch patch : drawList) {
+            keep.add(patch.key);
+        }
+
+        Iterator<Map.Entry<Long, FarTerrainPatch>> iterator = patches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            FarTerrainPatch patch = iterator.next().getValue();
+            if (!keep.contains(patch.key)) {
+                patch.cleanup();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void addToDrawList(FarTerrainPatch patch) {
+        if (!drawList.contains(patch)) drawList.add(patch);
+    }
+
+    private FarTerrainPatch findReadyAncestor(FarTerrainPatch patch) {
+        for (int level = patch.level + 1; level <= MAX_LEVEL; level++) {
+            int size = MIN_PATCH_SIZE << level;
+            FarTerrainPatch parent = patches.get(patchKey(level,
+                    Math.floorDiv(patch.originX, size) * size, Math.floorDiv(patch.originZ, size) * size));
+            if (isReady(parent)) return parent;
+        }
+        return null;
+    }
+
+    private static boolean isReady(FarTerrainPatch patch) {
+        return patch != null && patch.isUploaded();
+    }
+
+    private void createSharedIndices() {
+        int[] indices = FarTerrainPatch.buildIndices();
+        IntBuffer buffer = BufferUtils.createIntBuffer(indices.length);
+        buffer.put(indices).flip();
+        sharedEbo = glGenBuffers();
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, sharedEbo);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, buffer, GL_STATIC_DRAW);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    private static long patchKey(int level, int originX, int originZ) {
+        int size = MIN_PATCH_SIZE << level;
+        long px = Math.floorDiv(originX, size) & 0xFFFFFFL;
+        long pz = Math.floorDiv(originZ, size) & 0xFFFFFFL;
+        return ((long) level << 48) | (px << 24) | pz;
+    }
+
+    private static float distanceToPatch(int originX, int originZ, int size, float x, float z) {
+        float dx = Math.max(0f, Math.max(originX - x, x - (originX + size)));
+        float dz = Math.max(0f, Math.max(originZ - z, z - (originZ + size)));
+        return (float) Math.sqrt(dx * dx + dz * dz);
+    }
+
+    private static float farthestCorner(int originX, int originZ, int size, float x, float z) {
+        float dx = Math.max(Math.abs(originX - x), Math.abs(originX + size - x));
+        float dz = Math.max(Math.abs(originZ - z), Math.abs(originZ + size - z));
+        return (float) Math.sqrt(dx * dx + dz * dz);
+    }
+
+    public void setRadii(float innerRadius, float outerRadius) {
+        this.innerRadius = innerRadius;
+        this.outerRadius = outerRadius;
+        hasSelection = false;
+    }
+
+    public void setMaxUploadsPerFrame(int maxUploadsPerFrame) {
+        this.maxUploadsPerFrame = Math.max(1, maxUploadsPerFrame);
+    }
+
+    public float getInnerRadius() { return innerRadius; }
+    public float getOuterRadius() { return outerRadius; }
+    public int getPatchCount() { return patches.size(); }
+    public int getPendingBuilds() { return pendingBuilds.size() + buildsInFlight.get(); }
+    public int getPatchesDrawnLastFrame() { return patchesDrawnLastFrame; }
+
+    public String getStats() {
+        return String.format("Far terrain: %d patches, %d drawn, %d building",
+                patches.size(), patchesDrawnLastFrame, getPendingBuilds());
+    }
+
+    public void cleanup() {
+        workers.shutdownNow();
+        for (FarTerrainPatch patch : patches.values()) {
+            patch.cleanup();
+        }
+        patches.clear();
+        pendingBuilds.clear();
+        desired.clear();
+        drawList.clear();
+        built.clear();
+        failed.clear();
+        if (sharedEbo != 0) {
+            glDeleteBuffers(sharedEbo);
+            sharedEbo = 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package hmph.simulation;
+
+/**
+ * Accumulator that turns variable frame times into a whole number of fixed ticks.
+ * The leftover fraction of a tick is what the renderer interpolates by.
+ */
+public class FixedTimestep {
+    // Ticks run for one long frame at most, anything past this is dropped instead of catching up forever
+    public static final int MAX_TICKS_PER_ADVANCE = 5;
+
+    private final float tickSeconds;
+    private float accumulator = 0;
+    private long droppedTicks = 0;
+
+    public FixedTimestep(float ticksPerSecond) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive: " + ticksPerSecond);
+        }
+        this.tickSeconds = 1f / ticksPerSecond;
+    }
+
+    /**
+     * Add elapsed time, returns how many ticks are due
+     */
+    public int advance(float elapsedSeconds) {
+        accumulator += Math.max(elapsedSeconds, 0);
+        int ticks = (int) (accumulator / tickSeconds);
+        accumulator -= ticks * tickSeconds;
+        if (ticks > MAX_TICKS_PER_ADVANCE) {
+            droppedTicks += ticks - MAX_TICKS_PER_ADVANCE;
+            ticks = MAX_TICKS_PER_ADVANCE;
+        }
+        return ticks;
+    }
+
+    /**
+     * How far into the next tick we are, 0-1
+     */
+    public float getAlpha() {
+        return Math.min(accumulator / tickSeconds, 1f);
+    }
+
+    public float getTickSeconds() { return tickSeconds; }
+    public long getDroppedTicks() { return droppedTicks; }
+}
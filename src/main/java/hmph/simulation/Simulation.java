@@ -0,0 +1,225 @@
+package hmph.simulation;
+
+import hmph.entity.EntityWorld;
+import hmph.math.Vector3f;
+import hmph.player.Player;
+import hmph.util.debug.LoggerHelper;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs player and entity movement at a fixed tick rate, independent of the frame rate.
+ * Either driven from the main loop through update(), or on its own thread after start().
+ * The last two ticks are handed to the renderer through a double buffer, the renderer draws
+ * between them so movement stays smooth at any frame rate (one tick behind).
+ * While the thread runs it owns the player's movement state; main thread changes to it go
+ * through setInput() and submit(), main thread reads go through interpolate().
+ */
+public class Simulation {
+    public static final float DEFAULT_TICK_RATE = 60f;
+
+    /**
+     * Player movement after one tick
+     */
+    private static class State {
+        float x, y, z;
+
+        void set(State other) {
+            x = other.x;
+            y = other.y;
+            z = other.z;
+        }
+    }
+
+    private final Player player;
+    private volatile EntityWorld entities = null;
+    private final FixedTimestep timestep;
+    private final long tickNanos;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Object lock = new Object();
+
+    // Written by the main thread, copied at the start of each tick, guarded by lock
+    private float inputX, inputZ;
+    private boolean inputSprinting, inputJumping;
+
+    // Simulation side, only touched by whoever runs the ticks
+    private final State previous = new State();
+    private final State current = new State();
+    private final Vector3f moveDirection = new Vector3f();
+    private final Vector3f playerPosition = new Vector3f();
+
+    // Render side copy of previous/current, guarded by lock
+    private final State publishedPrevious = new State();
+    private final State publishedCurrent = new State();
+    private long publishedAtNanos = 0;
+
+    private volatile Thread thread = null;
+    private volatile boolean running = false;
+    private volatile long ticks = 0;
+
+    public Simulation(Player player, float ticksPerSecond) {
+        this.player = player;
+        this.timestep = new FixedTimestep(ticksPerSecond);
+        this.tickNanos = (long) (timestep.getTickSeconds() * 1_000_000_000L);
+        capture(current);
+        previous.set(current);
+        publish(0);
+    }
+
+    /**
+     * Run ticks on a dedicated thread from now on, update() does nothing while it runs
+     */
+    public void start() {
+        if (thread != null) return;
+        running = true;
+        thread = new Thread(this::run, "Simulation");
+        thread.setDaemon(true);
+        thread.start();
+        LoggerHelper.betterPrint("Simulation thread started at " + Math.round(1f / timestep.getTickSeconds()) + " ticks/s",
+                LoggerHelper.LogType.INFO);
+    }
+
+    /**
+     * Stop the thread and wait for the running tick to finish, ticks go back to update() afterwards
+     */
+    public void stop() {
+        Thread worker = thread;
+        if (worker == null) return;
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * Run the ticks that are due for this frame - MUST be called on main thread, no-op while threaded
+     */
+    public void update(float frameSeconds) {
+        if (thread != null) return;
+        int due = timestep.advance(frameSeconds);
+        for (int i = 0; i < due; i++) tick();
+        publish(0);
+    }
+
+    /**
+     * Movement wanted for the next ticks: a horizontal direction (normalized or zero), sprint and jump held
+     */
+    public void setInput(float moveX, float moveZ, boolean sprinting, boolean jumping) {
+        synchronized (lock) {
+            inputX = moveX;
+            inputZ = moveZ;
+            inputSprinting = sprinting;
+            inputJumping = jumping;
+        }
+    }
+
+    /**
+     * Run something against the player before the next tick, on the thread that runs the ticks
+     */
+    public void submit(Runnable task) {
+        tasks.offer(task);
+    }
+
+    /**
+     * Where to draw the player this frame, between the last two ticks - main thread only
+     */
+    public Vector3f interpolate(Vector3f dest) {
+        synchronized (lock) {
+            float alpha;
+            if (thread != null) {
+                alpha = (System.nanoTime() - publishedAtNanos) / (float) tickNanos;
+            } else {
+                alpha = timestep.getAlpha();
+            }
+            alpha = Math.max(0f, Math.min(alpha, 1f));
+            return dest.set(publishedPrevious.x + (publishedCurrent.x - publishedPrevious.x) * alpha,
+                    publishedPrevious.y + (publishedCurrent.y - publishedPrevious.y) * alpha,
+                    publishedPrevious.z + (publishedCurrent.z - publishedPrevious.z) * alpha);
+        }
+    }
+
+    /**
+     * Entities to tick along with the player, they belong to the simulation thread from now on
+     */
+    public void setEntities(EntityWorld entities) {
+        this.entities = entities;
+    }
+
+    public boolean isThreaded() { return thread != null; }
+    public long getTicks() { return ticks; }
+
+    public String getStats() {
+        return String.format("Simulation: %d ticks at %d/s%s, %d dropped", ticks, Math.round(1f / timestep.getTickSeconds()),
+                thread != null ? " (threaded)" : "", timestep.getDroppedTicks());
+    }
+
+    private void run() {
+        long last = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            int due = timestep.advance((now - last) / 1_000_000_000f);
+            last = now;
+            if (due > 0) {
+                try {
+                    for (int i = 0; i < due; i++) tick();
+                } catch (Exception e) {
+                    LoggerHelper.betterPrint("Simulation tick failed: " + e.getMessage(), LoggerHelper.LogType.ERROR);
+                }
+                // The state belongs to the last tick boundary, which was a fraction of a tick ago
+                publish(now - (long) (timestep.getAlpha() * tickNanos));
+            }
+            LockSupport.parkNanos((long) ((1f - timestep.getAlpha()) * tickNanos));
+        }
+    }
+
+    private void tick() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                LoggerHelper.betterPrint("Simulation task failed: " + e.getMessage(), LoggerHelper.LogType.ERROR);
+            }
+        }
+
+        float dt = timestep.getTickSeconds();
+        boolean jumping;
+        synchronized (lock) {
+            moveDirection.set(inputX, 0, inputZ);
+            player.setSprinting(inputSprinting);
+            jumping = inputJumping;
+        }
+        player.setMovementInput(moveDirection, dt);
+        if (jumping) player.jump();
+        player.update(dt);
+        EntityWorld world = entities;
+        if (world != null) world.update(dt);
+
+        previous.set(current);
+        capture(current);
+        // Don't slide across a spawn or teleport
+        if (player.consumeTeleport()) previous.set(current);
+        ticks++;
+    }
+
+    private void capture(State state) {
+        player.getPosition(playerPosition);
+        state.x = playerPosition.x;
+        state.y = playerPosition.y;
+        state.z = playerPosition.z;
+    }
+
+    private void publish(long atNanos) {
+        synchronized (lock) {
+            publishedPrevious.set(previous);
+            publishedCurrent.set(current);
+            publishedAtNanos = atNanos;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package hmph.util;
+
+import hmph.util.debug.LoggerHelper;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue for work that has to run on the GL thread.
+ * Tasks can be submitted from any thread and are drained once per frame within a time budget
+ * measured with System.nanoTime, uploads additionally stop at a byte budget.
+ */
+public class MainThreadExecutor {
+
+    /**
+     * Drain order per frame, deletes first since they are cheap and hand memory back
+     */
+    public enum TaskType {
+        DELETE,
+        UPLOAD,
+        GENERAL
+    }
+
+    private static class Task {
+        final Runnable action;
+        final long bytes;
+        final long submittedAt;
+
+        Task(Runnable action, long bytes) {
+            this.action = action;
+            this.bytes = bytes;
+            this.submittedAt = System.nanoTime();
+        }
+    }
+
+    private static final TaskType[] TYPES = TaskType.values();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Queue<Task>[] queues = new Queue[TYPES.length];
+    private final AtomicInteger[] pending = new AtomicInteger[TYPES.length];
+
+    private long budgetNanos;
+    private long uploadBudgetBytes;
+
+    // Metrics from the last drain
+    private int tasksLastFrame = 0;
+    private long nanosLastFrame = 0;
+    private long bytesLastFrame = 0;
+    private long totalTasks = 0;
+    private long framesOverBudget = 0;
+
+    public MainThreadExecutor(float budgetMillis, long uploadBudgetBytes) {
+        for (int i = 0; i < TYPES.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+            pending[i] = new AtomicInteger();
+        }
+        this.budgetNanos = toNanos(budgetMillis);
+        this.uploadBudgetBytes = clampUploadBudget(uploadBudgetBytes);
+    }
+
+    public void submit(TaskType type, Runnable action) {
+        enqueue(type, new Task(action, 0));
+    }
+
+    /**
+     * Submit an upload, bytes counts towards the per-frame byte budget
+     */
+    public void submitUpload(long bytes, Runnable action) {
+        enqueue(TaskType.UPLOAD, new Task(action, bytes));
+    }
+
+    private void enqueue(TaskType type, Task task) {
+        queues[type.ordinal()].offer(task);
+        pending[type.ordinal()].incrementAndGet();
+    }
+
+    /**
+     * Run queued tasks until the budget is spent - MUST be called on main thread
+     * At least one task runs per call so the backlog always makes progress.
+     */
+    public void drain() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        int tasks = 0;
+        long bytes = 0;
+        long now = start;
+
+        for (TaskType type : TYPES) {
+            Queue<Task> queue = queues[type.ordinal()];
+            while (tasks == 0 || now < deadline) {
+                if (type == TaskType.UPLOAD && tasks > 0 && bytes >= uploadBudgetBytes) break;
+
+                Task task = queue.poll();
+                if (task == null) break;
+                pending[type.ordinal()].decrementAndGet();
+
+                try {
+                    task.action.run();
+                } catch (Exception e) {
+                    LoggerHelper.betterPrint("Main thread task failed: " + e.getMessage(), LoggerHelper.LogType.ERROR);
+                }
+                bytes += task.bytes;
+                tasks++;
+                now = System.nanoTime();
+            }
+        }
+
+        nanosLastFrame = now - start;
+        tasksLastFrame = tasks;
+        bytesLastFrame = bytes;
+        totalTasks += tasks;
+        if (nanosLastFrame > budgetNanos) {
+            framesOverBudget++;
+        }
+    }
+
+    /**
+     * Drop everything that's queued without running it
+     */
+    public void clear() {
+        for (int i = 0; i < TYPES.length; i++) {
+            queues[i].clear();
+            pending[i].set(0);
+        }
+    }
+
+    public void setBudgetMillis(float millis) {
+        this.budgetNanos = toNanos(millis);
+    }
+
+    public float getBudgetMillis() {
+        return budgetNanos / 1_000_000f;
+    }
+
+    public void setUploadBudgetBytes(long bytes) {
+        this.uploadBudgetBytes = clampUploadBudget(bytes);
+    }
+
+    private static long toNanos(float millis) {
+        return (long) (Math.max(0f, millis) * 1_000_000L);
+    }
+
+    private static long clampUploadBudget(long bytes) {
+        return Math.max(1, bytes);
+    }
+
+    public long getUploadBudgetBytes() {
+        return uploadBudgetBytes;
+    }
+
+    public int getBacklog(TaskType type) {
+        return pending[type.ordinal()].get();
+    }
+
+    public int getBacklog() {
+        int total = 0;
+        for (AtomicInteger count : pending) total += count.get();
+        return total;
+    }
+
+    /**
+     * Age of the oldest task still waiting, 0 when nothing is queued
+     */
+    public float getOldestTaskAgeMillis() {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (Queue<Task> queue : queues) {
+            Task head = queue.peek();
+            if (head != null) oldest = Math.max(oldest, now - head.submittedAt);
+        }
+        return oldest / 1_000_000f;
+    }
+
+    public int getTasksLastFrame() { return tasksLastFrame; }
+    public float getMillisLastFrame() { return nanosLastFrame / 1_000_000f; }
+    public long getBytesLastFrame() { return bytesLastFrame; }
+    public long getTotalTasks() { return totalTasks; }
+    public long getFramesOverBudget() { return framesOverBudget; }
+
+    public String getStats() {
+        return String.format("Main thread: %d tasks %.2f/%.2fms %d KB | Backlog: %d delete, %d upload, %d other, oldest %.0fms",
+                tasksLastFrame, getMillisLastFrame(), getBudgetMillis(), bytesLastFrame >> 10,
+                getBacklog(TaskType.DELETE), getBacklog(TaskType.UPLOAD), getBacklog(TaskType.GENERAL),
+                getOldestTaskAgeMillis());
+    }
+}
@@ -0,0 +1,111 @@
+package hmph.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Range queries through the column buckets against a scan of every entity in the store, while
+ * entities move across columns, spawn and get removed.
+ */
+class EntityChunkIndexTest {
+    private static final float EXTENT = 100;
+
+    private final EntityStore store = new EntityStore();
+    private final EntityChunkIndex index = new EntityChunkIndex();
+    private final Random random = new Random(12);
+    private final int[] out = new int[4096];
+
+    private void spawn() {
+        EntityType type = random.nextBoolean() ? EntityType.ITEM : EntityType.MOB;
+        store.spawn(type, random.nextFloat() * EXTENT * 2 - EXTENT, random.nextFloat() * 100,
+                random.nextFloat() * EXTENT * 2 - EXTENT);
+        index.add(store, store.size() - 1);
+    }
+
+    private void removeAt(int i) {
+        index.remove(store, i);
+        store.remove(store.idAt(i));
+    }
+
+    private Set<Integer> bruteForce(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < store.size(); i++) {
+            float half = store.halfWidth[i];
+            if (store.posX[i] + half < minX || store.posX[i] - half > maxX) continue;
+            if (store.posZ[i] + half < minZ || store.posZ[i] - half > maxZ) continue;
+            if (store.posY[i] + store.height[i] < minY || store.posY[i] > maxY) continue;
+            ids.add(store.idAt(i));
+        }
+        return ids;
+    }
+
+    private Set<Integer> ids(int found) {
+        Set<Integer> ids = new HashSet<>();
+        for (int n = 0; n < found; n++) {
+            assertTrue(ids.add(store.idAt(out[n])), "entity returned twice");
+        }
+        return ids;
+    }
+
+    private void assertQueriesMatch(String when) {
+        for (int q = 0; q < 50; q++) {
+            float x = random.nextFloat() * EXTENT * 2.4f - EXTENT * 1.2f;
+            float y = random.nextFloat() * 100;
+            float z = random.nextFloat() * EXTENT * 2.4f - EXTENT * 1.2f;
+            float size = random.nextFloat() * 40;
+            float minX = x - size, minY = y - size, minZ = z - size;
+            float maxX = x + size, maxY = y + size, maxZ = z + size;
+            assertEquals(bruteForce(minX, minY, minZ, maxX, maxY, maxZ),
+                    ids(index.query(store, minX, minY, minZ, maxX, maxY, maxZ, out)), when + ", box query " + q);
+
+            Set<Integer> inRadius = new HashSet<>();
+            for (int i = 0; i < store.size(); i++) {
+                float dx = store.posX[i] - x, dy = store.posY[i] - y, dz = store.posZ[i] - z;
+                if (dx * dx + dy * dy + dz * dz <= size * size) inRadius.add(store.idAt(i));
+            }
+            assertEquals(inRadius, ids(index.queryRadius(store, x, y, z, size, out)), when + ", radius query " + q);
+        }
+    }
+
+    @Test
+    void queriesMatchAScanThroughMovesAndRemovals() {
+        for (int i = 0; i < 2000; i++) spawn();
+        assertQueriesMatch("after spawning");
+
+        for (int round = 0; round < 40; round++) {
+            // Most entities drift a little, some jump several columns
+            for (int i = 0; i < store.size(); i++) {
+                float step = random.nextInt(10) == 0 ? 40 : 1.5f;
+                store.posX[i] += (random.nextFloat() * 2 - 1) * step;
+                store.posY[i] += (random.nextFloat() * 2 - 1) * step;
+                store.posZ[i] += (random.nextFloat() * 2 - 1) * step;
+            }
+            index.update(store);
+
+            for (int n = 0; n < 60 && store.size() > 0; n++) removeAt(random.nextInt(store.size()));
+            for (int n = 0; n < 50; n++) spawn();
+            assertQueriesMatch("round " + round);
+        }
+
+        while (store.size() > 0) removeAt(random.nextInt(store.size()));
+        assertEquals(0, index.getColumnCount(), "empty columns are dropped");
+    }
+
+    @Test
+    void removedEntityIsNotFoundThroughAReusedSlot() {
+        store.spawn(EntityType.MOB, 5, 64, 5);
+        index.add(store, 0);
+        removeAt(0);
+        // Reuses the slot, somewhere else entirely
+        store.spawn(EntityType.MOB, 500, 64, 500);
+        index.add(store, 0);
+
+        assertEquals(0, index.query(store, 0, 60, 0, 10, 70, 10, out));
+        assertEquals(1, index.query(store, 495, 60, 495, 505, 70, 505, out));
+    }
+}
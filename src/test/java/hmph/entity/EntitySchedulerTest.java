@@ -0,0 +1,90 @@
+package hmph.entity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntitySchedulerTest {
+    private static final int ENTITIES = EntityScheduler.BATCH_SIZE * 32;
+
+    private final EntityScheduler scheduler = new EntityScheduler(4);
+
+    @AfterEach
+    void stopWorkers() {
+        scheduler.cleanup();
+    }
+
+    private static EntityStore storeOf(int count) {
+        EntityStore store = new EntityStore();
+        for (int i = 0; i < count; i++) store.spawn(EntityType.ITEM, i, 64, 0);
+        return store;
+    }
+
+    /**
+     * Parallel system that sleeps in every batch and fails in the ones starting at the given indices
+     */
+    private static final class SlowSystem implements EntitySystem {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger batches = new AtomicInteger();
+        final int[] failAt;
+
+        SlowSystem(int... failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void update(EntityStore store, int from, int to, float deltaTime, int worker) {
+            running.incrementAndGet();
+            try {
+                batches.incrementAndGet();
+                for (int fail : failAt) {
+                    if (from == fail) throw new IllegalStateException("batch " + from);
+                }
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean isParallel() {
+            return true;
+        }
+    }
+
+    @Test
+    void everyBatchRunsOnce() {
+        EntityStore store = storeOf(ENTITIES);
+        SlowSystem system = new SlowSystem();
+        scheduler.addSystem(system);
+
+        scheduler.run(store, 0.05f);
+        assertEquals(ENTITIES / EntityScheduler.BATCH_SIZE, system.batches.get());
+    }
+
+    @Test
+    void failureWaitsForEveryHelperBeforeRethrowing() {
+        EntityStore store = storeOf(ENTITIES);
+        // Whichever thread claims these fails, the caller included
+        SlowSystem system = new SlowSystem(0, EntityScheduler.BATCH_SIZE, EntityScheduler.BATCH_SIZE * 2);
+        scheduler.addSystem(system);
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> scheduler.run(store, 0.05f));
+        assertTrue(thrown.getMessage().startsWith("batch "));
+        // Nothing still writes the store once run() is back
+        assertEquals(0, system.running.get());
+        assertTrue(system.batches.get() < ENTITIES / EntityScheduler.BATCH_SIZE, "remaining batches were not stopped");
+
+        // The next run starts clean
+        scheduler.removeSystem(system);
+        SlowSystem next = new SlowSystem();
+        scheduler.addSystem(next);
+        scheduler.run(store, 0.05f);
+        assertEquals(ENTITIES / EntityScheduler.BATCH_SIZE, next.batches.get());
+    }
+}
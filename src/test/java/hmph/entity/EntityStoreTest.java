@@ -0,0 +1,62 @@
+package hmph.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityStoreTest {
+
+    @Test
+    void staleIdDoesNotResolveAfterItsSlotIsReused() {
+        EntityStore store = new EntityStore();
+        int first = store.spawn(EntityType.ITEM, 1, 2, 3);
+        assertTrue(store.remove(first));
+
+        int second = store.spawn(EntityType.MOB, 4, 5, 6);
+        // Same slot, newer generation
+        assertNotEquals(first, second);
+        assertFalse(store.isAlive(first));
+        assertEquals(-1, store.indexOf(first));
+        assertFalse(store.remove(first), "a stale id must not remove the slot's new owner");
+        assertTrue(store.isAlive(second));
+        assertEquals(4, store.posX[store.indexOf(second)]);
+    }
+
+    @Test
+    void idsFollowTheirEntityThroughSwapRemoves() {
+        EntityStore store = new EntityStore(16);
+        Map<Integer, Float> alive = new HashMap<>();
+        List<Integer> dead = new ArrayList<>();
+        Random random = new Random(8);
+
+        for (int step = 0; step < 20000; step++) {
+            if (alive.isEmpty() || random.nextInt(3) != 0) {
+                float x = random.nextFloat() * 1000;
+                alive.put(store.spawn(EntityType.ITEM, x, 0, 0), x);
+            } else {
+                List<Integer> ids = new ArrayList<>(alive.keySet());
+                int id = ids.get(random.nextInt(ids.size()));
+                assertTrue(store.remove(id));
+                alive.remove(id);
+                dead.add(id);
+            }
+        }
+
+        assertEquals(alive.size(), store.size());
+        for (Map.Entry<Integer, Float> entity : alive.entrySet()) {
+            int i = store.indexOf(entity.getKey());
+            assertTrue(i >= 0 && i < store.size());
+            assertEquals(entity.getKey(), store.idAt(i));
+            assertEquals(entity.getValue(), store.posX[i]);
+        }
+        for (int id : dead) {
+            assertFalse(store.isAlive(id), "removed id " + id + " resolves again");
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package hmph.physics;
+
+import hmph.player.Player;
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+import hmph.rendering.world.chunk.ChunkManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Swept moves of a player sized box through rough terrain, checked against the blocks directly:
+ * every axis step of a move must sweep through air only, and the box must never end inside a block.
+ */
+class VoxelColliderTest {
+    private static final int MOVES = 100_000;
+    // Looser than the collider's own contact epsilon, so touching a face is never reported
+    private static final float TOLERANCE = 1e-3f;
+    private static final float HALF = Player.PLAYER_WIDTH / 2;
+    private static final float HEIGHT = Player.PLAYER_HEIGHT;
+    private static final int GROUND = 60;
+
+    private static ChunkGrid<ChunkBase> chunks;
+    private static int stone;
+
+    @BeforeAll
+    static void buildWorld() {
+        BlockRegistry registry = new BlockRegistry();
+        stone = registry.getIDFromName("stone");
+        chunks = new ChunkManager(registry, 4).getLoadedChunks();
+
+        // Solid ground with loose blocks above it, dense enough that most long moves hit something
+        Random random = new Random(3);
+        for (int chunkX = -2; chunkX <= 2; chunkX++) {
+            for (int chunkZ = -2; chunkZ <= 2; chunkZ++) {
+                int[][][] blocks = new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+                for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                    for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                        for (int y = 0; y < 90; y++) {
+                            if (y < GROUND || random.nextInt(12) == 0) blocks[x][y][z] = stone;
+                        }
+                    }
+                }
+                chunks.put(new ChunkBase(chunkX, chunkZ, registry, blocks));
+            }
+        }
+    }
+
+    private static boolean solid(int x, int y, int z) {
+        ChunkBase chunk = chunks.get(Math.floorDiv(x, ChunkBase.SIZE_X), Math.floorDiv(z, ChunkBase.SIZE_Z));
+        return chunk != null && y >= 0 && y < ChunkBase.SIZE_Y && chunk.getBlockWorld(x, y, z) != 0;
+    }
+
+    /**
+     * First block the box reaches into by more than TOLERANCE, null when the box is clear
+     */
+    private static int[] firstOverlap(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int x = (int) Math.floor(minX + TOLERANCE); x < maxX - TOLERANCE; x++) {
+            for (int y = (int) Math.floor(minY + TOLERANCE); y < maxY - TOLERANCE; y++) {
+                for (int z = (int) Math.floor(minZ + TOLERANCE); z < maxZ - TOLERANCE; z++) {
+                    if (solid(x, y, z)) return new int[]{x, y, z};
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void assertClear(String what, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        int[] block = firstOverlap(minX, minY, minZ, maxX, maxY, maxZ);
+        if (block != null) {
+            fail(what + " overlaps the block at " + block[0] + "," + block[1] + "," + block[2]);
+        }
+    }
+
+    @Test
+    void randomMovesNeverTunnelOrEndInsideABlock() {
+        VoxelCollider collider = new VoxelCollider(chunks);
+        Random random = new Random(17);
+        float x = 0, y = 95, z = 0;
+        int blocked = 0;
+
+        for (int i = 0; i < MOVES; i++) {
+            // Mostly walking speed, sometimes far enough to skip several blocks in one step
+            float reach = random.nextInt(5) == 0 ? 8f : 0.6f;
+            float dx = (random.nextFloat() * 2 - 1) * reach;
+            float dy = (random.nextFloat() * 2 - 1.2f) * reach;
+            float dz = (random.nextFloat() * 2 - 1) * reach;
+
+            collider.move(x - HALF, y, z - HALF, x + HALF, y + HEIGHT, z + HALF, dx, dy, dz);
+            String move = "move " + i + " from " + x + "," + y + "," + z + " by " + dx + "," + dy + "," + dz;
+
+            // Each axis is swept in the collider's order, Y, X then Z
+            float y1 = y + collider.moveY;
+            assertClear(move + ": Y sweep", x - HALF, Math.min(y, y1), z - HALF, x + HALF, Math.max(y, y1) + HEIGHT, z + HALF);
+            float x1 = x + collider.moveX;
+            assertClear(move + ": X sweep", Math.min(x, x1) - HALF, y1, z - HALF, Math.max(x, x1) + HALF, y1 + HEIGHT, z + HALF);
+            float z1 = z + collider.moveZ;
+            assertClear(move + ": Z sweep", x1 - HALF, y1, Math.min(z, z1) - HALF, x1 + HALF, y1 + HEIGHT, Math.max(z, z1) + HALF);
+            assertClear(move + ": end", x1 - HALF, y1, z1 - HALF, x1 + HALF, y1 + HEIGHT, z1 + HALF);
+            if (collider.collidedX || collider.collidedY || collider.collidedZ) blocked++;
+
+            x = x1;
+            y = y1;
+            z = z1;
+            // Back over the middle before wandering off the loaded chunks
+            if (Math.abs(x) > 32 || Math.abs(z) > 32 || y > 120) {
+                x = random.nextFloat() * 40 - 20;
+                y = 95;
+                z = random.nextFloat() * 40 - 20;
+            }
+        }
+        // Seeded, so this only guards against the world changing into open air
+        assertTrue(blocked > MOVES / 4, "only " + blocked + " moves hit anything");
+    }
+
+    @Test
+    void sprintIntoAWallEndsFlush() {
+        VoxelCollider collider = new VoxelCollider(chunks);
+        // A wall at x=20 in an empty corridor above everything else
+        float y = 200;
+        ChunkBase chunk = chunks.get(1, 0);
+        for (int wy = 200; wy < 204; wy++) chunk.setBlock(20 - ChunkBase.SIZE_X, wy, 5, stone);
+
+        try {
+            collider.move(-HALF, y, 5.5f - HALF, HALF, y + HEIGHT, 5.5f + HALF, 35, 0, 0);
+            assertTrue(collider.collidedX);
+            assertFalse(collider.collidedY);
+            assertFalse(collider.collidedZ);
+            assertEquals(20 - HALF, collider.moveX, 1e-4f, "box should stop with its face on the wall");
+
+            // Already touching, any further push goes nowhere
+            collider.move(collider.moveX - HALF, y, 5.5f - HALF, collider.moveX + HALF, y + HEIGHT, 5.5f + HALF, 35, 0, 0);
+            assertEquals(0, collider.moveX, 1e-4f);
+        } finally {
+            for (int wy = 200; wy < 204; wy++) chunk.setBlock(20 - ChunkBase.SIZE_X, wy, 5, 0);
+        }
+    }
+
+    @Test
+    void longFallLandsOnTheGround() {
+        VoxelCollider collider = new VoxelCollider(chunks);
+        // A shaft down to the ground through the loose blocks, one cell wide around x=8.5, z=8.5
+        ChunkBase chunk = chunks.get(0, 0);
+        int[] saved = new int[90 - GROUND];
+        for (int y = GROUND; y < 90; y++) {
+            saved[y - GROUND] = chunk.getBlock(8, y, 8);
+            chunk.setBlock(8, y, 8, 0);
+        }
+
+        try {
+            collider.move(8.5f - HALF, 250, 8.5f - HALF, 8.5f + HALF, 250 + HEIGHT, 8.5f + HALF, 0, -200, 0);
+            assertTrue(collider.collidedY);
+            assertEquals(GROUND - 250, collider.moveY, 1e-4f, "box should land on top of the ground");
+            assertEquals(0, collider.moveX);
+            assertEquals(0, collider.moveZ);
+        } finally {
+            for (int y = GROUND; y < 90; y++) chunk.setBlock(8, y, 8, saved[y - GROUND]);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package hmph.player;
+
+import hmph.math.Raycasting.Ray;
+import hmph.math.Vector3f;
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+import hmph.rendering.world.chunk.ChunkManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The voxel traversal behind raycastToBlockPrecise against a brute-force scan that slab-tests every
+ * solid block in the ray's bounding box, over seeded random rays through rough terrain.
+ */
+class BlockInteractionTest {
+    private static final int RAYS = 5000;
+    private static final float EPSILON = 1e-4f;
+
+    private static ChunkManager chunkManager;
+    private static ChunkGrid<ChunkBase> chunks;
+
+    @BeforeAll
+    static void buildWorld() {
+        BlockRegistry registry = new BlockRegistry();
+        int stone = registry.getIDFromName("stone");
+        chunkManager = new ChunkManager(registry, 4);
+        chunks = chunkManager.getLoadedChunks();
+
+        // Solid ground up to y=60 with loose blocks scattered above it, across chunk borders
+        Random random = new Random(5);
+        for (int chunkX = -2; chunkX <= 2; chunkX++) {
+            for (int chunkZ = -2; chunkZ <= 2; chunkZ++) {
+                int[][][] blocks = new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+                for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                    for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                        for (int y = 0; y < 90; y++) {
+                            if (y < 60 || random.nextInt(60) == 0) blocks[x][y][z] = stone;
+                        }
+                    }
+                }
+                chunks.put(new ChunkBase(chunkX, chunkZ, registry, blocks));
+            }
+        }
+    }
+
+    private static int block(int x, int y, int z) {
+        ChunkBase chunk = chunks.get(Math.floorDiv(x, ChunkBase.SIZE_X), Math.floorDiv(z, ChunkBase.SIZE_Z));
+        return chunk != null ? chunk.getBlockWorld(x, y, z) : 0;
+    }
+
+    /**
+     * Closest solid block along the ray within reach: x, y, z and distance, null on a miss
+     */
+    private static float[] bruteForce(Vector3f origin, Vector3f direction) {
+        Ray ray = new Ray(origin, direction);
+        Vector3f end = ray.getPointAt(BlockInteraction.max_reach);
+        float closest = BlockInteraction.max_reach;
+        float[] best = null;
+        for (int x = (int) Math.floor(Math.min(origin.x, end.x)); x <= (int) Math.floor(Math.max(origin.x, end.x)); x++) {
+            for (int y = (int) Math.floor(Math.min(origin.y, end.y)); y <= (int) Math.floor(Math.max(origin.y, end.y)); y++) {
+                for (int z = (int) Math.floor(Math.min(origin.z, end.z)); z <= (int) Math.floor(Math.max(origin.z, end.z)); z++) {
+                    if (block(x, y, z) == 0) continue;
+                    float t = ray.intersectBlock(x, y, z);
+                    if (t >= 0 && t <= closest) {
+                        closest = t;
+                        best = new float[]{x, y, z, t};
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void preciseRaycastMatchesBruteForceScan() {
+        Random random = new Random(42);
+        int hits = 0;
+        for (int i = 0; i < RAYS; i++) {
+            Vector3f origin = new Vector3f(random.nextFloat() * 40 - 20, 61 + random.nextFloat() * 20, random.nextFloat() * 40 - 20);
+            if (block((int) Math.floor(origin.x), (int) Math.floor(origin.y), (int) Math.floor(origin.z)) != 0) {
+                i--;
+                continue;
+            }
+            Vector3f direction = new Vector3f(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1,
+                    random.nextFloat() * 2 - 1).normalize();
+
+            float[] expected = bruteForce(origin, direction);
+            BlockInteraction.RaycastResult result = BlockInteraction.raycastToBlockPrecise(origin, direction, chunkManager);
+            String ray = "ray " + i + " from " + origin + " along " + direction;
+
+            assertEquals(expected != null, result.hit, ray);
+            if (!result.hit) continue;
+            hits++;
+
+            assertEquals(expected[0], result.blockPos.x, ray);
+            assertEquals(expected[1], result.blockPos.y, ray);
+            assertEquals(expected[2], result.blockPos.z, ray);
+            assertEquals(expected[3], result.distance, EPSILON, ray);
+
+            // The hit point is on the ray and on the plane of the face it reports
+            assertEquals(origin.x + direction.x * result.distance, result.hitPoint.x, EPSILON, ray);
+            assertEquals(origin.y + direction.y * result.distance, result.hitPoint.y, EPSILON, ray);
+            assertEquals(origin.z + direction.z * result.distance, result.hitPoint.z, EPSILON, ray);
+            assertFacePlane(result.blockPos.x, result.normal.x, result.hitPoint.x, ray);
+            assertFacePlane(result.blockPos.y, result.normal.y, result.hitPoint.y, ray);
+            assertFacePlane(result.blockPos.z, result.normal.z, result.hitPoint.z, ray);
+        }
+        // Seeded, so this only guards against the world or the rays changing into all misses
+        assertTrue(hits > RAYS / 4, "only " + hits + " hits");
+    }
+
+    private static void assertFacePlane(float blockCoord, float normal, float hitCoord, String ray) {
+        if (normal < 0) assertEquals(blockCoord, hitCoord, EPSILON, ray);
+        if (normal > 0) assertEquals(blockCoord + 1, hitCoord, EPSILON, ray);
+    }
+
+    @Test
+    void slabTestHandlesAxisParallelRays() {
+        Vector3f min = new Vector3f(0, 0, 0);
+        Vector3f max = new Vector3f(1, 1, 1);
+
+        assertEquals(2f, new Ray(-2f, 0.5f, 0.5f, 1, 0, 0).intersectAABB(min, max), EPSILON);
+        assertEquals(-1f, new Ray(-2f, 1.5f, 0.5f, 1, 0, 0).intersectAABB(min, max), "parallel and outside the y slab");
+        assertEquals(-1f, new Ray(2f, 0.5f, 0.5f, 1, 0, 0).intersectAABB(min, max), "box behind the origin");
+        // From inside the box the exit distance comes back
+        assertEquals(0.5f, new Ray(0.5f, 0.5f, 0.5f, 0, 1, 0).intersectAABB(min, max), EPSILON);
+    }
+}
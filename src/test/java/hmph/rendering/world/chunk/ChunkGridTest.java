@@ -0,0 +1,160 @@
+package hmph.rendering.world.chunk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The toroidal window against plain sets of columns: what stays, what is evicted on a recenter,
+ * what a lookup returns when another column shares its slot and which strips forEachLeaving walks.
+ */
+class ChunkGridTest {
+
+    private static ChunkGrid<Long> grid(int radius) {
+        // The values are the packed keys themselves
+        return new ChunkGrid<>(radius, Long::longValue);
+    }
+
+    private static Set<Long> window(int centerX, int centerZ, int radius) {
+        Set<Long> keys = new HashSet<>();
+        for (int x = centerX - radius; x <= centerX + radius; x++) {
+            for (int z = centerZ - radius; z <= centerZ + radius; z++) keys.add(ChunkGrid.key(x, z));
+        }
+        return keys;
+    }
+
+    private static Set<Long> contents(ChunkGrid<Long> grid) {
+        Set<Long> keys = new HashSet<>();
+        grid.forEach(keys::add);
+        return keys;
+    }
+
+    private static void fill(ChunkGrid<Long> grid) {
+        for (long key : window(grid.getCenterX(), grid.getCenterZ(), grid.getRadius())) {
+            if (grid.get(key) == null) grid.put(key);
+        }
+    }
+
+    @Test
+    void recenterEvictsExactlyTheColumnsThatLeft() {
+        Random random = new Random(9);
+        for (int radius = 1; radius <= 6; radius++) {
+            ChunkGrid<Long> grid = grid(radius);
+            fill(grid);
+            for (int step = 0; step < 300; step++) {
+                int oldX = grid.getCenterX(), oldZ = grid.getCenterZ();
+                // Mostly neighbouring chunks, now and then a teleport past the whole window
+                int reach = random.nextInt(10) == 0 ? radius * 4 + 2 : 2;
+                int newX = oldX + random.nextInt(reach * 2 + 1) - reach;
+                int newZ = oldZ + random.nextInt(reach * 2 + 1) - reach;
+
+                Set<Long> expected = window(oldX, oldZ, radius);
+                expected.removeAll(window(newX, newZ, radius));
+                List<Long> evicted = new ArrayList<>();
+                grid.recenter(newX, newZ, evicted::add);
+                String move = "radius " + radius + " from " + oldX + "," + oldZ + " to " + newX + "," + newZ;
+
+                assertEquals(expected.size(), evicted.size(), move + ": a column was evicted twice or missed");
+                assertEquals(expected, new HashSet<>(evicted), move);
+                Set<Long> kept = window(oldX, oldZ, radius);
+                kept.retainAll(window(newX, newZ, radius));
+                assertEquals(kept, contents(grid), move);
+                assertEquals(kept.size(), grid.size(), move);
+
+                fill(grid);
+            }
+        }
+    }
+
+    @Test
+    void columnsSharingASlotNeverAlias() {
+        int radius = 2;
+        int width = radius * 2 + 1;
+        ChunkGrid<Long> grid = grid(radius);
+        grid.put(ChunkGrid.key(1, -1));
+
+        // Same slot, different column
+        assertNull(grid.get(1 + width, -1));
+        assertNull(grid.get(1, -1 - width));
+        assertNull(grid.remove(1 - width, -1 + width));
+        assertEquals(ChunkGrid.key(1, -1), grid.get(1, -1));
+
+        // Move far enough that (1 + width, -1) takes over the slot, the old column is gone, not returned for it
+        List<Long> evicted = new ArrayList<>();
+        grid.recenter(1 + width, 0, evicted::add);
+        assertEquals(List.of(ChunkGrid.key(1, -1)), evicted);
+        assertNull(grid.get(1 + width, -1));
+        grid.put(ChunkGrid.key(1 + width, -1));
+        assertNull(grid.get(1, -1));
+        assertEquals(ChunkGrid.key(1 + width, -1), grid.get(1 + width, -1));
+        assertEquals(1, grid.size());
+    }
+
+    private static List<Long> leaving(int fromX, int fromZ, int toX, int toZ, int radius) {
+        List<Long> visited = new ArrayList<>();
+        ChunkGrid.forEachLeaving(fromX, fromZ, toX, toZ, radius, (x, z) -> visited.add(ChunkGrid.key(x, z)));
+        return visited;
+    }
+
+    @Test
+    void forEachLeavingVisitsTheSetDifferenceOnce() {
+        Random random = new Random(21);
+        for (int i = 0; i < 2000; i++) {
+            int radius = random.nextInt(8);
+            int fromX = random.nextInt(41) - 20, fromZ = random.nextInt(41) - 20;
+            int reach = random.nextInt(4) == 0 ? radius * 3 + 2 : 2;
+            int toX = fromX + random.nextInt(reach * 2 + 1) - reach;
+            int toZ = fromZ + random.nextInt(reach * 2 + 1) - reach;
+            String move = "radius " + radius + " from " + fromX + "," + fromZ + " to " + toX + "," + toZ;
+
+            Set<Long> left = window(fromX, fromZ, radius);
+            left.removeAll(window(toX, toZ, radius));
+            List<Long> visited = leaving(fromX, fromZ, toX, toZ, radius);
+            assertEquals(left.size(), visited.size(), move + ": a column was visited twice");
+            assertEquals(left, new HashSet<>(visited), move);
+
+            // Swapped centers give the entering strip
+            Set<Long> entered = window(toX, toZ, radius);
+            entered.removeAll(window(fromX, fromZ, radius));
+            assertEquals(entered, new HashSet<>(leaving(toX, toZ, fromX, fromZ, radius)), move + ": entering");
+        }
+    }
+
+    /**
+     * The chunk manager's LOD entries: dropped in the strips leaving the unload margin, created in the
+     * strips entering render distance. However the player walks, they cover render distance and never
+     * reach past the margin.
+     */
+    @Test
+    void moveWindowStripsKeepEntriesBetweenRenderDistanceAndMargin() {
+        int renderDistance = 4, margin = 2;
+        Random random = new Random(33);
+        Set<Long> entries = window(0, 0, renderDistance);
+        int x = 0, z = 0;
+
+        for (int step = 0; step < 2000; step++) {
+            int reach = random.nextInt(20) == 0 ? 15 : 1;
+            int newX = x + random.nextInt(reach * 2 + 1) - reach;
+            int newZ = z + random.nextInt(reach * 2 + 1) - reach;
+            if (newX == x && newZ == z) continue;
+
+            for (long key : leaving(x, z, newX, newZ, renderDistance + margin)) entries.remove(key);
+            for (long key : leaving(newX, newZ, x, z, renderDistance)) {
+                assertTrue(entries.add(key) || !window(x, z, renderDistance).contains(key),
+                        "entering column was already in render distance");
+            }
+            x = newX;
+            z = newZ;
+
+            String at = "step " + step + " at " + x + "," + z;
+            assertTrue(entries.containsAll(window(x, z, renderDistance)), at + ": render distance not covered");
+            assertTrue(window(x, z, renderDistance + margin).containsAll(entries), at + ": entry left past the margin");
+        }
+    }
+}
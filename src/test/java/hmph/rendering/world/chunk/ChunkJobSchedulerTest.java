@@ -0,0 +1,136 @@
+package hmph.rendering.world.chunk;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkJobSchedulerTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    // One CPU worker, so a blocked stage keeps the next one queued
+    private final ChunkJobScheduler scheduler = new ChunkJobScheduler(1);
+
+    @AfterEach
+    void stop() {
+        scheduler.shutdown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "timed out");
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void assertCancelled(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            fail("stage completed normally");
+        } catch (CancellationException e) {
+            // Cancelled before it ran or while it was running
+        } catch (ExecutionException e) {
+            assertInstanceOf(CancellationException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void cancelledQueuedStageNeverRuns() throws Exception {
+        CountDownLatch blocking = new CountDownLatch(1), release = new CountDownLatch(1);
+        ChunkJobScheduler.Job busy = scheduler.begin(1);
+        CompletableFuture<Integer> first = scheduler.cpu(busy, () -> {
+            blocking.countDown();
+            await(release);
+            return 1;
+        });
+        await(blocking);
+
+        ChunkJobScheduler.Job job = scheduler.begin(2);
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Integer> queued = scheduler.cpu(job, () -> {
+            ran.set(true);
+            return 2;
+        });
+        scheduler.cancel(2);
+        release.countDown();
+
+        assertEquals(1, first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertCancelled(queued);
+        // Drain the worker, the cancelled stage had its turn before this one
+        scheduler.cpu(scheduler.begin(3), () -> 3).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertFalse(ran.get());
+        assertFalse(scheduler.isActive(2));
+    }
+
+    @Test
+    void cancelInterruptsBlockedIoStage() throws Exception {
+        CountDownLatch started = new CountDownLatch(1), interrupted = new CountDownLatch(1);
+        ChunkJobScheduler.Job job = scheduler.begin(7);
+        CompletableFuture<Object> read = scheduler.io(job, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS * 2));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return null;
+        });
+        await(started);
+
+        scheduler.cancel(7);
+        await(interrupted);
+        assertCancelled(read);
+    }
+
+    @Test
+    void runningCpuStageFinishesButItsResultIsDropped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1), finished = new CountDownLatch(1);
+        AtomicBoolean sawInterrupt = new AtomicBoolean();
+        ChunkJobScheduler.Job job = scheduler.begin(4);
+        CompletableFuture<String> mesh = scheduler.cpu(job, () -> {
+            started.countDown();
+            await(release);
+            sawInterrupt.set(Thread.currentThread().isInterrupted());
+            finished.countDown();
+            return "mesh";
+        });
+        await(started);
+
+        scheduler.cancel(4);
+        assertTrue(job.isCancelled());
+        assertCancelled(mesh);
+        release.countDown();
+        await(finished);
+        // Pool threads are reused, so they are never interrupted
+        assertFalse(sawInterrupt.get());
+        assertThrows(CancellationException.class, job::checkCancelled);
+    }
+
+    @Test
+    void newJobForAColumnCancelsTheOldOne() throws Exception {
+        ChunkJobScheduler.Job old = scheduler.begin(9);
+        ChunkJobScheduler.Job current = scheduler.begin(9);
+        assertTrue(old.isCancelled());
+        assertFalse(current.isCancelled());
+
+        // Stages of a cancelled job are refused outright
+        assertCancelled(scheduler.cpu(old, () -> 0));
+
+        // The stale job finishing doesn't retire its replacement
+        scheduler.finish(old);
+        assertTrue(scheduler.isActive(9));
+        assertEquals(5, scheduler.cpu(current, () -> 5).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        scheduler.finish(current);
+        assertFalse(scheduler.isActive(9));
+        assertEquals(0, scheduler.getActiveJobs());
+    }
+}
@@ -0,0 +1,138 @@
+package hmph.rendering.world.chunk;
+
+import hmph.rendering.BlockRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writers edit one chunk through setBlock (copy-on-write withBlock plus a CAS publish) while readers
+ * keep grabbing snapshots. Every snapshot a reader sees has to be internally consistent, heightmap
+ * and top bound included, and no edit may be lost.
+ */
+class ChunkSnapshotStressTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 3;
+    private static final int EDITS_PER_WRITER = 1500;
+    // Edits land around the surface so the top opaque block of a column keeps moving
+    private static final int SURFACE = 64;
+    private static final int BAND = 12;
+
+    @Test
+    void concurrentEditsPublishConsistentSnapshots() throws Exception {
+        BlockRegistry registry = new BlockRegistry();
+        int stone = registry.getIDFromName("stone");
+        int glass = registry.getIDFromName("glass");
+        int[] palette = {0, stone, glass};
+
+        int[][][] generated = new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int y = 0; y < SURFACE; y++) {
+                for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                    generated[x][y][z] = stone;
+                }
+            }
+        }
+        ChunkBase chunk = new ChunkBase(0, 0, registry, generated);
+        assertSnapshotConsistent(chunk.getSnapshot(), registry);
+
+        // Each writer owns every WRITERS-th column, so it knows what its columns must end up as
+        int[][][] expected = chunk.getSnapshot().toArray();
+        AtomicLong effectiveEdits = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            int writer = w;
+            writers.add(pool.submit(() -> {
+                Random random = new Random(1234 + writer);
+                start.await();
+                for (int i = 0; i < EDITS_PER_WRITER; i++) {
+                    int column = writer + WRITERS * random.nextInt(ChunkBase.SIZE_X * ChunkBase.SIZE_Z / WRITERS);
+                    int x = column % ChunkBase.SIZE_X, z = column / ChunkBase.SIZE_X;
+                    int y = SURFACE - BAND + random.nextInt(BAND * 2);
+                    int id = palette[random.nextInt(palette.length)];
+                    if (expected[x][y][z] != id) effectiveEdits.incrementAndGet();
+                    expected[x][y][z] = id;
+                    chunk.setBlock(x, y, z, id);
+                }
+                return null;
+            }));
+        }
+
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(pool.submit(() -> {
+                start.await();
+                long lastVersion = -1;
+                int checked = 0;
+                do {
+                    ChunkSnapshot snapshot = chunk.getSnapshot();
+                    assertTrue(snapshot.getVersion() >= lastVersion, "version went backwards");
+                    lastVersion = snapshot.getVersion();
+                    assertSnapshotConsistent(snapshot, registry);
+                    checked++;
+                } while (writing.get());
+                return checked;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> writer : writers) writer.get(60, TimeUnit.SECONDS);
+            writing.set(false);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AssertionError) throw (AssertionError) e.getCause();
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ChunkSnapshot last = chunk.getSnapshot();
+        assertSnapshotConsistent(last, registry);
+        assertEquals(effectiveEdits.get(), last.getVersion(), "an edit was lost or applied twice");
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int y = 0; y < ChunkBase.SIZE_Y; y++) {
+                for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                    assertEquals(expected[x][y][z], last.get(x, y, z), "block at " + x + "," + y + "," + z);
+                }
+            }
+        }
+    }
+
+    /**
+     * Heightmap and top bound must match a full rescan of the snapshot's own blocks
+     */
+    private static void assertSnapshotConsistent(ChunkSnapshot snapshot, BlockRegistry registry) {
+        int highest = 0;
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+            for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                int height = 0;
+                for (int y = ChunkBase.SIZE_Y - 1; y >= 0; y--) {
+                    int id = snapshot.get(x, y, z);
+                    if (id != 0) highest = Math.max(highest, y + 1);
+                    if (height == 0 && registry.isOpaque(id)) height = y + 1;
+                }
+                if (snapshot.getHeight(x, z) != height) {
+                    fail("version " + snapshot.getVersion() + " column " + x + "," + z + ": heightmap says "
+                            + snapshot.getHeight(x, z) + ", blocks say " + height);
+                }
+            }
+        }
+        // Only ever raised by edits, so it may sit above the real top but never below it
+        assertTrue(snapshot.getTopBound() >= highest,
+                "version " + snapshot.getVersion() + ": top bound " + snapshot.getTopBound() + " below block at " + highest);
+    }
+}
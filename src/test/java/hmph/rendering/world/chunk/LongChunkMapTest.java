@@ -0,0 +1,111 @@
+package hmph.rendering.world.chunk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The open addressing map against a HashMap under random puts and removes. Removes leave tombstones,
+ * enough churn on a small live set forces the same-size rebuilds as well as the growing ones.
+ */
+class LongChunkMapTest {
+
+    private static void assertSameEntries(Map<Long, Integer> expected, LongChunkMap<Integer> map, String when) {
+        assertEquals(expected.size(), map.size(), when);
+        Map<Long, Integer> seen = new HashMap<>();
+        map.forEach((key, value) -> assertNull(seen.put(key, value), when + ": key visited twice"));
+        assertEquals(expected, seen, when);
+
+        Set<Long> keys = new HashSet<>();
+        for (long key : map.keys()) keys.add(key);
+        assertEquals(expected.keySet(), keys, when);
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()), when);
+        }
+    }
+
+    private static long randomKey(Random random, int spread) {
+        return ChunkGrid.key(random.nextInt(spread * 2 + 1) - spread, random.nextInt(spread * 2 + 1) - spread);
+    }
+
+    @Test
+    void randomPutsAndRemovesMatchAHashMap() {
+        Random random = new Random(13);
+        LongChunkMap<Integer> map = new LongChunkMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int op = 0; op < 200_000; op++) {
+            long key = randomKey(random, 20);
+            int roll = random.nextInt(10);
+            if (roll < 5) {
+                assertEquals(expected.put(key, op), map.put(key, op), "put " + op);
+            } else if (roll < 9) {
+                assertEquals(expected.remove(key), map.remove(key), "remove " + op);
+            } else {
+                int value = op;
+                assertEquals(expected.computeIfAbsent(key, k -> value), map.computeIfAbsent(key, k -> value), "compute " + op);
+            }
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+
+            if (op % 10_000 == 0) assertSameEntries(expected, map, "after " + op + " operations");
+        }
+        assertSameEntries(expected, map, "at the end");
+    }
+
+    @Test
+    void slidingWindowChurnsThroughTombstones() {
+        // A square of columns that keeps moving east, the way the chunk window does: the live set
+        // stays the same size while every key ever used passes through the table
+        LongChunkMap<Integer> map = new LongChunkMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        int radius = 6;
+        for (int x = -radius; x <= radius; x++) {
+            for (int z = -radius; z <= radius; z++) {
+                map.put(ChunkGrid.key(x, z), x);
+                expected.put(ChunkGrid.key(x, z), x);
+            }
+        }
+
+        for (int center = 1; center <= 2000; center++) {
+            for (int z = -radius; z <= radius; z++) {
+                long leaving = ChunkGrid.key(center - radius - 1, z);
+                long entering = ChunkGrid.key(center + radius, z);
+                assertEquals(expected.remove(leaving), map.remove(leaving));
+                assertNull(map.put(entering, center));
+                expected.put(entering, center);
+            }
+            // Columns that left are gone for good, not found through a stale probe chain
+            assertNull(map.get(ChunkGrid.key(center - radius - 1, 0)));
+            if (center % 100 == 0) assertSameEntries(expected, map, "window at " + center);
+        }
+    }
+
+    @Test
+    void removeIfAndPutBackOverATombstone() {
+        LongChunkMap<Integer> map = new LongChunkMap<>();
+        for (int x = 0; x < 100; x++) map.put(ChunkGrid.key(x, -x), x);
+
+        assertEquals(50, map.removeIf((key, value) -> value % 2 == 0));
+        assertEquals(50, map.size());
+        assertNull(map.get(ChunkGrid.key(10, -10)));
+        assertEquals(11, map.get(ChunkGrid.key(11, -11)));
+
+        // Reinserted into the tombstone it left
+        assertNull(map.put(ChunkGrid.key(10, -10), 10));
+        assertEquals(10, map.get(ChunkGrid.key(10, -10)));
+        assertEquals(51, map.size());
+        assertNull(map.remove(ChunkGrid.key(12, -12)));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(ChunkGrid.key(11, -11)));
+        assertThrows(NullPointerException.class, () -> map.put(1L, null));
+    }
+}
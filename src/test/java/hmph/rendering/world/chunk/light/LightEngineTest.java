@@ -0,0 +1,181 @@
+package hmph.rendering.world.chunk.light;
+
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.world.Direction;
+import hmph.rendering.world.chunk.ChunkBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Incremental relighting after random place/remove edits against lighting the same blocks from
+ * scratch (initialize every chunk, then stitch them together), on a 2x2 patch of chunks so edits
+ * near the borders relight across them.
+ */
+class LightEngineTest {
+    private static final int SIZE = 2;
+    private static final int GROUND = 64;
+
+    private final BlockRegistry registry = new BlockRegistry();
+    private final int stone = registry.getIDFromName("stone");
+    private final int glass = registry.getIDFromName("glass");
+    private final int lamp;
+
+    LightEngineTest() {
+        Map<Direction, String> textures = new HashMap<>();
+        for (Direction dir : Direction.values()) textures.put(dir, "lamp");
+        registry.registerBlock("test_lamp", "solid", textures,
+                new BlockRegistry.BlockProperties(0.3f, false, false, true, 14));
+        lamp = registry.getIDFromName("test_lamp");
+    }
+
+    private ChunkBase[][] lightWorld(int[][][][][] blocks) {
+        ChunkBase[][] chunks = new ChunkBase[SIZE][SIZE];
+        for (int cx = 0; cx < SIZE; cx++) {
+            for (int cz = 0; cz < SIZE; cz++) {
+                chunks[cx][cz] = new ChunkBase(cx, cz, registry, blocks[cx][cz]);
+                LightEngine.initialize(chunks[cx][cz], registry);
+            }
+        }
+        LightEngine engine = engineFor(chunks);
+        for (int cx = 0; cx < SIZE; cx++) {
+            for (int cz = 0; cz < SIZE; cz++) {
+                engine.stitch(chunks[cx][cz]);
+            }
+        }
+        return chunks;
+    }
+
+    private LightEngine engineFor(ChunkBase[][] chunks) {
+        return new LightEngine(registry, (chunkX, chunkZ) ->
+                chunkX >= 0 && chunkX < SIZE && chunkZ >= 0 && chunkZ < SIZE ? chunks[chunkX][chunkZ] : null);
+    }
+
+    /**
+     * Ground with caves, overhangs and a few lamps and glass blocks above it
+     */
+    private int[][][][][] generate(Random random) {
+        int[][][][][] blocks = new int[SIZE][SIZE][][][];
+        for (int cx = 0; cx < SIZE; cx++) {
+            for (int cz = 0; cz < SIZE; cz++) {
+                int[][][] column = new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+                for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                    for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                        for (int y = 0; y < GROUND + 16; y++) {
+                            int roll = random.nextInt(100);
+                            if (y < GROUND) {
+                                column[x][y][z] = roll < 8 ? 0 : (roll < 9 ? lamp : stone);
+                            } else if (roll < 6) {
+                                column[x][y][z] = roll < 4 ? stone : (roll < 5 ? glass : lamp);
+                            }
+                        }
+                    }
+                }
+                blocks[cx][cz] = column;
+            }
+        }
+        return blocks;
+    }
+
+    private void assertSameLight(ChunkBase[][] expected, ChunkBase[][] actual, String when) {
+        for (int cx = 0; cx < SIZE; cx++) {
+            for (int cz = 0; cz < SIZE; cz++) {
+                ChunkLight want = expected[cx][cz].getLight();
+                ChunkLight got = actual[cx][cz].getLight();
+                for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                    for (int y = 0; y < ChunkBase.SIZE_Y; y++) {
+                        for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                            for (int channel = ChunkLight.SKY; channel <= ChunkLight.BLOCK; channel++) {
+                                int w = want.get(channel, x, y, z), g = got.get(channel, x, y, z);
+                                if (w != g) {
+                                    fail(when + ": " + (channel == ChunkLight.SKY ? "sky" : "block") + " light at "
+                                            + (cx * ChunkBase.SIZE_X + x) + "," + y + "," + (cz * ChunkBase.SIZE_Z + z)
+                                            + " is " + g + ", a full relight gives " + w);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private ChunkBase[][] relightFromScratch(ChunkBase[][] chunks) {
+        int[][][][][] blocks = new int[SIZE][SIZE][][][];
+        for (int cx = 0; cx < SIZE; cx++) {
+            for (int cz = 0; cz < SIZE; cz++) {
+                blocks[cx][cz] = chunks[cx][cz].getSnapshot().toArray();
+            }
+        }
+        return lightWorld(blocks);
+    }
+
+    @Test
+    void stitchedWorldMatchesItself() {
+        int[][][][][] blocks = generate(new Random(7));
+        assertSameLight(lightWorld(blocks), lightWorld(blocks), "after stitching");
+    }
+
+    @Test
+    void incrementalEditsMatchFullRelight() {
+        Random random = new Random(11);
+        ChunkBase[][] chunks = lightWorld(generate(random));
+        LightEngine engine = engineFor(chunks);
+        int[] palette = {0, 0, stone, stone, glass, lamp};
+
+        for (int edit = 1; edit <= 400; edit++) {
+            int x = random.nextInt(SIZE * ChunkBase.SIZE_X);
+            int z = random.nextInt(SIZE * ChunkBase.SIZE_Z);
+            // Mostly around the surface, where sky and block light both change
+            int y = GROUND - 12 + random.nextInt(32);
+            int id = palette[random.nextInt(palette.length)];
+            ChunkBase chunk = chunks[x / ChunkBase.SIZE_X][z / ChunkBase.SIZE_Z];
+            if (chunk.getBlock(x % ChunkBase.SIZE_X, y, z % ChunkBase.SIZE_Z) == id) continue;
+
+            chunk.setBlock(x % ChunkBase.SIZE_X, y, z % ChunkBase.SIZE_Z, id);
+            engine.blockChanged(x, y, z);
+
+            if (edit % 40 == 0) {
+                assertSameLight(relightFromScratch(chunks), chunks, "after " + edit + " edits");
+            }
+        }
+    }
+
+    @Test
+    void removingTheOnlyLampDarkensASealedRoom() {
+        int[][][][][] blocks = new int[SIZE][SIZE][][][];
+        for (int cx = 0; cx < SIZE; cx++) {
+            for (int cz = 0; cz < SIZE; cz++) {
+                int[][][] column = new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+                for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                    for (int y = 0; y < GROUND; y++) {
+                        for (int z = 0; z < ChunkBase.SIZE_Z; z++) column[x][y][z] = stone;
+                    }
+                }
+                blocks[cx][cz] = column;
+            }
+        }
+        // Room straddling the border between (0,0) and (1,0), lamp on the floor
+        for (int x = 12; x < 20; x++) {
+            for (int y = 30; y < 34; y++) {
+                for (int z = 4; z < 8; z++) blocks[x / 16][0][x % 16][y][z] = 0;
+            }
+        }
+        blocks[0][0][13][30][5] = lamp;
+        ChunkBase[][] chunks = lightWorld(blocks);
+        LightEngine engine = engineFor(chunks);
+        // Six blocks east and one up, across the border
+        assertEquals(14 - 7, chunks[1][0].getLight().getBlockLight(19 - 16, 31, 5));
+
+        chunks[0][0].setBlock(13, 30, 5, 0);
+        engine.blockChanged(13, 30, 5);
+        for (int x = 12; x < 20; x++) {
+            assertEquals(0, chunks[x / 16][0].getLight().getBlockLight(x % 16, 31, 5), "x=" + x);
+        }
+        assertSameLight(relightFromScratch(chunks), chunks, "after removing the lamp");
+    }
+}
@@ -0,0 +1,119 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The majority vote against a plain count per cell, ties going to the block seen first top-down.
+ */
+class ChunkDownsamplerTest {
+    private static final BlockRegistry registry = new BlockRegistry();
+    private static final int STONE = registry.getIDFromName("stone");
+    private static final int DIRT = registry.getIDFromName("dirt");
+    private static final int GLASS = registry.getIDFromName("glass");
+
+    private static int[][][] empty() {
+        return new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+    }
+
+    private static int vote(int[][][] blocks, int baseX, int baseY, int baseZ, int factor) {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        int solid = 0;
+        for (int y = baseY + factor - 1; y >= baseY; y--) {
+            for (int x = baseX; x < baseX + factor; x++) {
+                for (int z = baseZ; z < baseZ + factor; z++) {
+                    if (blocks[x][y][z] == 0) continue;
+                    solid++;
+                    counts.merge(blocks[x][y][z], 1, Integer::sum);
+                }
+            }
+        }
+        if (solid * 2 < factor * factor * factor) return 0;
+
+        int best = 0, bestCount = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > bestCount) {
+                best = entry.getKey();
+                bestCount = entry.getValue();
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void randomChunksMatchAPlainCount() {
+        Random random = new Random(6);
+        int[] palette = {0, 0, 0, STONE, STONE, DIRT, GLASS};
+        for (int trial = 0; trial < 4; trial++) {
+            int[][][] blocks = empty();
+            int top = 40 + random.nextInt(100);
+            for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                for (int y = 0; y < top; y++) {
+                    for (int z = 0; z < ChunkBase.SIZE_Z; z++) blocks[x][y][z] = palette[random.nextInt(palette.length)];
+                }
+            }
+            ChunkSnapshot snapshot = ChunkSnapshot.of(blocks, registry);
+
+            for (int factor : new int[]{2, 4, 8}) {
+                int[][][] cells = ChunkDownsampler.downsample(snapshot, factor);
+                assertEquals(ChunkBase.SIZE_X / factor, cells.length);
+                assertEquals(ChunkBase.SIZE_Y / factor, cells[0].length);
+                for (int cx = 0; cx < cells.length; cx++) {
+                    for (int cy = 0; cy < cells[0].length; cy++) {
+                        for (int cz = 0; cz < cells[0][0].length; cz++) {
+                            assertEquals(vote(blocks, cx * factor, cy * factor, cz * factor, factor), cells[cx][cy][cz],
+                                    "factor " + factor + " cell " + cx + "," + cy + "," + cz);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void halfSolidIsSolidAndTiesGoToTheUpperBlock() {
+        int[][][] blocks = empty();
+        // Cell 0: bottom layer stone, top layer dirt - half solid each, a tie, dirt is on top
+        for (int x = 0; x < 2; x++) {
+            for (int z = 0; z < 2; z++) {
+                blocks[x][0][z] = STONE;
+                blocks[x][1][z] = DIRT;
+            }
+        }
+        // Cell 1 along x: three blocks out of eight, air
+        blocks[2][0][0] = STONE;
+        blocks[3][0][0] = STONE;
+        blocks[2][1][1] = DIRT;
+        // Cell 2 along x: four stone on the bottom, nothing above - exactly half, solid
+        for (int x = 4; x < 6; x++) {
+            for (int z = 0; z < 2; z++) blocks[x][0][z] = STONE;
+        }
+
+        int[][][] cells = ChunkDownsampler.downsample(ChunkSnapshot.of(blocks, registry), 2);
+        assertEquals(DIRT, cells[0][0][0]);
+        assertEquals(0, cells[1][0][0]);
+        assertEquals(STONE, cells[2][0][0]);
+        assertEquals(0, cells[0][1][0]);
+    }
+
+    @Test
+    void factorOneIsACopyAndBadFactorsAreRejected() {
+        int[][][] blocks = empty();
+        blocks[3][4][5] = GLASS;
+        ChunkSnapshot snapshot = ChunkSnapshot.of(blocks, registry);
+        int[][][] copy = ChunkDownsampler.downsample(snapshot, 1);
+        assertEquals(GLASS, copy[3][4][5]);
+        assertNotSame(blocks, copy);
+
+        assertThrows(IllegalArgumentException.class, () -> ChunkDownsampler.downsample(snapshot, 0));
+        assertThrows(IllegalArgumentException.class, () -> ChunkDownsampler.downsample(snapshot, 3));
+    }
+}
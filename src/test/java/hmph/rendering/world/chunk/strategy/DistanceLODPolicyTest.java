@@ -0,0 +1,94 @@
+package hmph.rendering.world.chunk.strategy;
+
+import hmph.rendering.world.chunk.ChunkLOD;
+import hmph.rendering.world.chunk.LODLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceLODPolicyTest {
+    private final DistanceLODPolicy policy = new DistanceLODPolicy(64, 128, 192, 8);
+
+    private LODLevel select(LODLevel current, float distance) {
+        ChunkLOD lod = new ChunkLOD(0, 0);
+        lod.currentLOD = current;
+        return policy.select(lod, distance);
+    }
+
+    @Test
+    void unloadedColumnsUsePlainThresholds() {
+        assertEquals(LODLevel.HIGH, select(LODLevel.UNLOADED, 64));
+        assertEquals(LODLevel.MEDIUM, select(LODLevel.UNLOADED, 64.5f));
+        assertEquals(LODLevel.LOW, select(LODLevel.UNLOADED, 192));
+        assertEquals(LODLevel.UNLOADED, select(LODLevel.UNLOADED, 192.5f));
+    }
+
+    @Test
+    void levelsOnlyChangePastTheBand() {
+        // Coarser once hysteresis past the threshold
+        assertEquals(LODLevel.HIGH, select(LODLevel.HIGH, 72));
+        assertEquals(LODLevel.MEDIUM, select(LODLevel.HIGH, 72.5f));
+        assertEquals(LODLevel.LOW, select(LODLevel.MEDIUM, 136.5f));
+        assertEquals(LODLevel.LOW, select(LODLevel.LOW, 200));
+        assertEquals(LODLevel.UNLOADED, select(LODLevel.LOW, 200.5f));
+
+        // Finer once hysteresis inside it
+        assertEquals(LODLevel.MEDIUM, select(LODLevel.MEDIUM, 56.5f));
+        assertEquals(LODLevel.HIGH, select(LODLevel.MEDIUM, 56));
+        assertEquals(LODLevel.LOW, select(LODLevel.LOW, 120.5f));
+        assertEquals(LODLevel.MEDIUM, select(LODLevel.LOW, 120));
+
+        // A big jump goes straight to the right level
+        assertEquals(LODLevel.LOW, select(LODLevel.HIGH, 150));
+        assertEquals(LODLevel.HIGH, select(LODLevel.LOW, 10));
+    }
+
+    @Test
+    void jitterAroundABoundaryNeverFlipsTheLevel() {
+        Random random = new Random(2);
+        for (float boundary : new float[]{64, 128, 192}) {
+            ChunkLOD lod = new ChunkLOD(0, 0);
+            lod.currentLOD = policy.select(lod, boundary);
+            LODLevel settled = lod.currentLOD;
+            for (int frame = 0; frame < 10000; frame++) {
+                // Anywhere inside the band, both sides of the threshold
+                float distance = boundary + (random.nextFloat() * 2 - 1) * 7.9f;
+                lod.currentLOD = policy.select(lod, distance);
+                assertEquals(settled, lod.currentLOD, "boundary " + boundary + " at " + distance);
+            }
+        }
+    }
+
+    @Test
+    void walkingOutAndBackChangesEachLevelOnce() {
+        ChunkLOD lod = new ChunkLOD(0, 0);
+        List<LODLevel> changes = new ArrayList<>();
+        lod.currentLOD = policy.select(lod, 0);
+        changes.add(lod.currentLOD);
+
+        // Wobbling by a few blocks on the way, like a player that isn't walking in a straight line
+        for (int step = 0; step <= 2 * 2500; step++) {
+            float distance = (step <= 2500 ? step : 2 * 2500 - step) * 0.1f + (float) Math.sin(step * 0.7) * 3;
+            LODLevel next = policy.select(lod, Math.max(distance, 0));
+            if (next != lod.currentLOD) changes.add(next);
+            lod.currentLOD = next;
+        }
+
+        assertEquals(List.of(LODLevel.HIGH, LODLevel.MEDIUM, LODLevel.LOW, LODLevel.UNLOADED,
+                LODLevel.LOW, LODLevel.MEDIUM, LODLevel.HIGH), changes);
+    }
+
+    @Test
+    void zeroHysteresisIsPlainThresholds() {
+        DistanceLODPolicy plain = new DistanceLODPolicy(64, 128, 192);
+        ChunkLOD lod = new ChunkLOD(0, 0);
+        lod.currentLOD = LODLevel.HIGH;
+        assertEquals(LODLevel.MEDIUM, plain.select(lod, 64.5f));
+        lod.currentLOD = LODLevel.MEDIUM;
+        assertEquals(LODLevel.HIGH, plain.select(lod, 64));
+    }
+}
@@ -0,0 +1,139 @@
+package hmph.rendering.world.chunk.visibility;
+
+import hmph.rendering.BlockRegistry;
+import hmph.rendering.world.chunk.ChunkBase;
+import hmph.rendering.world.chunk.ChunkGrid;
+import hmph.rendering.world.chunk.ChunkSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Headless traversal over connectivity computed from real blocks: a 7x7 patch of chunks, stone up
+ * to y=128 with open sky above, a shaft and tunnel carved into it and a room sealed in the rock.
+ */
+class CaveCullerTest {
+    private static final int WORLD_RADIUS = 3;
+    private static final int GROUND = 128;
+    private static final int TUNNEL_Y = 40;
+
+    private BlockRegistry registry;
+    private int stone;
+    private final Map<Long, int[][][]> blocks = new HashMap<>();
+    private final Map<Long, long[]> connectivity = new HashMap<>();
+
+    @BeforeEach
+    void buildWorld() {
+        registry = new BlockRegistry();
+        stone = registry.getIDFromName("stone");
+        for (int chunkX = -WORLD_RADIUS; chunkX <= WORLD_RADIUS; chunkX++) {
+            for (int chunkZ = -WORLD_RADIUS; chunkZ <= WORLD_RADIUS; chunkZ++) {
+                int[][][] column = new int[ChunkBase.SIZE_X][ChunkBase.SIZE_Y][ChunkBase.SIZE_Z];
+                for (int x = 0; x < ChunkBase.SIZE_X; x++) {
+                    for (int y = 0; y < GROUND; y++) {
+                        for (int z = 0; z < ChunkBase.SIZE_Z; z++) {
+                            column[x][y][z] = stone;
+                        }
+                    }
+                }
+                blocks.put(ChunkGrid.key(chunkX, chunkZ), column);
+            }
+        }
+
+        // Shaft from the surface down in chunk (-1, 0), then a tunnel west through (-2, 0)
+        int[][][] shaftChunk = blocks.get(ChunkGrid.key(-1, 0));
+        for (int y = TUNNEL_Y; y < GROUND; y++) shaftChunk[8][y][8] = 0;
+        for (int x = 0; x <= 8; x++) shaftChunk[x][TUNNEL_Y][8] = 0;
+        int[][][] tunnelChunk = blocks.get(ChunkGrid.key(-2, 0));
+        for (int x = 0; x < ChunkBase.SIZE_X; x++) tunnelChunk[x][TUNNEL_Y][8] = 0;
+
+        // Room in the middle of section 2 of chunk (1, 0), touching none of its faces
+        int[][][] roomChunk = blocks.get(ChunkGrid.key(1, 0));
+        for (int x = 4; x < 12; x++) {
+            for (int y = 36; y < 44; y++) {
+                for (int z = 4; z < 12; z++) {
+                    roomChunk[x][y][z] = 0;
+                }
+            }
+        }
+
+        blocks.forEach((key, column) ->
+                connectivity.put(key, SectionVisibility.computeChunk(ChunkSnapshot.of(column, registry), registry)));
+    }
+
+    private long connectivity(int chunkX, int sectionY, int chunkZ) {
+        long[] sections = connectivity.get(ChunkGrid.key(chunkX, chunkZ));
+        return sections != null ? sections[sectionY] : SectionVisibility.ALL;
+    }
+
+    private static int section(int y) {
+        return y / SectionVisibility.SECTION_SIZE;
+    }
+
+    @Test
+    void sealedRoomIsNotVisible() {
+        CaveCuller culler = new CaveCuller(WORLD_RADIUS);
+        culler.update(8f, GROUND + 8f, 8f, this::connectivity);
+
+        assertFalse(culler.isSectionVisible(1, section(40), 0), "room sealed in stone was reached");
+        // The column itself still shows through the sky above it
+        assertTrue(culler.isChunkVisible(1, 0));
+        assertTrue(culler.isSectionVisible(1, section(GROUND), 0));
+    }
+
+    @Test
+    void tunnelIsVisible() {
+        CaveCuller culler = new CaveCuller(WORLD_RADIUS);
+        culler.update(8f, GROUND + 8f, 8f, this::connectivity);
+
+        for (int y = TUNNEL_Y; y < GROUND; y += SectionVisibility.SECTION_SIZE) {
+            assertTrue(culler.isSectionVisible(-1, section(y), 0), "shaft section at y=" + y);
+        }
+        assertTrue(culler.isSectionVisible(-2, section(TUNNEL_Y), 0), "tunnel across the chunk border");
+        // Solid rock beside the tunnel is only reached as a wall, never passed through
+        assertFalse(culler.isSectionVisible(-3, section(TUNNEL_Y) + 1, 0));
+    }
+
+    @Test
+    void tunnelIsNotVisibleOnceFilled() {
+        blocks.get(ChunkGrid.key(-1, 0))[8][GROUND - 1][8] = stone;
+        connectivity.put(ChunkGrid.key(-1, 0),
+                SectionVisibility.computeChunk(ChunkSnapshot.of(blocks.get(ChunkGrid.key(-1, 0)), registry), registry));
+
+        CaveCuller culler = new CaveCuller(WORLD_RADIUS);
+        culler.update(8f, GROUND + 8f, 8f, this::connectivity);
+
+        assertFalse(culler.isSectionVisible(-2, section(TUNNEL_Y), 0));
+    }
+
+    @Test
+    void startingSectionIsAlwaysVisible() {
+        CaveCuller culler = new CaveCuller(WORLD_RADIUS);
+
+        // Inside the sealed room, inside solid rock, and above and below the world
+        float[][] eyes = {{24f, 40f, 8f}, {8f, 20f, 8f}, {8f, 400f, 8f}, {8f, -30f, 8f}};
+        for (float[] eye : eyes) {
+            culler.update(eye[0], eye[1], eye[2], this::connectivity);
+            int chunkX = Math.floorDiv((int) Math.floor(eye[0]), ChunkBase.SIZE_X);
+            int chunkZ = Math.floorDiv((int) Math.floor(eye[2]), ChunkBase.SIZE_Z);
+            int sectionY = Math.max(0, Math.min(SectionVisibility.SECTION_COUNT - 1,
+                    Math.floorDiv((int) Math.floor(eye[1]), SectionVisibility.SECTION_SIZE)));
+            assertTrue(culler.isSectionVisible(chunkX, sectionY, chunkZ), "start section for eye y=" + eye[1]);
+            assertTrue(culler.isChunkVisible(chunkX, chunkZ));
+        }
+    }
+
+    @Test
+    void solidRockOnlyReachesItsNeighbours() {
+        CaveCuller culler = new CaveCuller(WORLD_RADIUS);
+        culler.update(8f, 20f, 8f, this::connectivity);
+
+        // The start section plus the six it faces, nothing past them
+        assertEquals(7, culler.getVisibleSectionCount());
+        assertFalse(culler.isChunkVisible(2, 0));
+    }
+}
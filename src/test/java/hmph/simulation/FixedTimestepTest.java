@@ -0,0 +1,80 @@
+package hmph.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedTimestepTest {
+
+    @Test
+    void steadyFramesRunOneTickEach() {
+        FixedTimestep timestep = new FixedTimestep(60);
+        int ticks = 0;
+        for (int frame = 0; frame < 600; frame++) ticks += timestep.advance(1f / 60);
+        // Float error can hold the last tick back by a frame
+        assertTrue(ticks >= 599 && ticks <= 600, ticks + " ticks");
+        assertEquals(0, timestep.getDroppedTicks());
+    }
+
+    @Test
+    void fastFramesAccumulateIntoTicks() {
+        // 144 fps against a 60 Hz simulation, mostly 0 ticks a frame and never more than 1
+        FixedTimestep timestep = new FixedTimestep(60);
+        int ticks = 0;
+        for (int frame = 0; frame < 144 * 10; frame++) {
+            int due = timestep.advance(1f / 144);
+            assertTrue(due <= 1, "frame " + frame + " ran " + due);
+            ticks += due;
+        }
+        assertTrue(Math.abs(ticks - 600) <= 1, ticks + " ticks");
+    }
+
+    @Test
+    void randomFramesKeepTimeAndAlphaInRange() {
+        FixedTimestep timestep = new FixedTimestep(20);
+        Random random = new Random(4);
+        double elapsed = 0;
+        long ticks = 0;
+        for (int frame = 0; frame < 5000; frame++) {
+            float dt = random.nextFloat() * 0.12f;
+            elapsed += dt;
+            int due = timestep.advance(dt);
+            assertTrue(due >= 0 && due <= FixedTimestep.MAX_TICKS_PER_ADVANCE);
+            ticks += due;
+
+            float alpha = timestep.getAlpha();
+            assertTrue(alpha >= 0 && alpha <= 1, "alpha " + alpha);
+        }
+        // Nothing is lost or made up apart from what the cap dropped, up to float error
+        assertEquals(elapsed * 20, ticks + timestep.getDroppedTicks() + timestep.getAlpha(), 0.05);
+    }
+
+    @Test
+    void longFrameIsCappedAndTheRestDropped() {
+        FixedTimestep timestep = new FixedTimestep(20);
+        assertEquals(FixedTimestep.MAX_TICKS_PER_ADVANCE, timestep.advance(1.025f));
+        assertEquals(20 - FixedTimestep.MAX_TICKS_PER_ADVANCE, timestep.getDroppedTicks());
+        // The fraction past the last whole tick is kept, not dropped with the backlog
+        assertEquals(0.5f, timestep.getAlpha(), 1e-3f);
+
+        // No catching up on the next frame
+        assertEquals(0, timestep.advance(0.01f));
+        assertEquals(0.7f, timestep.getAlpha(), 1e-3f);
+    }
+
+    @Test
+    void negativeElapsedTimeIsIgnored() {
+        FixedTimestep timestep = new FixedTimestep(50);
+        timestep.advance(0.01f);
+        assertEquals(0, timestep.advance(-5f));
+        assertEquals(0.5f, timestep.getAlpha(), 1e-4f);
+    }
+
+    @Test
+    void rejectsNonPositiveRates() {
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(0));
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(-20));
+    }
+}
@@ -0,0 +1,100 @@
+package hmph.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MainThreadExecutorTest {
+    // Generous time budget so only the byte budget and the queues decide what runs
+    private static final float BUDGET_MS = 1000;
+
+    @Test
+    void drainsDeletesThenUploadsThenTheRest() {
+        MainThreadExecutor executor = new MainThreadExecutor(BUDGET_MS, 1 << 20);
+        List<String> ran = new ArrayList<>();
+        executor.submit(MainThreadExecutor.TaskType.GENERAL, () -> ran.add("general"));
+        executor.submitUpload(10, () -> ran.add("upload"));
+        executor.submit(MainThreadExecutor.TaskType.DELETE, () -> ran.add("delete"));
+        assertEquals(3, executor.getBacklog());
+
+        executor.drain();
+        assertEquals(List.of("delete", "upload", "general"), ran);
+        assertEquals(0, executor.getBacklog());
+        assertEquals(3, executor.getTasksLastFrame());
+        assertEquals(10, executor.getBytesLastFrame());
+    }
+
+    @Test
+    void uploadsStopAtTheByteBudget() {
+        MainThreadExecutor executor = new MainThreadExecutor(BUDGET_MS, 100);
+        int[] uploads = new int[1];
+        for (int i = 0; i < 10; i++) executor.submitUpload(40, () -> uploads[0]++);
+        executor.submit(MainThreadExecutor.TaskType.GENERAL, () -> {});
+
+        // 40 + 40 + 40 crosses 100, the upload that crosses it still runs
+        executor.drain();
+        assertEquals(3, uploads[0]);
+        assertEquals(7, executor.getBacklog(MainThreadExecutor.TaskType.UPLOAD));
+        // General work isn't held back by the upload budget
+        assertEquals(0, executor.getBacklog(MainThreadExecutor.TaskType.GENERAL));
+
+        executor.drain();
+        assertEquals(6, uploads[0]);
+    }
+
+    @Test
+    void oversizedUploadStillMakesProgress() {
+        MainThreadExecutor executor = new MainThreadExecutor(BUDGET_MS, 100);
+        int[] uploads = new int[1];
+        executor.submitUpload(1000, () -> uploads[0]++);
+        executor.submitUpload(1000, () -> uploads[0]++);
+
+        executor.drain();
+        assertEquals(1, uploads[0]);
+        executor.drain();
+        assertEquals(2, uploads[0]);
+    }
+
+    @Test
+    void zeroTimeBudgetRunsOneTaskPerFrame() {
+        MainThreadExecutor executor = new MainThreadExecutor(0, 1 << 20);
+        for (int i = 0; i < 5; i++) executor.submit(MainThreadExecutor.TaskType.GENERAL, () -> {});
+
+        for (int frame = 1; frame <= 5; frame++) {
+            executor.drain();
+            assertEquals(1, executor.getTasksLastFrame());
+            assertEquals(5 - frame, executor.getBacklog());
+        }
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheDrain() {
+        MainThreadExecutor executor = new MainThreadExecutor(BUDGET_MS, 1 << 20);
+        boolean[] after = new boolean[1];
+        executor.submit(MainThreadExecutor.TaskType.GENERAL, () -> {
+            throw new IllegalStateException("GL error");
+        });
+        executor.submit(MainThreadExecutor.TaskType.GENERAL, () -> after[0] = true);
+
+        executor.drain();
+        assertTrue(after[0]);
+        assertEquals(2, executor.getTotalTasks());
+    }
+
+    @Test
+    void clearDropsEverythingUnrun() {
+        MainThreadExecutor executor = new MainThreadExecutor(BUDGET_MS, 1 << 20);
+        boolean[] ran = new boolean[1];
+        executor.submitUpload(5, () -> ran[0] = true);
+        executor.submit(MainThreadExecutor.TaskType.DELETE, () -> ran[0] = true);
+
+        executor.clear();
+        executor.drain();
+        assertFalse(ran[0]);
+        assertEquals(0, executor.getBacklog());
+        assertEquals(0, executor.getOldestTaskAgeMillis());
+    }
+}